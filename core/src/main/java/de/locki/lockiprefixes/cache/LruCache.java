@@ -0,0 +1,102 @@
+package de.locki.lockiprefixes.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded least-recently-used cache with hit/miss/eviction counters.
+ * Safe for concurrent use; values are computed outside the lock, so two threads
+ * may occasionally compute the same value — the first one stored wins.
+ *
+ * Every operation, including reads (a hit moves the entry in the access order) and the
+ * counters, holds the one monitor. Each critical section is a single hash lookup, which is
+ * fine at chat rates; striping the lock would split the LRU order into per-stripe orders.
+ */
+public class LruCache<K, V> {
+
+    private final int capacity;
+    private final LinkedHashMap<K, V> map;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(final int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for a key, computing and storing it on a miss.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        synchronized (this) {
+            V value = map.get(key);
+            if (value != null) {
+                hits++;
+                return value;
+            }
+            misses++;
+        }
+
+        V computed = loader.apply(key);
+        synchronized (this) {
+            V existing = map.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            map.put(key, computed);
+        }
+        return computed;
+    }
+
+    public synchronized V getIfPresent(K key) {
+        return map.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, value);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return hits / (hits + misses), or 0 if the cache was never queried
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
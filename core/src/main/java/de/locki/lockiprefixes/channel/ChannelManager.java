@@ -0,0 +1,308 @@
+package de.locki.lockiprefixes.channel;
+
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.config.LockiConfig.ChannelSettings;
+import de.locki.lockiprefixes.lp.LuckPermsFacade;
+import de.locki.lockiprefixes.stats.StatsReport;
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes chat messages to channels and keeps each channel's members precomputed.
+ *
+ * Membership sets are updated on join, quit, world change and LuckPerms permission
+ * recalculation, so resolving the recipients of a message never scans all online players:
+ * a message to a 5-member staff channel touches those 5 players only.
+ * Local channels query a {@link ChunkGridIndex} fed from move and teleport events, so the
+ * recipients of a local message are found without reading any player's location.
+ */
+public class ChannelManager implements Listener {
+
+    private final Plugin plugin;
+    private final LockiConfig config;
+
+    private final Set<Player> online = ConcurrentHashMap.newKeySet();
+    // world name -> players in that world
+    private final Map<String, Set<Player>> worldMembers = new ConcurrentHashMap<>();
+    // permission channel id -> players holding its permission
+    private final Map<String, Set<Player>> permissionMembers = new ConcurrentHashMap<>();
+    // players bucketed by chunk, for local channels
+    private final ChunkGridIndex<Player> grid = new ChunkGridIndex<>();
+
+    public ChannelManager(Plugin plugin, LockiConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+    }
+
+    /**
+     * Registers listeners and builds the membership sets for everyone already online.
+     */
+    public void start(LuckPermsFacade luckPermsFacade) {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        registerLuckPermsListener(luckPermsFacade);
+        rebuild();
+    }
+
+    /**
+     * Rebuilds all membership sets, e.g. after the channel list changed on reload.
+     */
+    public void rebuild() {
+        online.clear();
+        worldMembers.clear();
+        permissionMembers.clear();
+        grid.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            add(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        add(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        online.remove(player);
+        Set<Player> world = worldMembers.get(player.getWorld().getName());
+        if (world != null) {
+            world.remove(player);
+        }
+        for (Set<Player> members : permissionMembers.values()) {
+            members.remove(player);
+        }
+        grid.remove(player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        Player player = event.getPlayer();
+        Set<Player> from = worldMembers.get(event.getFrom().getName());
+        if (from != null) {
+            from.remove(player);
+        }
+        worldSet(player.getWorld().getName()).add(player);
+        track(player, player.getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        moved(event.getPlayer(), event.getFrom(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        moved(event.getPlayer(), event.getFrom(), event.getTo());
+    }
+
+    /**
+     * Move events fire for every head rotation and step; the grid is only touched when the
+     * block column changes, and only re-buckets the player on chunk crossings.
+     */
+    private void moved(Player player, Location from, Location to) {
+        if (to == null || !config.isChannelsEnabled()) {
+            return;
+        }
+        if (from.getBlockX() == to.getBlockX() && from.getBlockZ() == to.getBlockZ()
+                && from.getWorld() == to.getWorld()) {
+            return;
+        }
+        track(player, to);
+    }
+
+    private void track(Player player, Location location) {
+        if (location.getWorld() != null) {
+            grid.update(player, location.getWorld().getName(), location.getBlockX(), location.getBlockZ());
+        }
+    }
+
+    private void add(Player player) {
+        online.add(player);
+        worldSet(player.getWorld().getName()).add(player);
+        updatePermissions(player);
+        track(player, player.getLocation());
+    }
+
+    private Set<Player> worldSet(String world) {
+        return worldMembers.computeIfAbsent(world, w -> ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * Re-checks the permission channels for one player.
+     */
+    private void updatePermissions(Player player) {
+        for (ChannelSettings channel : config.getChannels()) {
+            if (channel.getScope() != ChannelSettings.Scope.PERMISSION) {
+                continue;
+            }
+            Set<Player> members = permissionMembers.computeIfAbsent(channel.getId(), id -> ConcurrentHashMap.newKeySet());
+            if (player.hasPermission(channel.getPermission())) {
+                members.add(player);
+                // A recalculation racing with quit must not leave the departed player behind;
+                // quit leaves the online set before the channel sets
+                if (!online.contains(player)) {
+                    members.remove(player);
+                }
+            } else {
+                members.remove(player);
+            }
+        }
+    }
+
+    private void registerLuckPermsListener(LuckPermsFacade luckPermsFacade) {
+        try {
+            LuckPerms luckPerms = luckPermsFacade.getLuckPerms();
+            if (luckPerms == null) {
+                return;
+            }
+            // LuckPerms' permissible is thread-safe, so the recheck runs right on the event thread
+            luckPerms.getEventBus().subscribe(plugin, UserDataRecalculateEvent.class, event -> {
+                Player player = Bukkit.getPlayer(event.getUser().getUniqueId());
+                if (player != null && online.contains(player)) {
+                    updatePermissions(player);
+                }
+            });
+        } catch (Exception e) {
+            plugin.getLogger().warning("Could not register LuckPerms channel listener: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Picks the channel for a chat message: a channel whose prefix starts the message
+     * (if the sender may use it and there is text after it), otherwise the default channel.
+     *
+     * @return The route, or null if channels are disabled
+     */
+    public Route route(Player sender, String message) {
+        if (!config.isChannelsEnabled()) {
+            return null;
+        }
+        for (ChannelSettings channel : config.getChannels()) {
+            String prefix = channel.getPrefix();
+            if (prefix.isEmpty() || message.length() <= prefix.length() || !message.startsWith(prefix)
+                    || !canSend(sender, channel)) {
+                continue;
+            }
+            String text = message.substring(prefix.length()).trim();
+            if (!text.isEmpty()) {
+                return new Route(channel, text);
+            }
+        }
+        ChannelSettings fallback = config.getChannel(config.getDefaultChannel());
+        if (fallback == null || !canSend(sender, fallback)) {
+            return null;
+        }
+        return new Route(fallback, message);
+    }
+
+    private boolean canSend(Player sender, ChannelSettings channel) {
+        if (channel.getScope() != ChannelSettings.Scope.PERMISSION) {
+            return true;
+        }
+        Set<Player> members = permissionMembers.get(channel.getId());
+        return members != null && members.contains(sender);
+    }
+
+    /**
+     * Returns the recipients of a routed message from the membership sets.
+     */
+    public Collection<Player> getRecipients(Route route, Player sender) {
+        ChannelSettings channel = route.getChannel();
+        switch (channel.getScope()) {
+            case GLOBAL:
+                return Collections.unmodifiableSet(online);
+            case WORLD:
+                return members(worldMembers.get(sender.getWorld().getName()));
+            case LOCAL:
+                return nearby(sender, channel.getRadius());
+            default:
+                return members(permissionMembers.get(channel.getId()));
+        }
+    }
+
+    /**
+     * Players within the radius, by the block positions filed in the grid. Runs on the async
+     * chat thread, so it never reads the players' locations itself.
+     */
+    private Collection<Player> nearby(Player sender, int radius) {
+        List<Player> recipients = new ArrayList<>();
+        grid.collectNear(sender, radius, recipients);
+        if (!recipients.contains(sender)) {
+            recipients.add(sender);
+        }
+        return recipients;
+    }
+
+    private static Collection<Player> members(Set<Player> members) {
+        return members != null ? Collections.unmodifiableSet(members) : Collections.<Player>emptySet();
+    }
+
+    public void appendStats(StatsReport report) {
+        report.section("Chat channels");
+        for (ChannelSettings channel : config.getChannels()) {
+            String members;
+            switch (channel.getScope()) {
+                case GLOBAL:
+                    members = String.valueOf(online.size());
+                    break;
+                case WORLD:
+                    members = worldMembers.size() + " worlds";
+                    break;
+                case LOCAL:
+                    members = grid.size() + " players in " + grid.getCellCount() + " chunks";
+                    break;
+                default:
+                    Set<Player> set = permissionMembers.get(channel.getId());
+                    members = String.valueOf(set != null ? set.size() : 0);
+            }
+            report.line(channel.getId() + " (" + channel.getScope().name().toLowerCase() + ")", members);
+        }
+    }
+
+    /**
+     * A message routed to a channel, with the channel prefix removed.
+     */
+    public static final class Route {
+        private final ChannelSettings channel;
+        private final String message;
+
+        Route(ChannelSettings channel, String message) {
+            this.channel = channel;
+            this.message = message;
+        }
+
+        public ChannelSettings getChannel() {
+            return channel;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /** Global messages can use the server's normal delivery instead of an explicit recipient list. */
+        public boolean isGlobal() {
+            return channel.getScope() == ChannelSettings.Scope.GLOBAL;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package de.locki.lockiprefixes.channel;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatial index bucketing members by world and chunk (16x16 block column).
+ *
+ * A member is only re-bucketed when it crosses a chunk boundary, so the per-move cost is
+ * a map lookup; a radius query visits only the cells overlapping the radius instead of
+ * every player in the world. The last block position of each member is kept as well, so
+ * {@link #collectNear} can do the exact distance check without touching the members
+ * (players may not be read from the async chat thread on Folia).
+ *
+ * @param <T> The member type (a player, or anything with a position)
+ */
+public class ChunkGridIndex<T> {
+
+    // world name -> packed chunk key -> members in that chunk
+    private final Map<String, Map<Long, Set<T>>> worlds = new ConcurrentHashMap<>();
+    // member -> cell it is currently filed under
+    private final Map<T, Cell> positions = new ConcurrentHashMap<>();
+
+    /**
+     * Files a member under the chunk containing the given block position.
+     *
+     * @return true if the member changed cells (or was added)
+     */
+    public boolean update(T member, String world, int blockX, int blockZ) {
+        int chunkX = blockX >> 4;
+        int chunkZ = blockZ >> 4;
+        Cell current = positions.get(member);
+        if (current != null && current.matches(world, chunkX, chunkZ)) {
+            if (current.blockX != blockX || current.blockZ != blockZ) {
+                positions.put(member, new Cell(world, blockX, blockZ));
+            }
+            return false;
+        }
+        Cell next = new Cell(world, blockX, blockZ);
+        positions.put(member, next);
+        if (current != null) {
+            detach(member, current);
+        }
+        cells(world).compute(next.key, (key, members) -> {
+            if (members == null) {
+                members = ConcurrentHashMap.newKeySet();
+            }
+            members.add(member);
+            return members;
+        });
+        return true;
+    }
+
+    /**
+     * Removes a member from the index.
+     */
+    public void remove(T member) {
+        Cell current = positions.remove(member);
+        if (current != null) {
+            detach(member, current);
+        }
+    }
+
+    public void clear() {
+        worlds.clear();
+        positions.clear();
+    }
+
+    /**
+     * Adds every member filed in a cell that overlaps the square of the given radius
+     * around a block position.
+     *
+     * @return The number of cells visited
+     */
+    public int collect(String world, int blockX, int blockZ, int radius, Collection<T> out) {
+        Map<Long, Set<T>> cells = worlds.get(world);
+        if (cells == null) {
+            return 0;
+        }
+        int minX = (blockX - radius) >> 4;
+        int maxX = (blockX + radius) >> 4;
+        int minZ = (blockZ - radius) >> 4;
+        int maxZ = (blockZ + radius) >> 4;
+        int visited = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                visited++;
+                Set<T> members = cells.get(key(x, z));
+                if (members != null) {
+                    out.addAll(members);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Adds every member whose last filed block position is within the radius of another
+     * member's, including that member itself.
+     *
+     * @return The number of cells visited
+     */
+    public int collectNear(T origin, int radius, Collection<T> out) {
+        Cell center = positions.get(origin);
+        if (center == null) {
+            return 0;
+        }
+        Map<Long, Set<T>> cells = worlds.get(center.world);
+        if (cells == null) {
+            return 0;
+        }
+        long radiusSquared = (long) radius * radius;
+        int visited = 0;
+        for (int x = (center.blockX - radius) >> 4; x <= (center.blockX + radius) >> 4; x++) {
+            for (int z = (center.blockZ - radius) >> 4; z <= (center.blockZ + radius) >> 4; z++) {
+                visited++;
+                Set<T> members = cells.get(key(x, z));
+                if (members == null) {
+                    continue;
+                }
+                for (T member : members) {
+                    Cell at = positions.get(member);
+                    if (at == null || !at.world.equals(center.world)) {
+                        continue;
+                    }
+                    long dx = at.blockX - center.blockX;
+                    long dz = at.blockZ - center.blockZ;
+                    if (dx * dx + dz * dz <= radiusSquared) {
+                        out.add(member);
+                    }
+                }
+            }
+        }
+        return visited;
+    }
+
+    /** Number of indexed members. */
+    public int size() {
+        return positions.size();
+    }
+
+    /** Number of non-empty cells across all worlds. */
+    public int getCellCount() {
+        int count = 0;
+        for (Map<Long, Set<T>> cells : worlds.values()) {
+            count += cells.size();
+        }
+        return count;
+    }
+
+    private Map<Long, Set<T>> cells(String world) {
+        return worlds.computeIfAbsent(world, w -> new ConcurrentHashMap<>());
+    }
+
+    private void detach(T member, Cell cell) {
+        Map<Long, Set<T>> cells = worlds.get(cell.world);
+        if (cells == null) {
+            return;
+        }
+        // Empty cells are dropped so long-running servers do not accumulate every chunk ever visited
+        cells.computeIfPresent(cell.key, (key, members) -> {
+            members.remove(member);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Where a member is filed: its chunk, and the block column it was last seen in.
+     */
+    private static final class Cell {
+        final String world;
+        final int blockX;
+        final int blockZ;
+        final int chunkX;
+        final int chunkZ;
+        final long key;
+
+        Cell(String world, int blockX, int blockZ) {
+            this.world = world;
+            this.blockX = blockX;
+            this.blockZ = blockZ;
+            this.chunkX = blockX >> 4;
+            this.chunkZ = blockZ >> 4;
+            this.key = ChunkGridIndex.key(chunkX, chunkZ);
+        }
+
+        boolean matches(String world, int chunkX, int chunkZ) {
+            return this.chunkX == chunkX && this.chunkZ == chunkZ && this.world.equals(world);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.color.ClientCapability;
+import de.locki.lockiprefixes.color.ClientCapabilityResolver;
+import de.locki.lockiprefixes.color.ColorParser;
+import de.locki.lockiprefixes.color.DualRendered;
+import de.locki.lockiprefixes.format.LocalizedLine;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Hands a fully rendered chat line to Bukkit for the legacy, mid and modern modules.
+ *
+ * Modes (config "chat.mode"):
+ *   format  - line becomes the event format (default). CraftBukkit runs String.format on it,
+ *             so every % has to be escaped first.
+ *   message - constant "%2$s" format with the line as the message: the formatter call is trivial
+ *             and no escaping is needed. Later listeners see the rendered line as the message.
+ *   direct  - line is sent to the recipients and console as-is and the event is cancelled;
+ *             listeners ignoring cancelled events will not see the message.
+ *
+ * With a {@link ClientCapabilityResolver}, viewers on pre-1.16 clients get the line with hex
+ * colors mapped to legacy ones ({@link DualRendered}). In format/message mode those viewers
+ * are taken out of the event's recipients and sent their variant directly, since Bukkit can
+ * only deliver one line per event.
+ *
+ * Lines with locale variants ({@link LocalizedLine}) work the same way: the event carries the
+ * default line and viewers whose locale has a variant get theirs directly.
+ */
+public final class ChatDelivery {
+
+    private static final String MESSAGE_ONLY_FORMAT = "%2$s";
+
+    private ChatDelivery() {
+    }
+
+    public static void deliver(AsyncPlayerChatEvent event, String formatted, String mode) {
+        deliver(event, formatted, mode, null);
+    }
+
+    /**
+     * @param resolver Viewer capabilities, or null to send the line unchanged to everyone
+     */
+    public static void deliver(AsyncPlayerChatEvent event, String formatted, String mode,
+                               ClientCapabilityResolver resolver) {
+        DualRendered<String> line = resolver != null && ColorParser.containsHex(formatted)
+            ? DualRendered.of(formatted) : null;
+        if (line != null && "direct".equals(mode)) {
+            deliverTo(event, line, event.getRecipients(), resolver);
+            return;
+        }
+        if (line != null) {
+            // Legacy viewers leave the event and get their own copy
+            Iterator<Player> recipients = event.getRecipients().iterator();
+            while (recipients.hasNext()) {
+                Player recipient = recipients.next();
+                if (resolver.resolve(recipient.getUniqueId()) == ClientCapability.LEGACY) {
+                    recipients.remove();
+                    recipient.sendMessage(line.get(ClientCapability.LEGACY));
+                }
+            }
+        }
+        handOver(event, formatted, mode);
+    }
+
+    /**
+     * Delivers a line with locale variants; every viewer gets the variant for its locale and client.
+     *
+     * @param resolver Viewer capabilities, or null if every client can display the line
+     * @param locales  Viewer locales, or null to send everyone the default line
+     */
+    public static void deliver(AsyncPlayerChatEvent event, LocalizedLine<String> line, String mode,
+                               ClientCapabilityResolver resolver, ClientLocaleResolver locales) {
+        if (locales == null || !line.isLocalized()) {
+            deliver(event, line.getDefault(), mode, resolver);
+            return;
+        }
+        if ("direct".equals(mode)) {
+            deliverTo(event, line, event.getRecipients(), resolver, locales);
+            return;
+        }
+        String formatted = line.getDefault();
+        Iterator<Player> recipients = event.getRecipients().iterator();
+        while (recipients.hasNext()) {
+            Player recipient = recipients.next();
+            String variant = line.get(locales.resolve(recipient), capability(resolver, recipient));
+            if (variant != formatted) {
+                recipients.remove();
+                recipient.sendMessage(variant);
+            }
+        }
+        handOver(event, formatted, mode);
+    }
+
+    private static void handOver(AsyncPlayerChatEvent event, String formatted, String mode) {
+        switch (mode) {
+            case "message":
+                event.setFormat(MESSAGE_ONLY_FORMAT);
+                event.setMessage(formatted);
+                break;
+            case "direct":
+                for (Player recipient : event.getRecipients()) {
+                    recipient.sendMessage(formatted);
+                }
+                Bukkit.getConsoleSender().sendMessage(formatted);
+                event.setCancelled(true);
+                break;
+            default:
+                event.setFormat(escapeFormat(formatted));
+        }
+    }
+
+    /**
+     * Sends a channel message to its precomputed recipients and the console, cancelling the event
+     * so Bukkit does not deliver it to everyone.
+     */
+    public static void deliverTo(AsyncPlayerChatEvent event, String formatted, Collection<? extends Player> recipients) {
+        for (Player recipient : recipients) {
+            recipient.sendMessage(formatted);
+        }
+        Bukkit.getConsoleSender().sendMessage(formatted);
+        event.setCancelled(true);
+    }
+
+    /**
+     * Like {@link #deliverTo(AsyncPlayerChatEvent, String, Collection)}, sending each recipient
+     * the variant its client can display.
+     *
+     * @param resolver Viewer capabilities, or null to send the line unchanged to everyone
+     */
+    public static void deliverTo(AsyncPlayerChatEvent event, String formatted, Collection<? extends Player> recipients,
+                                 ClientCapabilityResolver resolver) {
+        if (resolver == null || !ColorParser.containsHex(formatted)) {
+            deliverTo(event, formatted, recipients);
+        } else {
+            deliverTo(event, DualRendered.of(formatted), recipients, resolver);
+        }
+    }
+
+    /**
+     * Like {@link #deliverTo(AsyncPlayerChatEvent, String, Collection, ClientCapabilityResolver)},
+     * sending each recipient the variant for its locale and client.
+     *
+     * @param resolver Viewer capabilities, or null if every client can display the line
+     * @param locales  Viewer locales, or null to send everyone the default line
+     */
+    public static void deliverTo(AsyncPlayerChatEvent event, LocalizedLine<String> line,
+                                 Collection<? extends Player> recipients, ClientCapabilityResolver resolver,
+                                 ClientLocaleResolver locales) {
+        if (locales == null || !line.isLocalized()) {
+            deliverTo(event, line.getDefault(), recipients, resolver);
+            return;
+        }
+        for (Player recipient : recipients) {
+            recipient.sendMessage(line.get(locales.resolve(recipient), capability(resolver, recipient)));
+        }
+        Bukkit.getConsoleSender().sendMessage(line.getDefault());
+        event.setCancelled(true);
+    }
+
+    private static ClientCapability capability(ClientCapabilityResolver resolver, Player player) {
+        return resolver != null ? resolver.resolve(player.getUniqueId()) : ClientCapability.HEX;
+    }
+
+    private static void deliverTo(AsyncPlayerChatEvent event, DualRendered<String> line,
+                                  Collection<? extends Player> recipients, ClientCapabilityResolver resolver) {
+        for (Player recipient : recipients) {
+            recipient.sendMessage(line.get(resolver.resolve(recipient.getUniqueId())));
+        }
+        Bukkit.getConsoleSender().sendMessage(line.getHex());
+        event.setCancelled(true);
+    }
+
+    /**
+     * Escapes % for String.format, skipping the copy when there is nothing to escape.
+     */
+    static String escapeFormat(String formatted) {
+        return formatted.indexOf('%') < 0 ? formatted : formatted.replace("%", "%%");
+    }
+}
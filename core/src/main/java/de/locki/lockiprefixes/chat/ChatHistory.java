@@ -0,0 +1,130 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.config.LockiConfig;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Fixed-size ring buffer of the last global chat lines, replayed to joining players.
+ *
+ * Lines are stored exactly as they were delivered (a legacy string or an Adventure Component),
+ * so a replay is a plain copy: no re-rendering and no LuckPerms lookups for senders who may
+ * have left long ago. Senders the joining player ignores are skipped.
+ *
+ * @param <T> The delivered line type
+ */
+public class ChatHistory<T> implements Listener {
+
+    private final LockiConfig config;
+    private final BiConsumer<Player, T> delivery;
+    private final IgnoreManager ignoreManager;
+
+    private Object[] lines;
+    private UUID[] senders;
+    // Index of the slot the next line goes into; the oldest line sits at (next - count)
+    private int next;
+    private int count;
+
+    /**
+     * @param config        Supplies chat.history.enabled/size (re-read on every call, so reloads apply)
+     * @param delivery      Sends a stored line to a player
+     * @param ignoreManager Ignore lists, or null
+     */
+    public ChatHistory(LockiConfig config, BiConsumer<Player, T> delivery, IgnoreManager ignoreManager) {
+        this.config = config;
+        this.delivery = delivery;
+        this.ignoreManager = ignoreManager;
+        this.lines = new Object[config.getChatHistorySize()];
+        this.senders = new UUID[lines.length];
+    }
+
+    /**
+     * Stores a delivered global line, overwriting the oldest one when full.
+     */
+    public synchronized void record(UUID sender, T line) {
+        if (!config.isChatHistoryEnabled()) {
+            return;
+        }
+        resizeIfNeeded();
+        lines[next] = line;
+        senders[next] = sender;
+        next = (next + 1) % lines.length;
+        if (count < lines.length) {
+            count++;
+        }
+    }
+
+    /**
+     * Returns the stored lines oldest first, leaving out the given senders.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> snapshot(Set<UUID> skipSenders) {
+        if (!config.isChatHistoryEnabled() || count == 0) {
+            return Collections.emptyList();
+        }
+        resizeIfNeeded();
+        List<T> result = new ArrayList<>(count);
+        int start = next - count + lines.length;
+        for (int i = 0; i < count; i++) {
+            int index = (start + i) % lines.length;
+            if (!skipSenders.contains(senders[index])) {
+                result.add((T) lines[index]);
+            }
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(lines, null);
+        Arrays.fill(senders, null);
+        next = 0;
+        count = 0;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        Set<UUID> ignored = ignoreManager != null ? ignoreManager.getIgnored(player) : Collections.<UUID>emptySet();
+        for (T line : snapshot(ignored)) {
+            delivery.accept(player, line);
+        }
+    }
+
+    /**
+     * Applies a changed chat.history.size, keeping the newest lines.
+     */
+    private void resizeIfNeeded() {
+        int capacity = config.getChatHistorySize();
+        if (capacity == lines.length) {
+            return;
+        }
+        Object[] resizedLines = new Object[capacity];
+        UUID[] resizedSenders = new UUID[capacity];
+        int kept = Math.min(count, capacity);
+        int start = next - kept + lines.length;
+        for (int i = 0; i < kept; i++) {
+            int index = (start + i) % lines.length;
+            resizedLines[i] = lines[index];
+            resizedSenders[i] = senders[index];
+        }
+        lines = resizedLines;
+        senders = resizedSenders;
+        count = kept;
+        next = kept % capacity;
+    }
+}
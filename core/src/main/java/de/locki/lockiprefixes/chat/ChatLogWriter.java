@@ -0,0 +1,311 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.placeholder.PlayerData;
+import de.locki.lockiprefixes.stats.StatsReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Audit log of formatted chat.
+ *
+ * Chat threads only push a record onto a lock-free queue; a single writer thread drains it
+ * in batches into append-only files through a {@link FileChannel}, rotating by size and
+ * deleting the oldest files beyond chat.log.max-files.
+ *
+ * One record per line, tab-separated:
+ * {@code epochMillis  uuid  group  world  channel  rawMessage  renderedLine}
+ * with tab, newline, carriage return and backslash escaped as \t, \n, \r and \\.
+ *
+ * fsync policy (chat.log.fsync):
+ *   none     - leave flushing to the OS (fastest, may lose the last seconds on a crash)
+ *   batch    - force to disk after every written batch
+ *   interval - force at most every chat.log.fsync-interval-ms
+ */
+public class ChatLogWriter {
+
+    private static final int MAX_PENDING = 65536;
+    // Writer wakes at least this often; a full batch wakes it early
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final int WAKE_BATCH = 256;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final File directory;
+    private final Logger logger;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final String fsyncPolicy;
+    private final long fsyncIntervalNanos;
+
+    private final Queue<Record> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    // Writer thread state
+    private FileChannel channel;
+    private File currentFile;
+    private long currentSize;
+    private long lastSync;
+    private final StringBuilder batch = new StringBuilder(8192);
+
+    public ChatLogWriter(File directory, Logger logger, LockiConfig config) {
+        this.directory = directory;
+        this.logger = logger;
+        this.maxFileBytes = config.getChatLogMaxFileMb() * 1024L * 1024L;
+        this.maxFiles = config.getChatLogMaxFiles();
+        this.fsyncPolicy = config.getChatLogFsync();
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getChatLogFsyncIntervalMs());
+    }
+
+    /**
+     * Opens a new log file and starts the writer thread.
+     */
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::run, "LockiPrefixes-ChatLog");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    /**
+     * Queues a chat record. Never blocks; records are dropped (and counted) if the writer falls far
+     * behind or is already closed.
+     */
+    public void log(PlayerData playerData, String channel, String message, String rendered) {
+        // Counted before the running check, so close() waits for records that got past it
+        if (pending.incrementAndGet() > MAX_PENDING || !running) {
+            pending.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.offer(new Record(System.currentTimeMillis(), playerData.getUuid(), playerData.getPrimaryGroup(),
+            playerData.getWorld(), channel, message, rendered));
+        if (pending.get() >= WAKE_BATCH) {
+            Thread thread = writer;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * Stops the writer, writes everything still queued and forces it to disk.
+     * Called from onDisable and before a reload replaces the writer.
+     */
+    public void close() {
+        running = false;
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        // Only left behind if the writer failed or did not finish in time
+        int lost = 0;
+        while (queue.poll() != null) {
+            pending.decrementAndGet();
+            lost++;
+        }
+        if (lost > 0) {
+            dropped.addAndGet(lost);
+            logger.warning("Chat log closed with " + lost + " records unwritten.");
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                LockSupport.parkNanos(this, POLL_NANOS);
+                drain();
+            }
+            // Chat threads that saw the writer running may still be adding their records
+            drain();
+            while (pending.get() > 0) {
+                Thread.yield();
+                drain();
+            }
+            if (channel != null) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Chat log writer stopped: " + e.getMessage(), e);
+            running = false;
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private void drain() throws IOException {
+        Record record;
+        int count = 0;
+        batch.setLength(0);
+        while ((record = queue.poll()) != null) {
+            pending.decrementAndGet();
+            record.appendTo(batch);
+            count++;
+            if (batch.length() >= 64 * 1024) {
+                write(count);
+                count = 0;
+                batch.setLength(0);
+            }
+        }
+        if (count > 0) {
+            write(count);
+        }
+    }
+
+    private void write(int records) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+        if (channel == null || currentSize + bytes.remaining() > maxFileBytes) {
+            rotate();
+        }
+        while (bytes.hasRemaining()) {
+            currentSize += channel.write(bytes);
+        }
+        written.addAndGet(records);
+
+        long now = System.nanoTime();
+        if ("batch".equals(fsyncPolicy) || ("interval".equals(fsyncPolicy) && now - lastSync >= fsyncIntervalNanos)) {
+            channel.force(false);
+            lastSync = now;
+        }
+    }
+
+    private void rotate() throws IOException {
+        closeChannel();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        String stamp = LocalDateTime.now().format(FILE_TIME);
+        File file = new File(directory, "chat-" + stamp + ".log");
+        for (int i = 1; file.exists(); i++) {
+            file = new File(directory, "chat-" + stamp + "-" + i + ".log");
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+        currentFile = file;
+        currentSize = 0;
+        deleteOldFiles();
+    }
+
+    private void deleteOldFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("chat-") && name.endsWith(".log"));
+        if (files == null || files.length <= maxFiles) {
+            return;
+        }
+        // Names sort chronologically
+        Arrays.sort(files);
+        for (int i = 0; i < files.length - maxFiles; i++) {
+            if (!files[i].delete()) {
+                logger.warning("Could not delete old chat log " + files[i].getName());
+            }
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Could not close chat log: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    public void appendStats(StatsReport report) {
+        File file = currentFile;
+        report.section("Chat log")
+            .line("Written", written.get())
+            .line("Queued", pending.get())
+            .line("Dropped", dropped.get())
+            .line("File", file != null ? file.getName() : "none")
+            .line("fsync", fsyncPolicy);
+    }
+
+    static void escape(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+
+    private static final class Record {
+        final long time;
+        final UUID uuid;
+        final String group;
+        final String world;
+        final String channel;
+        final String message;
+        final String rendered;
+
+        Record(long time, UUID uuid, String group, String world, String channel, String message, String rendered) {
+            this.time = time;
+            this.uuid = uuid;
+            this.group = group;
+            this.world = world;
+            this.channel = channel;
+            this.message = message;
+            this.rendered = rendered;
+        }
+
+        void appendTo(StringBuilder out) {
+            out.append(time).append('\t').append(uuid).append('\t');
+            escape(out, group);
+            out.append('\t');
+            escape(out, world);
+            out.append('\t');
+            escape(out, channel);
+            out.append('\t');
+            escape(out, message);
+            out.append('\t');
+            escape(out, rendered);
+            out.append('\n');
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package de.locki.lockiprefixes.chat;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Reads the locale a player's client reports ("en_us", "de_de").
+ *
+ * The API differs per server version (Player.Spigot#getLocale on 1.8-1.11, Player#getLocale
+ * from 1.12, Player#locale on Paper), so each module passes its own method reference.
+ * Called once per recipient from async chat threads; it must not block.
+ */
+public interface ClientLocaleResolver {
+
+    /**
+     * @param player The viewer
+     * @return The client locale, or null if unknown
+     */
+    String resolve(Player player);
+}
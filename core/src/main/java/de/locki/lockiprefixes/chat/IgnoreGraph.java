@@ -0,0 +1,175 @@
+package de.locki.lockiprefixes.chat;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Ignore relationships between online members, stored as bitsets over dense slots.
+ *
+ * Every online member gets the lowest free slot index. For each slot two bitsets are kept:
+ * the slots it ignores and the slots ignoring it. Filtering a message's recipients then only
+ * walks the sender's "ignored by" bits — usually none, in which case the recipients are left
+ * untouched without a single lookup.
+ *
+ * Full ignore lists (including offline targets) are kept per online member so that
+ * relationships are re-linked when a target comes online.
+ *
+ * @param <T> The member type (a player)
+ */
+public class IgnoreGraph<T> {
+
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final BitSet usedSlots = new BitSet();
+    private Object[] members = new Object[16];
+    private BitSet[] ignoring = new BitSet[16];
+    private BitSet[] ignoredBy = new BitSet[16];
+    private final Map<UUID, Set<UUID>> lists = new HashMap<>();
+
+    /**
+     * Adds an online member with its persisted ignore list.
+     *
+     * @return The slot assigned to the member
+     */
+    public synchronized int join(UUID id, T member, Collection<UUID> ignoreList) {
+        quit(id);
+        int slot = usedSlots.nextClearBit(0);
+        usedSlots.set(slot);
+        ensureCapacity(slot + 1);
+        slots.put(id, slot);
+        members[slot] = member;
+        ignoring[slot] = new BitSet();
+        ignoredBy[slot] = new BitSet();
+        Set<UUID> list = new LinkedHashSet<>(ignoreList);
+        list.remove(id);
+        lists.put(id, list);
+
+        for (UUID target : list) {
+            Integer targetSlot = slots.get(target);
+            if (targetSlot != null) {
+                link(slot, targetSlot);
+            }
+        }
+        for (Map.Entry<UUID, Set<UUID>> entry : lists.entrySet()) {
+            if (!entry.getKey().equals(id) && entry.getValue().contains(id)) {
+                link(slots.get(entry.getKey()), slot);
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Removes a member and frees its slot.
+     */
+    public synchronized void quit(UUID id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        for (int target = ignoring[slot].nextSetBit(0); target >= 0; target = ignoring[slot].nextSetBit(target + 1)) {
+            ignoredBy[target].clear(slot);
+        }
+        for (int owner = ignoredBy[slot].nextSetBit(0); owner >= 0; owner = ignoredBy[slot].nextSetBit(owner + 1)) {
+            ignoring[owner].clear(slot);
+        }
+        members[slot] = null;
+        ignoring[slot] = null;
+        ignoredBy[slot] = null;
+        usedSlots.clear(slot);
+        lists.remove(id);
+    }
+
+    /**
+     * Toggles whether the owner ignores the target.
+     *
+     * @return true if the target is now ignored, false if it was un-ignored
+     * @throws IllegalStateException if the owner is not online
+     */
+    public synchronized boolean toggle(UUID owner, UUID target) {
+        Set<UUID> list = lists.get(owner);
+        Integer ownerSlot = slots.get(owner);
+        if (list == null || ownerSlot == null) {
+            throw new IllegalStateException("Not online: " + owner);
+        }
+        Integer targetSlot = slots.get(target);
+        if (list.remove(target)) {
+            if (targetSlot != null) {
+                ignoring[ownerSlot].clear(targetSlot);
+                ignoredBy[targetSlot].clear(ownerSlot);
+            }
+            return false;
+        }
+        list.add(target);
+        if (targetSlot != null) {
+            link(ownerSlot, targetSlot);
+        }
+        return true;
+    }
+
+    /**
+     * The owner's full ignore list, including offline targets.
+     */
+    public synchronized Set<UUID> getList(UUID owner) {
+        Set<UUID> list = lists.get(owner);
+        return list != null ? Collections.unmodifiableSet(new LinkedHashSet<>(list)) : Collections.<UUID>emptySet();
+    }
+
+    /**
+     * Whether any online member ignores the sender.
+     */
+    public synchronized boolean isIgnored(UUID sender) {
+        Integer slot = slots.get(sender);
+        return slot != null && !ignoredBy[slot].isEmpty();
+    }
+
+    /**
+     * Removes every member ignoring the sender from a recipient collection.
+     *
+     * @return The number of recipients removed
+     */
+    public synchronized int removeIgnoring(UUID sender, Collection<?> recipients) {
+        Integer slot = slots.get(sender);
+        if (slot == null || ignoredBy[slot].isEmpty()) {
+            return 0;
+        }
+        BitSet owners = ignoredBy[slot];
+        int removed = 0;
+        for (int owner = owners.nextSetBit(0); owner >= 0; owner = owners.nextSetBit(owner + 1)) {
+            if (recipients.remove(members[owner])) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /** Number of online members. */
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    /** Highest slot in use plus one; stays close to {@link #size()} because freed slots are reused. */
+    public synchronized int getSlotSpan() {
+        return usedSlots.length();
+    }
+
+    private void link(int owner, int target) {
+        ignoring[owner].set(target);
+        ignoredBy[target].set(owner);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= members.length) {
+            return;
+        }
+        int size = Math.max(capacity, members.length * 2);
+        members = Arrays.copyOf(members, size);
+        ignoring = Arrays.copyOf(ignoring, size);
+        ignoredBy = Arrays.copyOf(ignoredBy, size);
+    }
+}
@@ -0,0 +1,183 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.lp.LuckPermsFacade;
+import de.locki.lockiprefixes.stats.StatsReport;
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player ignore lists for /ignore.
+ *
+ * Relationships between online players live in an {@link IgnoreGraph}; lists are persisted
+ * as LuckPerms meta ({@value #META_KEY}, comma-separated UUIDs), written asynchronously
+ * whenever a player changes their list.
+ *
+ * Senders with {@value #EXEMPT_PERMISSION} reach everyone, even players who ignored them
+ * before they were granted it; the permission is re-checked on join and on LuckPerms recalculation.
+ */
+public class IgnoreManager implements Listener {
+
+    public static final String META_KEY = "lockiprefixes-ignored";
+    public static final String EXEMPT_PERMISSION = "lockiprefixes.ignore.exempt";
+
+    private final Plugin plugin;
+    private final LuckPermsFacade luckPermsFacade;
+    private final IgnoreGraph<Player> graph = new IgnoreGraph<>();
+    private final Set<UUID> exempt = ConcurrentHashMap.newKeySet();
+
+    public IgnoreManager(Plugin plugin, LuckPermsFacade luckPermsFacade) {
+        this.plugin = plugin;
+        this.luckPermsFacade = luckPermsFacade;
+    }
+
+    /**
+     * Registers listeners and loads the lists of everyone already online.
+     */
+    public void start() {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            load(player);
+        }
+        registerLuckPermsListener();
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        load(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        graph.quit(event.getPlayer().getUniqueId());
+        exempt.remove(event.getPlayer().getUniqueId());
+    }
+
+    private void registerLuckPermsListener() {
+        try {
+            LuckPerms luckPerms = luckPermsFacade.getLuckPerms();
+            if (luckPerms == null) {
+                return;
+            }
+            // LuckPerms' permissible is thread-safe, so the recheck runs right on the event thread
+            luckPerms.getEventBus().subscribe(plugin, UserDataRecalculateEvent.class, event -> {
+                Player player = Bukkit.getPlayer(event.getUser().getUniqueId());
+                if (player != null && player.isOnline()) {
+                    updateExempt(player);
+                }
+            });
+        } catch (Exception e) {
+            plugin.getLogger().warning("Could not register LuckPerms ignore listener: " + e.getMessage());
+        }
+    }
+
+    private void updateExempt(Player player) {
+        if (player.hasPermission(EXEMPT_PERMISSION)) {
+            exempt.add(player.getUniqueId());
+        } else {
+            exempt.remove(player.getUniqueId());
+        }
+    }
+
+    private void load(Player player) {
+        updateExempt(player);
+        graph.join(player.getUniqueId(), player, parse(luckPermsFacade.getPlayerMeta(player.getUniqueId(), META_KEY)));
+    }
+
+    /**
+     * Toggles an ignore and saves the owner's list.
+     *
+     * @return true if the target is now ignored
+     */
+    public boolean toggle(Player owner, UUID target) {
+        boolean ignored = graph.toggle(owner.getUniqueId(), target);
+        save(owner.getUniqueId());
+        return ignored;
+    }
+
+    public Set<UUID> getIgnored(Player owner) {
+        return graph.getList(owner.getUniqueId());
+    }
+
+    /**
+     * Returns the recipients that do not ignore the sender.
+     * The given collection is returned as-is when nobody ignores the sender.
+     */
+    public Collection<Player> filter(Player sender, Collection<? extends Player> recipients) {
+        if (!isIgnored(sender)) {
+            return Collections.unmodifiableCollection(recipients);
+        }
+        List<Player> filtered = new ArrayList<>(recipients);
+        graph.removeIgnoring(sender.getUniqueId(), filtered);
+        return filtered;
+    }
+
+    /**
+     * Removes everyone ignoring the sender from a mutable recipient set (e.g. the event's recipients).
+     */
+    public void removeIgnoring(Player sender, Collection<?> recipients) {
+        if (exempt.contains(sender.getUniqueId())) {
+            return;
+        }
+        graph.removeIgnoring(sender.getUniqueId(), recipients);
+    }
+
+    /**
+     * Whether any online player ignores the sender. Always false for exempt senders.
+     */
+    public boolean isIgnored(Player sender) {
+        return !exempt.contains(sender.getUniqueId()) && graph.isIgnored(sender.getUniqueId());
+    }
+
+    private void save(final UUID owner) {
+        Set<UUID> list = graph.getList(owner);
+        StringBuilder value = new StringBuilder(list.size() * 37);
+        for (UUID target : list) {
+            if (value.length() > 0) {
+                value.append(',');
+            }
+            value.append(target);
+        }
+        luckPermsFacade.setPlayerMeta(owner, META_KEY, value.toString()).exceptionally(error -> {
+            plugin.getLogger().warning("Could not save ignore list of " + owner + ": " + error.getMessage());
+            return null;
+        });
+    }
+
+    static List<UUID> parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<UUID> ids = new ArrayList<>();
+        for (String part : value.split(",")) {
+            try {
+                ids.add(UUID.fromString(part.trim()));
+            } catch (IllegalArgumentException ignored) {
+                // Hand-edited meta; skip the broken entry
+            }
+        }
+        return ids;
+    }
+
+    public void appendStats(StatsReport report) {
+        report.section("Ignore lists")
+            .line("Players", graph.size())
+            .line("Exempt", exempt.size())
+            .line("Slot span", graph.getSlotSpan());
+    }
+}
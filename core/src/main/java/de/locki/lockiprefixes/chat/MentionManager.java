@@ -0,0 +1,99 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.stats.StatsReport;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the {@link MentionMatcher} in step with the online players and pings mentioned players.
+ *
+ * The chat formatter highlights mentions while rendering; the chat listener then asks for the
+ * players to ping, which reuses that scan.
+ */
+public class MentionManager implements Listener {
+
+    private final Plugin plugin;
+    private final LockiConfig config;
+    private final MentionMatcher matcher = new MentionMatcher();
+
+    public MentionManager(Plugin plugin, LockiConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+    }
+
+    /**
+     * Registers listeners and adds everyone already online.
+     */
+    public void start() {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            matcher.add(player.getUniqueId(), player.getName());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        matcher.add(event.getPlayer().getUniqueId(), event.getPlayer().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        matcher.remove(event.getPlayer().getUniqueId());
+    }
+
+    public MentionMatcher getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * The recipients mentioned in a message, without the sender.
+     *
+     * @return The players to ping; empty when mentions are disabled or nobody is mentioned
+     */
+    public List<Player> mentioned(Player sender, String message, Collection<?> recipients) {
+        if (!config.isChatMentionsEnabled()) {
+            return Collections.emptyList();
+        }
+        List<MentionMatcher.Mention> mentions = matcher.find(message);
+        if (mentions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Player> targets = new ArrayList<>(mentions.size());
+        for (MentionMatcher.Mention mention : mentions) {
+            Player target = Bukkit.getPlayer(mention.getId());
+            if (target != null && target != sender && !targets.contains(target) && recipients.contains(target)) {
+                targets.add(target);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Plays the mention sound to a player. Must run where the player may be accessed (main thread,
+     * or the player's region on Folia).
+     */
+    public void ping(Player target) {
+        String sound = config.getChatMentionSound();
+        if (!sound.isEmpty() && target.isOnline()) {
+            target.playSound(target.getLocation(), sound, config.getChatMentionVolume(), config.getChatMentionPitch());
+        }
+    }
+
+    public void appendStats(StatsReport report) {
+        report.section("Mentions")
+            .line("Names", matcher.size())
+            .line("Automaton rebuilds", matcher.getRebuilds());
+    }
+}
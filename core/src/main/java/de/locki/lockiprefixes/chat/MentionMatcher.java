@@ -0,0 +1,292 @@
+package de.locki.lockiprefixes.chat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds mentions of online players ("@Steve" or a bare "steve") in chat messages.
+ *
+ * All names are compiled into one Aho-Corasick automaton, so a message is scanned once in a
+ * single pass regardless of how many players are online. Names only match as whole words
+ * (case-insensitive), so "an" does not match inside "and".
+ *
+ * Joins and quits only mark the automaton stale; it is rebuilt in one batch on the next scan,
+ * so a burst of joins costs a single rebuild. Scans never lock: they read the last published
+ * automaton. The last scan is remembered, so looking up the mentions of a message that was
+ * just formatted does not scan it again.
+ */
+public class MentionMatcher {
+
+    /** Name characters: a-z, 0-9, '_' (names are matched lower-case). */
+    private static final int ALPHABET = 37;
+
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+    private final AtomicInteger version = new AtomicInteger();
+    private final AtomicInteger rebuilds = new AtomicInteger();
+    private volatile Automaton automaton = new Automaton(0, Collections.<UUID, String>emptyMap());
+    private volatile Scan lastScan;
+
+    /**
+     * Adds (or renames) an online player.
+     */
+    public void add(UUID id, String name) {
+        if (name != null && !name.equals(names.put(id, name))) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes a player who went offline.
+     */
+    public void remove(UUID id) {
+        if (names.remove(id) != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Finds the mentions in a message, in order.
+     *
+     * @return The mentions; empty when nobody is mentioned
+     */
+    public List<Mention> find(String message) {
+        if (message == null || message.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Automaton current = automaton();
+        Scan last = lastScan;
+        if (last != null && last.message == message && last.automaton == current) {
+            return last.mentions;
+        }
+        List<Mention> mentions = current.scan(message);
+        lastScan = new Scan(message, current, mentions);
+        return mentions;
+    }
+
+    private Automaton automaton() {
+        Automaton current = automaton;
+        int expected = version.get();
+        if (current.version == expected) {
+            return current;
+        }
+        synchronized (this) {
+            current = automaton;
+            expected = version.get();
+            if (current.version != expected) {
+                // Built from a copy: joins during the build just leave it stale again
+                current = new Automaton(expected, new HashMap<>(names));
+                automaton = current;
+                rebuilds.incrementAndGet();
+            }
+            return current;
+        }
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public int getRebuilds() {
+        return rebuilds.get();
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= '0' && c <= '9') {
+            return 26 + c - '0';
+        }
+        return c == '_' ? 36 : -1;
+    }
+
+    private static boolean isNameChar(String text, int index) {
+        return index >= 0 && index < text.length() && symbol(text.charAt(index)) >= 0;
+    }
+
+    /**
+     * A mention: the characters of the message it covers (including a leading '@') and the player.
+     */
+    public static final class Mention {
+
+        private final int start;
+        private final int end;
+        private final UUID id;
+        private final String name;
+
+        Mention(int start, int end, UUID id, String name) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.name = name;
+        }
+
+        /** Index of the first character, the '@' if there is one. */
+        public int getStart() {
+            return start;
+        }
+
+        /** Index after the last character. */
+        public int getEnd() {
+            return end;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        /** The player's name as it is spelled online. */
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * The automaton for one set of names. Transitions are completed along the failure links at
+     * build time, so scanning is one table lookup per character.
+     */
+    private static final class Automaton {
+
+        final int version;
+        final int[] next;
+        final int[] depth;
+        final int[] output;      // index into ids of the name ending at a node, or -1
+        final int[] outputLink;  // nearest node on the failure chain with an output, or 0
+        final UUID[] ids;
+        final String[] spellings;
+
+        Automaton(int version, Map<UUID, String> names) {
+            this.version = version;
+            int capacity = 1;
+            for (String name : names.values()) {
+                capacity += name.length();
+            }
+            int[] nextTable = new int[capacity * ALPHABET];
+            int[] depths = new int[capacity];
+            int[] outputs = new int[capacity];
+            Arrays.fill(outputs, -1);
+            List<UUID> idList = new ArrayList<>(names.size());
+            List<String> spellingList = new ArrayList<>(names.size());
+
+            // Trie
+            int nodes = 1;
+            for (Map.Entry<UUID, String> entry : names.entrySet()) {
+                String name = entry.getValue();
+                int node = 0;
+                boolean valid = !name.isEmpty();
+                for (int i = 0; i < name.length() && valid; i++) {
+                    int c = symbol(name.charAt(i));
+                    if (c < 0) {
+                        valid = false;
+                    } else {
+                        int child = nextTable[node * ALPHABET + c];
+                        if (child == 0) {
+                            child = nodes++;
+                            depths[child] = depths[node] + 1;
+                            nextTable[node * ALPHABET + c] = child;
+                        }
+                        node = child;
+                    }
+                }
+                if (valid) {
+                    outputs[node] = idList.size();
+                    idList.add(entry.getKey());
+                    spellingList.add(name);
+                }
+            }
+
+            // Failure links (breadth-first), folded into the transition table
+            int[] failure = new int[nodes];
+            int[] outputLinks = new int[nodes];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = nextTable[c];
+                if (child != 0) {
+                    queue.add(child);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int c = 0; c < ALPHABET; c++) {
+                    int child = nextTable[node * ALPHABET + c];
+                    int fallback = nextTable[failure[node] * ALPHABET + c];
+                    if (child == 0) {
+                        nextTable[node * ALPHABET + c] = fallback;
+                        continue;
+                    }
+                    failure[child] = fallback;
+                    outputLinks[child] = outputs[fallback] >= 0 ? fallback : outputLinks[fallback];
+                    queue.add(child);
+                }
+            }
+
+            this.next = Arrays.copyOf(nextTable, nodes * ALPHABET);
+            this.depth = Arrays.copyOf(depths, nodes);
+            this.output = Arrays.copyOf(outputs, nodes);
+            this.outputLink = outputLinks;
+            this.ids = idList.toArray(new UUID[0]);
+            this.spellings = spellingList.toArray(new String[0]);
+        }
+
+        List<Mention> scan(String message) {
+            if (ids.length == 0) {
+                return Collections.emptyList();
+            }
+            List<Mention> mentions = null;
+            int state = 0;
+            int length = message.length();
+            for (int i = 0; i < length; i++) {
+                int c = symbol(message.charAt(i));
+                if (c < 0) {
+                    // No name contains this character
+                    state = 0;
+                    continue;
+                }
+                state = next[state * ALPHABET + c];
+                if (isNameChar(message, i + 1)) {
+                    continue;
+                }
+                // End of a word: the longest name ending here that also starts the word
+                for (int node = output[state] >= 0 ? state : outputLink[state]; node != 0; node = outputLink[node]) {
+                    int start = i + 1 - depth[node];
+                    if (isNameChar(message, start - 1)) {
+                        continue;
+                    }
+                    if (start > 0 && message.charAt(start - 1) == '@') {
+                        start--;
+                    }
+                    if (mentions == null) {
+                        mentions = new ArrayList<>(2);
+                    }
+                    int index = output[node];
+                    mentions.add(new Mention(start, i + 1, ids[index], spellings[index]));
+                    break;
+                }
+            }
+            return mentions != null ? mentions : Collections.<Mention>emptyList();
+        }
+    }
+
+    private static final class Scan {
+        final String message;
+        final Automaton automaton;
+        final List<Mention> mentions;
+
+        Scan(String message, Automaton automaton, List<Mention> mentions) {
+            this.message = message;
+            this.automaton = automaton;
+            this.mentions = mentions;
+        }
+    }
+}
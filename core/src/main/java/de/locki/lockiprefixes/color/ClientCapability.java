@@ -0,0 +1,13 @@
+package de.locki.lockiprefixes.color;
+
+/**
+ * What a viewer's client can display.
+ */
+public enum ClientCapability {
+
+    /** 1.16+ client: hex colors are shown as-is. */
+    HEX,
+
+    /** Pre-1.16 client: hex colors must be mapped to the 16 legacy colors. */
+    LEGACY
+}
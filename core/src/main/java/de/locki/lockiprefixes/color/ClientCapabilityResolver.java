@@ -0,0 +1,25 @@
+package de.locki.lockiprefixes.color;
+
+import java.util.UUID;
+
+/**
+ * Tells which {@link ClientCapability} a connected player's client has.
+ *
+ * Implementations must be cheap and thread-safe; they are called from async chat threads
+ * once per recipient. See {@link ViaVersionCapabilityResolver} for the protocol-based one.
+ */
+public interface ClientCapabilityResolver {
+
+    /**
+     * @param playerId The viewer
+     * @return The viewer's capability, never null
+     */
+    ClientCapability resolve(UUID playerId);
+
+    /**
+     * A resolver that reports the same capability for everyone (no ViaVersion, or tests).
+     */
+    static ClientCapabilityResolver fixed(final ClientCapability capability) {
+        return playerId -> capability;
+    }
+}
@@ -9,6 +9,9 @@ import java.util.regex.Pattern;
  * - Legacy codes: &a, &b, &c, etc.
  * - Hex codes: &#RRGGBB, <#RRGGBB>
  * - RGB format: &x&R&R&G&G&B&B
+ *
+ * On servers without hex support, hex colors are replaced by the nearest legacy color
+ * (see {@link LegacyColorQuantizer}) instead of being dropped.
  */
 public class ColorParser {
 
@@ -21,6 +24,112 @@ public class ColorParser {
     // Pattern for legacy color codes
     private static final Pattern LEGACY_PATTERN = Pattern.compile("&([0-9A-Fa-fK-Ok-oRr])");
 
+    /**
+     * Translates color codes for the given server capability.
+     * Hex codes are kept on 1.16+ and mapped to the nearest legacy color on older versions.
+     *
+     * @param text        The text with color codes
+     * @param supportsHex Whether the server supports hex colors
+     * @return The translated text
+     */
+    public static String translate(String text, boolean supportsHex) {
+        if (text == null || text.isEmpty() || !hasColorCodes(text)) {
+            return text;
+        }
+        if (supportsHex) {
+            return translateHex(text);
+        }
+        return translateLegacy(downsampleHex(text));
+    }
+
+    /**
+     * Translates a player's chat message in a single pass, keeping only the codes the player may
+     * use ({@link MessageColors} flags). Everything else, including § characters, is left as typed.
+     * Without hex support, allowed hex colors become the nearest legacy color.
+     *
+     * @param text        The raw message
+     * @param allowed     {@link MessageColors} flags of the sender
+     * @param supportsHex Whether the server supports hex colors
+     * @return The translated message
+     */
+    public static String translateMessage(String text, int allowed, boolean supportsHex) {
+        if (text == null || allowed == MessageColors.NONE || !hasColorCodes(text)) {
+            return text;
+        }
+        int length = text.length();
+        StringBuilder result = null;
+        int copied = 0;
+        for (int i = 0; i < length - 1; i++) {
+            char c = text.charAt(i);
+            if (c != '&' && c != '<') {
+                continue;
+            }
+            String code = null;
+            int end = i;
+            char next = Character.toLowerCase(text.charAt(i + 1));
+            if (c == '&' && ((next >= '0' && next <= '9') || (next >= 'a' && next <= 'f') || next == 'r')) {
+                if ((allowed & MessageColors.COLORS) != 0) {
+                    code = "§" + next;
+                    end = i + 2;
+                }
+            } else if (c == '&' && next >= 'k' && next <= 'o') {
+                if ((allowed & MessageColors.FORMATS) != 0) {
+                    code = "§" + next;
+                    end = i + 2;
+                }
+            } else if (next == '#' && (allowed & MessageColors.HEX) != 0) {
+                // &#RRGGBB or <#RRGGBB>
+                int digits = i + 2;
+                int close = c == '<' ? digits + 6 : -1;
+                int rgb = digits + 6 <= length ? hexDigits(text, digits, 1) : -1;
+                if (rgb >= 0 && (close < 0 || (close < length && text.charAt(close) == '>'))) {
+                    code = colorCode(rgb, supportsHex);
+                    end = close < 0 ? digits + 6 : close + 1;
+                }
+            }
+            if (code == null) {
+                continue;
+            }
+            if (result == null) {
+                result = new StringBuilder(length + 16);
+            }
+            result.append(text, copied, i).append(code);
+            copied = end;
+            i = end - 1;
+        }
+        if (result == null) {
+            return text;
+        }
+        return result.append(text, copied, length).toString();
+    }
+
+    /**
+     * The color code for an RGB color: "§x§r§r§g§g§b§b", or the nearest legacy "§c" without hex support.
+     */
+    public static String colorCode(int rgb, boolean supportsHex) {
+        if (!supportsHex) {
+            return "§" + LegacyColorQuantizer.toCode(rgb);
+        }
+        StringBuilder code = new StringBuilder(14).append("§x");
+        for (int shift = 20; shift >= 0; shift -= 4) {
+            code.append('§').append(Character.forDigit((rgb >> shift) & 0xF, 16));
+        }
+        return code.toString();
+    }
+
+    /**
+     * Cheap pre-check so plain values (player names, worlds) skip the regex passes entirely.
+     */
+    private static boolean hasColorCodes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '&' || c == '<' || c == '§') {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Translates all color codes to Minecraft format (§).
      * For versions that support hex colors (1.16+).
@@ -80,6 +189,134 @@ public class ColorParser {
         return sb.toString();
     }
 
+    /**
+     * Replaces every hex color (&#RRGGBB, <#RRGGBB>, §x§R§R§G§G§B§B and &x&R&R&G&G&B&B)
+     * with the closest legacy color code. One pass over the text, one table lookup per color.
+     *
+     * @param text The text with color codes
+     * @return The text with only legacy codes
+     */
+    public static String downsampleHex(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        StringBuilder result = null;
+        int copied = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            int rgb = -1;
+            int end = i;
+            if ((c == '&' || c == '<') && i + 8 <= length && text.charAt(i + 1) == '#') {
+                rgb = hexDigits(text, i + 2, 1);
+                end = i + 8;
+                if (c == '<') {
+                    if (end < length && text.charAt(end) == '>') {
+                        end++;
+                    } else {
+                        rgb = -1;
+                    }
+                }
+            } else if ((c == '&' || c == '§') && i + 14 <= length && (text.charAt(i + 1) == 'x' || text.charAt(i + 1) == 'X')) {
+                rgb = hexDigits(text, i + 3, 2);
+                for (int k = 0; k < 6 && rgb >= 0; k++) {
+                    if (text.charAt(i + 2 + 2 * k) != c) {
+                        rgb = -1;
+                    }
+                }
+                end = i + 14;
+            }
+            if (rgb < 0) {
+                continue;
+            }
+            if (result == null) {
+                result = new StringBuilder(length);
+            }
+            result.append(text, copied, i).append('§').append(LegacyColorQuantizer.toCode(rgb));
+            copied = end;
+            i = end - 1;
+        }
+        if (result == null) {
+            return text;
+        }
+        return result.append(text, copied, length).toString();
+    }
+
+    /**
+     * Whether translated text contains a §x hex color, i.e. whether legacy viewers need a different line.
+     */
+    public static boolean containsHex(String translated) {
+        return translated != null && (translated.contains("§x") || translated.contains("§X"));
+    }
+
+    /**
+     * The §-codes in effect at the end of translated text: the last color plus the formats after it.
+     * Appending this to a later part of the line continues the same style after a reset.
+     */
+    public static String trailingStyle(CharSequence translated) {
+        return trailingStyle(translated, translated.length());
+    }
+
+    /**
+     * The §-codes in effect at {@code end}. Scans back only to the last color or reset, so asking
+     * at the end of a growing line does not re-read everything before it.
+     */
+    public static String trailingStyle(CharSequence translated, int end) {
+        StringBuilder formats = new StringBuilder();
+        for (int i = end - 2; i >= 0; i--) {
+            if (translated.charAt(i) != '§') {
+                continue;
+            }
+            char code = Character.toLowerCase(translated.charAt(i + 1));
+            int hex = code == 'x' ? i : Character.digit(code, 16) >= 0 ? hexStart(translated, i) : -1;
+            if (hex >= 0 && hex + 13 < end) {
+                // §x§r§r§g§g§b§b
+                return translated.subSequence(hex, hex + 14) + formats.toString();
+            } else if ((code >= '0' && code <= '9') || (code >= 'a' && code <= 'f') || code == 'r') {
+                return "§" + code + formats;
+            } else if (code >= 'k' && code <= 'o') {
+                formats.insert(0, code).insert(0, '§');
+            }
+        }
+        return formats.toString();
+    }
+
+    /**
+     * The start of the §x hex color a §-digit pair at {@code index} belongs to, or -1 if it is a color of its own.
+     */
+    private static int hexStart(CharSequence translated, int index) {
+        for (int start = index - 2; start >= 0 && start >= index - 12; start -= 2) {
+            if (translated.charAt(start) != '§') {
+                return -1;
+            }
+            char code = translated.charAt(start + 1);
+            if (code == 'x' || code == 'X') {
+                return start;
+            }
+            if (Character.digit(code, 16) < 0) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses six hex digits starting at {@code start}, {@code step} chars apart.
+     *
+     * @return The 0xRRGGBB value, or -1 if a digit is not hex
+     */
+    private static int hexDigits(String text, int start, int step) {
+        int rgb = 0;
+        for (int k = 0; k < 6; k++) {
+            int digit = Character.digit(text.charAt(start + k * step), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            rgb = (rgb << 4) | digit;
+        }
+        return rgb;
+    }
+
     /**
      * Strips hex color codes from text, leaving only legacy codes.
      * Used for versions that don't support hex colors.
@@ -0,0 +1,56 @@
+package de.locki.lockiprefixes.color;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * A rendered line in its hex form plus a lazily built legacy form.
+ *
+ * The line is rendered once with hex colors; the downsampled variant is only computed the
+ * first time a legacy viewer needs it and then shared by all legacy viewers of the same line.
+ * So a message is rendered at most twice, however many recipients it has.
+ *
+ * @param <T> The line type (legacy string or Component)
+ */
+public final class DualRendered<T> {
+
+    private final T hex;
+    private final UnaryOperator<T> downsample;
+    private volatile T legacy;
+
+    /**
+     * @param hex        The line rendered with hex colors
+     * @param downsample Maps the hex line to legacy colors
+     */
+    public DualRendered(T hex, UnaryOperator<T> downsample) {
+        this.hex = hex;
+        this.downsample = downsample;
+    }
+
+    /**
+     * A dual line for a §-formatted string, downsampled with {@link ColorParser#downsampleHex}.
+     */
+    public static DualRendered<String> of(String line) {
+        return new DualRendered<>(line, ColorParser::downsampleHex);
+    }
+
+    public T get(ClientCapability capability) {
+        if (capability == ClientCapability.HEX) {
+            return hex;
+        }
+        T result = legacy;
+        if (result == null) {
+            synchronized (this) {
+                result = legacy;
+                if (result == null) {
+                    result = downsample.apply(hex);
+                    legacy = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public T getHex() {
+        return hex;
+    }
+}
@@ -0,0 +1,79 @@
+package de.locki.lockiprefixes.color;
+
+/**
+ * Maps RGB colors to the closest of the 16 legacy chat colors (pre-1.16 clients).
+ *
+ * The nearest color is precomputed for a 12-bit RGB cube (4 bits per channel, 4096 entries),
+ * so converting a hex code at runtime is a single array lookup. Distance is the "redmean"
+ * weighted RGB distance, which is close enough to perceptual for 16 targets.
+ */
+public final class LegacyColorQuantizer {
+
+    /** The legacy palette, indexed by color code 0-f. */
+    private static final int[] PALETTE = {
+        0x000000, 0x0000AA, 0x00AA00, 0x00AAAA, 0xAA0000, 0xAA00AA, 0xFFAA00, 0xAAAAAA,
+        0x555555, 0x5555FF, 0x55FF55, 0x55FFFF, 0xFF5555, 0xFF55FF, 0xFFFF55, 0xFFFFFF
+    };
+
+    private static final char[] CODES = "0123456789abcdef".toCharArray();
+
+    private static final byte[] TABLE = new byte[4096];
+
+    static {
+        for (int index = 0; index < TABLE.length; index++) {
+            // Expand each 4-bit channel back to 8 bits (0x0 -> 0x00, 0xF -> 0xFF)
+            int r = ((index >> 8) & 0xF) * 17;
+            int g = ((index >> 4) & 0xF) * 17;
+            int b = (index & 0xF) * 17;
+            TABLE[index] = (byte) nearest(r, g, b);
+        }
+    }
+
+    private LegacyColorQuantizer() {
+    }
+
+    /**
+     * Returns the legacy color code (0-9, a-f) closest to a 0xRRGGBB color.
+     */
+    public static char toCode(int rgb) {
+        int index = ((rgb >> 12) & 0xF00) | ((rgb >> 8) & 0xF0) | ((rgb >> 4) & 0xF);
+        return CODES[TABLE[index]];
+    }
+
+    /**
+     * Returns the legacy color code closest to a color given as six hex digits (no '#').
+     *
+     * @throws NumberFormatException if the digits are not valid hex
+     */
+    public static char toCode(String hex) {
+        return toCode(Integer.parseInt(hex, 16));
+    }
+
+    /**
+     * The 0xRRGGBB value of a legacy color code, or -1 if the code is not a color.
+     */
+    public static int toRgb(char code) {
+        int index = Character.digit(code, 16);
+        return index >= 0 ? PALETTE[index] : -1;
+    }
+
+    private static int nearest(int r, int g, int b) {
+        int best = 0;
+        long bestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < PALETTE.length; i++) {
+            int pr = (PALETTE[i] >> 16) & 0xFF;
+            int pg = (PALETTE[i] >> 8) & 0xFF;
+            int pb = PALETTE[i] & 0xFF;
+            int mean = (r + pr) / 2;
+            int dr = r - pr;
+            int dg = g - pg;
+            int db = b - pb;
+            long distance = (long) (512 + mean) * dr * dr + 1024L * dg * dg + (long) (767 - mean) * db * db;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
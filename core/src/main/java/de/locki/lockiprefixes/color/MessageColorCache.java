@@ -0,0 +1,88 @@
+package de.locki.lockiprefixes.color;
+
+import de.locki.lockiprefixes.lp.LuckPermsFacade;
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link MessageColors} flags per online player, so chat does not run four permission checks
+ * per message. Entries are resolved on a player's first message and dropped when LuckPerms
+ * recalculates their data or they quit. Without LuckPerms nothing would invalidate them,
+ * so every call resolves the permissions directly.
+ */
+public class MessageColorCache implements Listener {
+
+    private final Plugin plugin;
+    private final LuckPermsFacade luckPermsFacade;
+    private final Map<UUID, Integer> flags = new ConcurrentHashMap<>();
+    private volatile boolean caching;
+
+    public MessageColorCache(Plugin plugin, LuckPermsFacade luckPermsFacade) {
+        this.plugin = plugin;
+        this.luckPermsFacade = luckPermsFacade;
+    }
+
+    /**
+     * Registers the join/quit listeners and the LuckPerms invalidation.
+     */
+    public void start() {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        registerLuckPermsListener();
+    }
+
+    /**
+     * The codes a player may use in their messages. Safe to call from async chat threads.
+     */
+    public int get(Player player) {
+        if (!caching) {
+            return MessageColors.of(player);
+        }
+        Integer allowed = flags.get(player.getUniqueId());
+        if (allowed == null) {
+            // Resolved inside the map's lock, so an invalidation cannot land between the permission
+            // checks and the store. Players who already left are resolved but not stored.
+            allowed = flags.computeIfAbsent(player.getUniqueId(),
+                uuid -> player.isOnline() ? MessageColors.of(player) : null);
+            if (allowed == null) {
+                return MessageColors.of(player);
+            }
+        }
+        return allowed;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        // Drops an entry a chat thread may have stored while the player was quitting
+        flags.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        flags.remove(event.getPlayer().getUniqueId());
+    }
+
+    private void registerLuckPermsListener() {
+        try {
+            LuckPerms luckPerms = luckPermsFacade.getLuckPerms();
+            if (luckPerms == null) {
+                return;
+            }
+            luckPerms.getEventBus().subscribe(plugin, UserDataRecalculateEvent.class,
+                event -> flags.remove(event.getUser().getUniqueId()));
+            caching = true;
+        } catch (Exception e) {
+            plugin.getLogger().warning("Could not register LuckPerms chat color listener: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package de.locki.lockiprefixes.color;
+
+import org.bukkit.permissions.Permissible;
+
+/**
+ * Which codes a player may use in their own chat messages, as bit flags.
+ *
+ * Resolved once per message (through {@link MessageColorCache} in chat) and kept in the {@code PlayerData} snapshot,
+ * so every rendering of that message (locale variants, per-client lines) reuses it.
+ * Codes a player may not use stay in the message as typed.
+ */
+public final class MessageColors {
+
+    /** &0-&9, &a-&f and &r. */
+    public static final String COLOR_PERMISSION = "lockiprefixes.chat.color";
+    /** &k-&o. */
+    public static final String FORMAT_PERMISSION = "lockiprefixes.chat.format";
+    /** &#RRGGBB and <#RRGGBB>. */
+    public static final String HEX_PERMISSION = "lockiprefixes.chat.hex";
+    /** Grants all of the above; kept for existing permission setups. */
+    public static final String LEGACY_PERMISSION = "lockiprefixes.chatcolor";
+
+    public static final int NONE = 0;
+    public static final int COLORS = 1;
+    public static final int FORMATS = 1 << 1;
+    public static final int HEX = 1 << 2;
+    public static final int ALL = COLORS | FORMATS | HEX;
+
+    private MessageColors() {
+    }
+
+    /**
+     * The codes a player may use.
+     */
+    public static int of(Permissible player) {
+        if (player.hasPermission(LEGACY_PERMISSION)) {
+            return ALL;
+        }
+        int allowed = NONE;
+        if (player.hasPermission(COLOR_PERMISSION)) {
+            allowed |= COLORS;
+        }
+        if (player.hasPermission(FORMAT_PERMISSION)) {
+            allowed |= FORMATS;
+        }
+        if (player.hasPermission(HEX_PERMISSION)) {
+            allowed |= HEX;
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,88 @@
+package de.locki.lockiprefixes.color;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves client capabilities from the protocol version ViaVersion reports.
+ *
+ * ViaVersion is accessed reflectively, so it stays an optional soft dependency. A player's
+ * version cannot change during a session, so it is looked up once and cached until they quit.
+ */
+public class ViaVersionCapabilityResolver implements ClientCapabilityResolver, Listener {
+
+    /** Protocol version of 1.16, the first release with hex chat colors. */
+    private static final int HEX_PROTOCOL = 735;
+
+    private final Object api;
+    private final Method getPlayerVersion;
+    private final ClientCapability fallback;
+    private final Map<UUID, ClientCapability> capabilities = new ConcurrentHashMap<>();
+
+    private ViaVersionCapabilityResolver(Object api, Method getPlayerVersion, ClientCapability fallback) {
+        this.api = api;
+        this.getPlayerVersion = getPlayerVersion;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Returns a ViaVersion-backed resolver when ViaVersion is installed, otherwise a fixed one.
+     *
+     * @param plugin           The owning plugin (the resolver registers its quit listener there)
+     * @param serverCapability Capability of the server's own version, used without ViaVersion
+     *                         and for players whose version is unknown
+     */
+    public static ClientCapabilityResolver create(Plugin plugin, ClientCapability serverCapability) {
+        if (plugin.getServer().getPluginManager().getPlugin("ViaVersion") == null) {
+            return ClientCapabilityResolver.fixed(serverCapability);
+        }
+        try {
+            Object api = Class.forName("com.viaversion.viaversion.api.Via").getMethod("getAPI").invoke(null);
+            Method method = Class.forName("com.viaversion.viaversion.api.ViaAPI").getMethod("getPlayerVersion", UUID.class);
+            ViaVersionCapabilityResolver resolver = new ViaVersionCapabilityResolver(api, method, serverCapability);
+            plugin.getServer().getPluginManager().registerEvents(resolver, plugin);
+            plugin.getLogger().info("ViaVersion found: chat colors are downsampled for pre-1.16 clients.");
+            return resolver;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            plugin.getLogger().warning("Could not hook into ViaVersion: " + e.getMessage());
+            return ClientCapabilityResolver.fixed(serverCapability);
+        }
+    }
+
+    @Override
+    public ClientCapability resolve(UUID playerId) {
+        ClientCapability capability = capabilities.get(playerId);
+        if (capability != null) {
+            return capability;
+        }
+        int version = lookup(playerId);
+        if (version < 0) {
+            // Not (yet) known to ViaVersion; do not cache the guess
+            return fallback;
+        }
+        capability = version >= HEX_PROTOCOL ? ClientCapability.HEX : ClientCapability.LEGACY;
+        capabilities.put(playerId, capability);
+        return capability;
+    }
+
+    private int lookup(UUID playerId) {
+        try {
+            return (Integer) getPlayerVersion.invoke(api, playerId);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        capabilities.remove(event.getPlayer().getUniqueId());
+    }
+}
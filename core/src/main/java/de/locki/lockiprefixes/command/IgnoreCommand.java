@@ -0,0 +1,118 @@
+package de.locki.lockiprefixes.command;
+
+import de.locki.lockiprefixes.chat.IgnoreManager;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Command handler for /ignore (shared by all modules).
+ *
+ * /ignore &lt;player&gt; toggles ignoring an online player, /ignore list shows the current list.
+ */
+public class IgnoreCommand implements CommandExecutor, TabCompleter {
+
+    private final IgnoreManager ignoreManager;
+
+    public IgnoreCommand(IgnoreManager ignoreManager) {
+        this.ignoreManager = ignoreManager;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!(sender instanceof Player)) { sender.sendMessage(ChatColor.RED + "X Players only."); return true; }
+        Player player = (Player) sender;
+        if (!player.hasPermission("lockiprefixes.ignore")) {
+            player.sendMessage(ChatColor.RED + "X No permission."); return true;
+        }
+        if (args.length == 0) {
+            player.sendMessage(ChatColor.WHITE + "  /" + label + " <player> " + ChatColor.GRAY + "-> Toggle ignoring a player");
+            player.sendMessage(ChatColor.WHITE + "  /" + label + " list     " + ChatColor.GRAY + "-> Show ignored players");
+            return true;
+        }
+        if (args[0].equalsIgnoreCase("list")) {
+            sendList(player);
+            return true;
+        }
+
+        Player target = Bukkit.getPlayerExact(args[0]);
+        UUID targetId = target != null ? target.getUniqueId() : findIgnored(player, args[0]);
+        if (targetId == null) {
+            player.sendMessage(ChatColor.RED + "X Player not found: " + args[0]); return true;
+        }
+        if (targetId.equals(player.getUniqueId())) {
+            player.sendMessage(ChatColor.RED + "X You cannot ignore yourself."); return true;
+        }
+        boolean listed = ignoreManager.getIgnored(player).contains(targetId);
+        if (!listed && target != null && target.hasPermission(IgnoreManager.EXEMPT_PERMISSION)) {
+            player.sendMessage(ChatColor.RED + "X " + target.getName() + " cannot be ignored."); return true;
+        }
+        String name = target != null ? target.getName() : args[0];
+        if (ignoreManager.toggle(player, targetId)) {
+            player.sendMessage(ChatColor.GREEN + "* You are now ignoring " + name + ".");
+        } else {
+            player.sendMessage(ChatColor.GREEN + "* You are no longer ignoring " + name + ".");
+        }
+        return true;
+    }
+
+    /**
+     * Looks up an offline player on the sender's own list by name, so offline players can be un-ignored.
+     */
+    private UUID findIgnored(Player player, String name) {
+        for (UUID id : ignoreManager.getIgnored(player)) {
+            if (name.equalsIgnoreCase(nameOf(id))) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    private void sendList(Player player) {
+        Set<UUID> ignored = ignoreManager.getIgnored(player);
+        if (ignored.isEmpty()) {
+            player.sendMessage(ChatColor.GRAY + "You are not ignoring anyone.");
+            return;
+        }
+        List<String> names = new ArrayList<String>();
+        for (UUID id : ignored) {
+            names.add(nameOf(id));
+        }
+        player.sendMessage(ChatColor.GOLD + "Ignored (" + names.size() + "): " + ChatColor.WHITE + String.join(", ", names));
+    }
+
+    private static String nameOf(UUID id) {
+        OfflinePlayer offline = Bukkit.getOfflinePlayer(id);
+        String name = offline != null ? offline.getName() : null;
+        return name != null ? name : id.toString();
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        if (args.length != 1) {
+            return Collections.emptyList();
+        }
+        String partial = args[0].toLowerCase();
+        List<String> result = new ArrayList<String>();
+        if ("list".startsWith(partial)) {
+            result.add("list");
+        }
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            if (online != sender && online.getName().toLowerCase().startsWith(partial)) {
+                result.add(online.getName());
+            }
+        }
+        return result;
+    }
+}
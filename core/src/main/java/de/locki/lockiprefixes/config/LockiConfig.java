@@ -1,5 +1,6 @@
 package de.locki.lockiprefixes.config;
 
+import de.locki.lockiprefixes.cache.LruCache;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
@@ -15,12 +16,56 @@ public class LockiConfig {
 
     // Default formats
     private String defaultChatFormat;
+    private String chatMode;
+    private boolean chatVirtualThreads;
+    private int chatMaxConcurrentRenders = 64;
+    private int chatRenderTimeoutMs = 250;
+    private boolean chatFloodGuard;
+    private int chatFloodBurst = 5;
+    private double chatFloodPerSecond = 2.0;
+    private int chatFloodMaxQueue = 256;
+    private int chatFloodCoalesceWindowMs = 2000;
+
+    // Rendered global chat lines replayed to joining players
+    private boolean chatHistoryEnabled = false;
+    private int chatHistorySize = 20;
+
+    // @name / bare-name mentions of online players (see MentionMatcher)
+    private boolean chatMentionsEnabled = true;
+    private String chatMentionStyle = "&e&l";
+    private String chatMentionSound = "entity.experience_orb.pickup";
+    private float chatMentionVolume = 1.0f;
+    private float chatMentionPitch = 1.0f;
+
+    // Rank card shown when hovering a name in chat (latest module)
+    private boolean chatHoverEnabled = true;
+    private String chatClickSuggest = "/msg {name} ";
+
+    // Chat formats written in MiniMessage instead of &-codes (latest module)
+    private boolean chatMiniMessage;
+
+    // Chat audit log (see ChatLogWriter)
+    private boolean chatLogEnabled;
+    private int chatLogMaxFileMb = 16;
+    private int chatLogMaxFiles = 10;
+    private String chatLogFsync = "interval";
+    private int chatLogFsyncIntervalMs = 1000;
+
+    // Chat channels (channel id -> settings, in config order)
+    private boolean channelsEnabled;
+    private String defaultChannel = "global";
+    private final Map<String, ChannelSettings> channels = new LinkedHashMap<>();
     private String defaultLeaderboardFormat;
 
     // Group-specific formats (group name -> format)
     // ConcurrentHashMap — read by async chat threads while load() may be called on main thread
     private final Map<String, GroupFormat> groupFormats = new ConcurrentHashMap<>();
 
+    // Locale keys with a variant in any group ("groups.<group>.locales") and the client locales matched to them
+    private final Set<String> localeKeys = ConcurrentHashMap.newKeySet();
+    // Bounded: the locale is whatever string the client sends, and a modified client can send many
+    private final LruCache<String, String> localeMatches = new LruCache<>(LOCALE_MATCH_CACHE_SIZE);
+
     // World-specific formats (world name -> format)
     private final Map<String, String> worldChatFormats = new ConcurrentHashMap<>();
     private final Map<String, String> worldLeaderboardFormats = new ConcurrentHashMap<>();
@@ -32,8 +77,23 @@ public class LockiConfig {
     // Leaderboard position-specific formats (position -> format)
     private final Map<Integer, String> leaderboardPositionFormats = new ConcurrentHashMap<>();
 
+    // Leaderboard ranking ("group-priority", "meta:<key>" or "papi:<placeholder>")
+    private String leaderboardRankingKey = "group-priority";
+    private int leaderboardRefreshInterval = 100;
+    private int tablistStatsRefreshInterval = 20;
+
+    // PlaceholderAPI watchdog (per-placeholder thresholds keyed without % delimiters)
+    private boolean placeholderWatchdogEnabled = true;
+    private int placeholderThresholdMs = 50;
+    private int placeholderWatchdogTripAfter = 3;
+    private int placeholderWatchdogCooldownSeconds = 30;
+    private final Map<String, Integer> placeholderThresholds = new ConcurrentHashMap<>();
+
     private static final Logger LOG = Logger.getLogger("LockiPrefixes");
 
+    // Client locales remembered by matchLocale; Minecraft ships about 130
+    private static final int LOCALE_MATCH_CACHE_SIZE = 256;
+
     private static final String[][] DEFAULT_RANK_FORMATS = new String[][] {
         {"default", "&7{name} &7» &f{message}", "&7{name}", "0"},
         {"vip", "&a&lVIP &7| &f{name} &7» &f{message}", "&a&lVIP &7| &f{name}", "10"},
@@ -52,9 +112,43 @@ public class LockiConfig {
     private String defaultUsernameColor = "&f";
     private String defaultMessageColor = "&f";
 
+    // Max compiled per-player/custom formats kept in memory
+    private int templateCacheSize = 512;
+    private int headCacheSize = 0;
+    // Ticks between player stat samples ({ping}, {health}, ...)
+    private int statsInterval = 20;
+
+    // Bumped on every load() so compiled formats can tell when they are stale
+    private volatile int generation;
+
     public void load(FileConfiguration config) {
         // Chat formats
         defaultChatFormat = config.getString("chat.format", "{prefix}{username-color}{name}{suffix}&r: {message-color}{message}");
+        // How formatted chat is delivered; each module interprets the values it supports
+        chatMode = config.getString("chat.mode", "").trim().toLowerCase(Locale.ROOT);
+        chatVirtualThreads = config.getBoolean("chat.virtual-threads.enabled", false);
+        chatMaxConcurrentRenders = Math.max(1, config.getInt("chat.virtual-threads.max-concurrent", 64));
+        chatRenderTimeoutMs = Math.max(10, config.getInt("chat.virtual-threads.timeout-ms", 250));
+        chatFloodGuard = config.getBoolean("chat.flood.enabled", false);
+        chatFloodBurst = Math.max(1, config.getInt("chat.flood.burst", 5));
+        chatFloodPerSecond = Math.max(0.1, config.getDouble("chat.flood.per-second", 2.0));
+        chatFloodMaxQueue = Math.max(8, config.getInt("chat.flood.max-queue", 256));
+        chatFloodCoalesceWindowMs = Math.max(0, config.getInt("chat.flood.coalesce-window-ms", 2000));
+        chatHistoryEnabled = config.getBoolean("chat.history.enabled", false);
+        chatHistorySize = Math.max(1, Math.min(100, config.getInt("chat.history.size", 20)));
+        chatMentionsEnabled = config.getBoolean("chat.mentions.enabled", true);
+        chatMentionStyle = config.getString("chat.mentions.style", "&e&l");
+        chatMentionSound = config.getString("chat.mentions.sound", "entity.experience_orb.pickup").trim();
+        chatMentionVolume = (float) Math.max(0, config.getDouble("chat.mentions.volume", 1.0));
+        chatMentionPitch = (float) Math.max(0.5, Math.min(2.0, config.getDouble("chat.mentions.pitch", 1.0)));
+        chatHoverEnabled = config.getBoolean("chat.hover.enabled", true);
+        chatClickSuggest = config.getString("chat.hover.click-suggest", "/msg {name} ");
+        chatMiniMessage = config.getBoolean("chat.minimessage", false);
+        chatLogEnabled = config.getBoolean("chat.log.enabled", false);
+        chatLogMaxFileMb = Math.max(1, config.getInt("chat.log.max-file-mb", 16));
+        chatLogMaxFiles = Math.max(1, config.getInt("chat.log.max-files", 10));
+        chatLogFsync = config.getString("chat.log.fsync", "interval").trim().toLowerCase(Locale.ROOT);
+        chatLogFsyncIntervalMs = Math.max(100, config.getInt("chat.log.fsync-interval-ms", 1000));
         
         // Tablist/Leaderboard format (check both old and new config keys)
         defaultLeaderboardFormat = config.getString("tablist.format", 
@@ -76,16 +170,46 @@ public class LockiConfig {
             }
         }
 
+        // Leaderboard ranking
+        leaderboardRankingKey = config.getString("leaderboard.ranking.key", "group-priority");
+        leaderboardRefreshInterval = Math.max(20, config.getInt("leaderboard.ranking.refresh-interval", 100));
+
+        // 0 disables the live-stats tablist refresh
+        int statsInterval = config.getInt("tablist.stats-refresh-interval", 20);
+        tablistStatsRefreshInterval = statsInterval <= 0 ? 0 : Math.max(5, statsInterval);
+
+        // Placeholder watchdog
+        placeholderWatchdogEnabled = config.getBoolean("placeholders.watchdog.enabled", true);
+        placeholderThresholdMs = Math.max(1, config.getInt("placeholders.watchdog.threshold-ms", 50));
+        placeholderWatchdogTripAfter = Math.max(1, config.getInt("placeholders.watchdog.trip-after", 3));
+        placeholderWatchdogCooldownSeconds = Math.max(1, config.getInt("placeholders.watchdog.cooldown-seconds", 30));
+        placeholderThresholds.clear();
+        ConfigurationSection thresholdsSection = config.getConfigurationSection("placeholders.watchdog.thresholds");
+        if (thresholdsSection != null) {
+            for (String key : thresholdsSection.getKeys(false)) {
+                placeholderThresholds.put(key.replace("%", ""), Math.max(1, thresholdsSection.getInt(key)));
+            }
+        }
+
+        // Chat channels
+        loadChannels(config);
+
         // Separators
         prefixSeparator = config.getString("settings.prefix-separator", "");
         suffixSeparator = config.getString("settings.suffix-separator", "");
 
+        templateCacheSize = Math.max(16, config.getInt("settings.template-cache-size", 512));
+        headCacheSize = Math.max(0, config.getInt("settings.head-cache-size", 0));
+        statsInterval = Math.max(1, config.getInt("settings.stats-interval", 20));
+
         // Default colors
         defaultUsernameColor = config.getString("settings.default-username-color", "&f");
         defaultMessageColor = config.getString("settings.default-message-color", "&f");
 
         // Load group formats (check both "groups" and "group-formats" keys)
         groupFormats.clear();
+        localeKeys.clear();
+        localeMatches.clear();
         ConfigurationSection groupsSection = config.getConfigurationSection("groups");
         if (groupsSection == null) {
             groupsSection = config.getConfigurationSection("group-formats");
@@ -103,7 +227,31 @@ public class LockiConfig {
                     format.setSuffix(groupSection.getString("suffix"));
                     format.setUsernameColor(groupSection.getString("username-color"));
                     format.setMessageColor(groupSection.getString("message-color"));
+                    format.setRankTag(groupSection.getString("rank-tag"));
+                    format.setMentionStyle(groupSection.getString("mention-style"));
                     format.setPriority(groupSection.getInt("priority", 0));
+                    ConfigurationSection channelFormatsSection = groupSection.getConfigurationSection("channel-formats");
+                    if (channelFormatsSection != null) {
+                        for (String channelId : channelFormatsSection.getKeys(false)) {
+                            format.getChannelFormats().put(channelId.toLowerCase(), channelFormatsSection.getString(channelId));
+                        }
+                    }
+                    ConfigurationSection localesSection = groupSection.getConfigurationSection("locales");
+                    if (localesSection != null) {
+                        for (String locale : localesSection.getKeys(false)) {
+                            ConfigurationSection ls = localesSection.getConfigurationSection(locale);
+                            if (ls == null) {
+                                continue;
+                            }
+                            GroupFormat variant = new GroupFormat();
+                            variant.setChatFormat(ls.getString("chat-format"));
+                            variant.setLeaderboardFormat(ls.getString("tablist-format", ls.getString("leaderboard-format")));
+                            variant.setRankTag(ls.getString("rank-tag"));
+                            String key = normalizeLocale(locale);
+                            format.getLocales().put(key, variant);
+                            localeKeys.add(key);
+                        }
+                    }
                     groupFormats.put(groupName.toLowerCase(), format);
                 }
             }
@@ -167,6 +315,8 @@ public class LockiConfig {
                 serverLeaderboardFormats.put(server.toLowerCase(), serverLbSection.getString(server));
             }
         }
+
+        generation++;
     }
 
     /**
@@ -192,10 +342,202 @@ public class LockiConfig {
         return changed;
     }
 
+    /**
+     * Returns the config generation, incremented on every reload.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
     public String getDefaultChatFormat() {
         return defaultChatFormat;
     }
 
+    private void loadChannels(FileConfiguration config) {
+        Map<String, ChannelSettings> loaded = new LinkedHashMap<>();
+        channelsEnabled = config.getBoolean("channels.enabled", false);
+        defaultChannel = config.getString("channels.default", "global").toLowerCase(Locale.ROOT);
+        ConfigurationSection channelsSection = config.getConfigurationSection("channels");
+        if (channelsSection != null) {
+            for (String id : channelsSection.getKeys(false)) {
+                ConfigurationSection section = channelsSection.getConfigurationSection(id);
+                if (section == null) {
+                    continue;
+                }
+                String channelId = id.toLowerCase(Locale.ROOT);
+                ChannelSettings.Scope scope;
+                try {
+                    scope = ChannelSettings.Scope.valueOf(section.getString("scope", defaultScope(channelId)).toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    LOG.warning("Unknown scope for channel '" + id + "', using permission.");
+                    scope = ChannelSettings.Scope.PERMISSION;
+                }
+                loaded.put(channelId, new ChannelSettings(
+                    channelId,
+                    scope,
+                    section.getString("permission", "lockiprefixes.channel." + channelId),
+                    section.getString("prefix", ""),
+                    section.getString("format"),
+                    Math.max(1, section.getInt("radius", 100))
+                ));
+            }
+        }
+        synchronized (channels) {
+            channels.clear();
+            channels.putAll(loaded);
+        }
+    }
+
+    private static String defaultScope(String channelId) {
+        switch (channelId) {
+            case "global":
+            case "world":
+            case "local":
+                return channelId;
+            default:
+                return "permission";
+        }
+    }
+
+    public boolean isChannelsEnabled() {
+        return channelsEnabled;
+    }
+
+    /** Channel used for messages without a channel prefix. */
+    public String getDefaultChannel() {
+        return defaultChannel;
+    }
+
+    public ChannelSettings getChannel(String id) {
+        synchronized (channels) {
+            return channels.get(id);
+        }
+    }
+
+    public List<ChannelSettings> getChannels() {
+        synchronized (channels) {
+            return new ArrayList<>(channels.values());
+        }
+    }
+
+    /** The configured chat delivery mode (lower case), or "" for the module's default. */
+    public String getChatMode() {
+        return chatMode;
+    }
+
+    /** Whether chat is formatted on virtual threads (latest module, broadcast mode only). */
+    public boolean isChatVirtualThreads() {
+        return chatVirtualThreads;
+    }
+
+    public int getChatMaxConcurrentRenders() {
+        return chatMaxConcurrentRenders;
+    }
+
+    /** Milliseconds before a render is replaced by the plain "name: message" fallback. */
+    public int getChatRenderTimeoutMs() {
+        return chatRenderTimeoutMs;
+    }
+
+    /** Whether chat bursts are throttled by the flood guard (latest module, broadcast mode). */
+    public boolean isChatFloodGuard() {
+        return chatFloodGuard;
+    }
+
+    /** Messages a sender may send back-to-back before the per-second rate applies. */
+    public int getChatFloodBurst() {
+        return chatFloodBurst;
+    }
+
+    public double getChatFloodPerSecond() {
+        return chatFloodPerSecond;
+    }
+
+    /** Messages admitted but not yet delivered before new ones are dropped. */
+    public int getChatFloodMaxQueue() {
+        return chatFloodMaxQueue;
+    }
+
+    public int getChatFloodCoalesceWindowMs() {
+        return chatFloodCoalesceWindowMs;
+    }
+
+    /** Whether the last global chat lines are replayed to joining players. */
+    public boolean isChatHistoryEnabled() {
+        return chatHistoryEnabled;
+    }
+
+    /** Number of rendered lines kept for replay (1-100). */
+    public int getChatHistorySize() {
+        return chatHistorySize;
+    }
+
+    /** Whether mentions of online players are highlighted and pinged. */
+    public boolean isChatMentionsEnabled() {
+        return chatMentionsEnabled;
+    }
+
+    /**
+     * Style put before a mention of a player in the given group: the group's "mention-style",
+     * else "chat.mentions.style".
+     */
+    public String getMentionStyle(String groupName) {
+        GroupFormat format = groupName != null ? getGroupFormat(groupName) : null;
+        return format != null && format.getMentionStyle() != null ? format.getMentionStyle() : chatMentionStyle;
+    }
+
+    /** Sound key played to a mentioned player, or "" for none. */
+    public String getChatMentionSound() {
+        return chatMentionSound;
+    }
+
+    public float getChatMentionVolume() {
+        return chatMentionVolume;
+    }
+
+    public float getChatMentionPitch() {
+        return chatMentionPitch;
+    }
+
+    /** Whether chat names carry a rank card on hover (latest module). */
+    public boolean isChatHoverEnabled() {
+        return chatHoverEnabled;
+    }
+
+    /** Command suggested when a chat name is clicked ({name} is replaced), or "" for none. */
+    public String getChatClickSuggest() {
+        return chatClickSuggest;
+    }
+
+    /** Whether chat formats are MiniMessage (parsed once into a Component template) rather than &-codes. */
+    public boolean isChatMiniMessage() {
+        return chatMiniMessage;
+    }
+
+    /** Whether formatted chat is written to the audit log in plugins/LockiPrefixes/chat-logs. */
+    public boolean isChatLogEnabled() {
+        return chatLogEnabled;
+    }
+
+    /** Size after which the chat log rotates to a new file. */
+    public int getChatLogMaxFileMb() {
+        return chatLogMaxFileMb;
+    }
+
+    /** Number of chat log files kept; older ones are deleted. */
+    public int getChatLogMaxFiles() {
+        return chatLogMaxFiles;
+    }
+
+    /** "none", "batch" or "interval" (lower case). */
+    public String getChatLogFsync() {
+        return chatLogFsync;
+    }
+
+    public int getChatLogFsyncIntervalMs() {
+        return chatLogFsyncIntervalMs;
+    }
+
     public String getDefaultLeaderboardFormat() {
         return defaultLeaderboardFormat;
     }
@@ -208,6 +550,62 @@ public class LockiConfig {
         return groupFormats.get(groupName.toLowerCase());
     }
 
+    /**
+     * Rank tag of a group ("groups.<group>.rank-tag"), using the locale variant when it has one.
+     *
+     * @param locale A locale key from {@link #matchLocale}, or null for the default
+     * @return The tag, or null if the group has none
+     */
+    public String getRankTag(String groupName, String locale) {
+        GroupFormat format = groupName != null ? getGroupFormat(groupName) : null;
+        if (format == null) {
+            return null;
+        }
+        GroupFormat variant = locale != null ? format.getLocale(locale) : null;
+        return variant != null && variant.getRankTag() != null ? variant.getRankTag() : format.getRankTag();
+    }
+
+    /**
+     * Whether any group defines locale variants; without them every viewer sees the same line.
+     */
+    public boolean hasLocaleVariants() {
+        return !localeKeys.isEmpty();
+    }
+
+    /**
+     * Maps a client locale ("de_DE", "de-de") to the configured locale key it uses:
+     * the exact locale first, then its language ("de"). Results are cached until the next reload,
+     * since clients only report a handful of distinct locales.
+     *
+     * @return The locale key, or null if the client sees the default formats
+     */
+    public String matchLocale(String clientLocale) {
+        if (clientLocale == null || localeKeys.isEmpty()) {
+            return null;
+        }
+        String match = localeMatches.get(clientLocale, this::resolveLocale);
+        return match.isEmpty() ? null : match;
+    }
+
+    /**
+     * The configured locale key for a client locale: the exact locale, then its language, else "".
+     */
+    private String resolveLocale(String clientLocale) {
+        String locale = normalizeLocale(clientLocale);
+        int separator = locale.indexOf('_');
+        if (localeKeys.contains(locale)) {
+            return locale;
+        }
+        if (separator > 0 && localeKeys.contains(locale.substring(0, separator))) {
+            return locale.substring(0, separator);
+        }
+        return "";
+    }
+
+    private static String normalizeLocale(String locale) {
+        return locale.trim().toLowerCase(Locale.ROOT).replace('-', '_');
+    }
+
     public String getWorldChatFormat(String world) {
         return worldChatFormats.get(world.toLowerCase());
     }
@@ -232,6 +630,20 @@ public class LockiConfig {
         return suffixSeparator;
     }
 
+    public int getTemplateCacheSize() {
+        return templateCacheSize;
+    }
+
+    /** Players whose rendered chat head is cached, or 0 to use the server's max players. */
+    public int getHeadCacheSize() {
+        return headCacheSize;
+    }
+
+    /** Ticks between samples of {ping}, {health}, {level}, {gamemode} and {online}. */
+    public int getStatsInterval() {
+        return statsInterval;
+    }
+
     public String getDefaultUsernameColor() {
         return defaultUsernameColor;
     }
@@ -248,6 +660,47 @@ public class LockiConfig {
         return leaderboardPositionFormats;
     }
 
+    public String getLeaderboardRankingKey() {
+        return leaderboardRankingKey;
+    }
+
+    /** Ticks between re-samples for placeholder-based ranking keys. */
+    public int getLeaderboardRefreshInterval() {
+        return leaderboardRefreshInterval;
+    }
+
+    public boolean isPlaceholderWatchdogEnabled() {
+        return placeholderWatchdogEnabled;
+    }
+
+    /**
+     * Latency threshold for a placeholder text; a per-placeholder override applies when
+     * the text is exactly that placeholder (e.g. "%vault_eco_balance%").
+     */
+    public int getPlaceholderThresholdMs(String placeholder) {
+        if (!placeholderThresholds.isEmpty()) {
+            Integer override = placeholderThresholds.get(placeholder.replace("%", ""));
+            if (override != null) {
+                return override;
+            }
+        }
+        return placeholderThresholdMs;
+    }
+
+    /** Consecutive slow or failing calls before a placeholder is tripped. */
+    public int getPlaceholderWatchdogTripAfter() {
+        return placeholderWatchdogTripAfter;
+    }
+
+    public int getPlaceholderWatchdogCooldownSeconds() {
+        return placeholderWatchdogCooldownSeconds;
+    }
+
+    /** Ticks between tablist refreshes for formats using {ping}, {health}, ...; 0 if disabled. */
+    public int getTablistStatsRefreshInterval() {
+        return tablistStatsRefreshInterval;
+    }
+
     /**
      * Represents a group-specific format configuration.
      */
@@ -258,7 +711,29 @@ public class LockiConfig {
         private String suffix;
         private String usernameColor;
         private String messageColor;
+        private String rankTag;
+        private String mentionStyle;
         private int priority;
+        private final Map<String, String> channelFormats = new HashMap<>();
+        private final Map<String, GroupFormat> locales = new HashMap<>();
+
+        /** Group-specific formats per channel id ("groups.<group>.channel-formats"). */
+        public Map<String, String> getChannelFormats() {
+            return channelFormats;
+        }
+
+        /**
+         * Locale variants ("groups.<group>.locales.<locale>"), keyed by lower-case locale.
+         * A variant only carries chat-format, tablist-format and rank-tag; unset fields fall back to the group.
+         */
+        public Map<String, GroupFormat> getLocales() {
+            return locales;
+        }
+
+        /** The variant for a locale key, or null. */
+        public GroupFormat getLocale(String locale) {
+            return locales.isEmpty() ? null : locales.get(locale);
+        }
 
         public String getChatFormat() {
             return chatFormat;
@@ -308,6 +783,23 @@ public class LockiConfig {
             this.messageColor = messageColor;
         }
 
+        public String getRankTag() {
+            return rankTag;
+        }
+
+        public void setRankTag(String rankTag) {
+            this.rankTag = rankTag;
+        }
+
+        /** Style of mentions of this group's members, or null for the default. */
+        public String getMentionStyle() {
+            return mentionStyle;
+        }
+
+        public void setMentionStyle(String mentionStyle) {
+            this.mentionStyle = mentionStyle;
+        }
+
         public int getPriority() {
             return priority;
         }
@@ -316,4 +808,65 @@ public class LockiConfig {
             this.priority = priority;
         }
     }
+
+    /**
+     * A chat channel from the "channels" section.
+     */
+    public static class ChannelSettings {
+
+        /** Who receives a channel message. */
+        public enum Scope {
+            /** Everyone online. */
+            GLOBAL,
+            /** Players in the sender's world. */
+            WORLD,
+            /** Players in the sender's world within the radius. */
+            LOCAL,
+            /** Players with the channel permission (sending also requires it). */
+            PERMISSION
+        }
+
+        private final String id;
+        private final Scope scope;
+        private final String permission;
+        private final String prefix;
+        private final String format;
+        private final int radius;
+
+        public ChannelSettings(String id, Scope scope, String permission, String prefix, String format, int radius) {
+            this.id = id;
+            this.scope = scope;
+            this.permission = permission;
+            this.prefix = prefix;
+            this.format = format;
+            this.radius = radius;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Scope getScope() {
+            return scope;
+        }
+
+        public String getPermission() {
+            return permission;
+        }
+
+        /** Message prefix selecting this channel (e.g. "#"), empty if none. */
+        public String getPrefix() {
+            return prefix;
+        }
+
+        /** Channel format, or null to use the regular chat format. */
+        public String getFormat() {
+            return format;
+        }
+
+        /** Radius in blocks for LOCAL channels. */
+        public int getRadius() {
+            return radius;
+        }
+    }
 }
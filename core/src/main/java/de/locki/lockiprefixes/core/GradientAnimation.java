@@ -0,0 +1,182 @@
+package de.locki.lockiprefixes.core;
+
+import de.locki.lockiprefixes.cache.LruCache;
+import de.locki.lockiprefixes.format.TextGradient;
+
+import java.util.Locale;
+
+/**
+ * An animated gradient: the gradient slides through the text, one frame per {@code speed} ticks.
+ *
+ * The frame shown is a pure function of a shared clock tick ({@link #frameAt}), so every text
+ * using the same animation is in step and a frame is computed once however many players show it.
+ * Frame strings are rendered the first time they are shown and kept for the whole cycle, so
+ * after one cycle an animation only looks strings up.
+ */
+public final class GradientAnimation {
+
+    /** Which way the gradient moves through the frames. */
+    public enum Direction {
+        FORWARD, BACKWARD,
+        /** Forward, then back again. */
+        PINGPONG;
+
+        /** The direction for a config value, or FORWARD. */
+        public static Direction byName(String name) {
+            if (name != null) {
+                switch (name.trim().toLowerCase(Locale.ROOT)) {
+                    case "backward":
+                    case "reverse":
+                        return BACKWARD;
+                    case "pingpong":
+                    case "alternate":
+                        return PINGPONG;
+                    default:
+                        break;
+                }
+            }
+            return FORWARD;
+        }
+    }
+
+    /** How the phase advances over a cycle. */
+    public enum Easing {
+        LINEAR, EASE_IN, EASE_OUT, EASE_IN_OUT;
+
+        /** The easing for a config value ("ease-in-out"), or LINEAR. */
+        public static Easing byName(String name) {
+            if (name != null) {
+                String key = name.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+                for (Easing easing : values()) {
+                    if (easing.name().equals(key)) {
+                        return easing;
+                    }
+                }
+            }
+            return LINEAR;
+        }
+
+        float apply(float t) {
+            switch (this) {
+                case EASE_IN:
+                    return t * t;
+                case EASE_OUT:
+                    return t * (2 - t);
+                case EASE_IN_OUT:
+                    return t < 0.5f ? 2 * t * t : -1 + (4 - 2 * t) * t;
+                default:
+                    return t;
+            }
+        }
+    }
+
+    private static final int TEXT_CACHE_SIZE = 16;
+
+    private final int[] stops;
+    private final int speed;
+    private final int frames;
+    private final Direction direction;
+    private final Easing easing;
+    private final boolean bold;
+    private final boolean supportsHex;
+    private final LruCache<String, String[]> cycles = new LruCache<>(TEXT_CACHE_SIZE);
+
+    /**
+     * @param stops       RGB colors the gradient runs through (at least two)
+     * @param speed       Ticks per frame
+     * @param frames      Frames per cycle
+     * @param direction   Which way the gradient moves
+     * @param easing      How the phase advances over a cycle
+     * @param bold        Whether every character is bold
+     * @param supportsHex Whether to emit hex colors or the nearest legacy colors
+     */
+    public GradientAnimation(int[] stops, int speed, int frames, Direction direction, Easing easing,
+                             boolean bold, boolean supportsHex) {
+        this.stops = stops;
+        this.speed = Math.max(1, speed);
+        this.frames = Math.max(1, frames);
+        this.direction = direction;
+        this.easing = easing;
+        this.bold = bold;
+        this.supportsHex = supportsHex;
+    }
+
+    /**
+     * Parses comma-separated stops ("#FF0000,#FF3366,#FF0000").
+     *
+     * @return The stops, or null if there are fewer than two valid colors
+     */
+    public static int[] parseStops(String colors) {
+        if (colors == null) {
+            return null;
+        }
+        String[] parts = colors.split(",");
+        if (parts.length < 2) {
+            return null;
+        }
+        int[] stops = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            stops[i] = TextGradient.parseColor(parts[i].replace("&", ""));
+            if (stops[i] < 0) {
+                return null;
+            }
+        }
+        return stops;
+    }
+
+    /**
+     * The frame shown at a clock tick.
+     */
+    public int frameAt(long tick) {
+        long step = Math.max(0, tick) / speed;
+        switch (direction) {
+            case BACKWARD:
+                return frames - 1 - (int) (step % frames);
+            case PINGPONG:
+                int cycle = Math.max(1, 2 * frames - 2);
+                int position = (int) (step % cycle);
+                return position < frames ? position : cycle - position;
+            default:
+                return (int) (step % frames);
+        }
+    }
+
+    /**
+     * The text colored for a frame; rendered on first use, then cached for the cycle.
+     */
+    public String frame(String text, int frame) {
+        String[] cycle = cycles.get(text, key -> new String[frames]);
+        int index = Math.floorMod(frame, frames);
+        String rendered = cycle[index];
+        if (rendered == null) {
+            rendered = render(text, stops, easing.apply((float) index / frames), bold, supportsHex);
+            cycle[index] = rendered;
+        }
+        return rendered;
+    }
+
+    /**
+     * Colors plain text with the gradient shifted by {@code phase} (0-1, wrapping around).
+     */
+    public static String render(String text, int[] stops, float phase, boolean bold, boolean supportsHex) {
+        int length = text.length();
+        StringBuilder result = new StringBuilder(length * (supportsHex ? 16 : 4));
+        for (int i = 0; i < length; i++) {
+            float position = ((float) i / Math.max(length - 1, 1) + phase) % 1.0f;
+            result.append(TextGradient.colorCode(TextGradient.colorAt(stops, position), supportsHex));
+            if (bold) {
+                result.append("§l");
+            }
+            result.append(text.charAt(i));
+        }
+        return result.toString();
+    }
+
+    public int getSpeed() {
+        return speed;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+}
@@ -1,60 +1,63 @@
 package de.locki.lockiprefixes.core;
 
-import java.awt.Color;
-import java.util.ArrayList;
-import java.util.List;
-import net.md_5.bungee.api.ChatColor;
+import de.locki.lockiprefixes.cache.LruCache;
+import de.locki.lockiprefixes.color.ColorParser;
+import de.locki.lockiprefixes.format.TextGradient;
 
 /**
  * Utility class for gradient animation and text formatting.
  * Centralizes gradient logic to reduce duplication across modules.
+ *
+ * Gradients are {@link TextGradient}s cached per (from, to, hex support), so their color ramps
+ * are shared between calls instead of being interpolated again for every string.
  */
 public class GradientUtils {
-    
+
+    private static final LruCache<String, TextGradient> GRADIENTS = new LruCache<>(64);
+
     /**
      * Applies a gradient effect to the given text based on two hex colors.
      * Supports both modern and legacy formatting where possible.
      */
     public static String applyGradient(String text, String colorFrom, String colorTo) {
+        return applyGradient(text, colorFrom, colorTo, true);
+    }
+
+    /**
+     * Applies a gradient for the given server capability. Without hex support every character
+     * gets the nearest legacy color, and a code is only emitted where that color changes.
+     */
+    public static String applyGradient(String text, String colorFrom, String colorTo, boolean supportsHex) {
         if (text == null || text.isEmpty()) return "";
-        
-        try {
-            Color start = Color.decode(colorFrom);
-            Color end = Color.decode(colorTo);
-            
-            StringBuilder sb = new StringBuilder();
-            int length = text.length();
-            
-            for (int i = 0; i < length; i++) {
-                float ratio = (float) i / (float) (length > 1 ? length - 1 : 1);
-                int red = (int) (start.getRed() + (end.getRed() - start.getRed()) * ratio);
-                int green = (int) (start.getGreen() + (end.getGreen() - start.getGreen()) * ratio);
-                int blue = (int) (start.getBlue() + (end.getBlue() - start.getBlue()) * ratio);
-                
-                ChatColor color = ChatColor.of(new Color(red, green, blue));
-                sb.append(color.toString()).append(text.charAt(i));
-            }
-            return sb.toString();
-        } catch (Exception e) {
-            return ChatColor.translateAlternateColorCodes('&', text);
+
+        TextGradient gradient = GRADIENTS.get(colorFrom + "," + colorTo + (supportsHex ? "" : ",legacy"),
+            key -> TextGradient.parse(colorFrom + "," + colorTo, supportsHex));
+        if (gradient == null) {
+            return ColorParser.translate(text, supportsHex);
         }
+        return gradient.apply(ColorParser.translate(text, supportsHex));
     }
-    
+
     /**
      * Translates legacy color codes and formats hex colors.
      */
     public static String format(String text) {
         if (text == null) return "";
-        return ChatColor.translateAlternateColorCodes('&', text);
+        return ColorParser.translateLegacy(text);
     }
-    
+
     /**
      * Calculates an animated gradient frame for a given step.
      */
     public static String getAnimatedGradient(String text, String colorFrom, String colorTo, int step, int totalSteps) {
-        // Animation logic based on shifting the gradient phase
-        float phase = (float) step / (float) totalSteps;
-        // Logic for oscillating or shifting can be added here
-        return applyGradient(text, colorFrom, colorTo); // Placeholder for phase-aware gradient
+        if (text == null || text.isEmpty()) return "";
+
+        int[] stops = GradientAnimation.parseStops(colorFrom + "," + colorTo + "," + colorFrom);
+        if (stops == null) {
+            return format(text);
+        }
+        // from -> to -> from, so the last frame flows back into the first
+        float phase = totalSteps > 0 ? (float) Math.floorMod(step, totalSteps) / totalSteps : 0;
+        return GradientAnimation.render(text, stops, phase, false, true);
     }
 }
@@ -1,25 +1,79 @@
 package de.locki.lockiprefixes.format;
 
+import de.locki.lockiprefixes.cache.LruCache;
+import de.locki.lockiprefixes.chat.MentionMatcher;
 import de.locki.lockiprefixes.color.ColorParser;
+import de.locki.lockiprefixes.color.DualRendered;
+import de.locki.lockiprefixes.color.MessageColors;
 import de.locki.lockiprefixes.config.LockiConfig;
 import de.locki.lockiprefixes.lp.LuckPermsFacade;
 import de.locki.lockiprefixes.placeholder.BuiltInPlaceholders;
+import de.locki.lockiprefixes.placeholder.PlaceholderProvider;
+import de.locki.lockiprefixes.placeholder.PlaceholderRegistry;
+import de.locki.lockiprefixes.placeholder.PlaceholderWatchdog;
+import de.locki.lockiprefixes.placeholder.PlayerStatsSampler;
 import de.locki.lockiprefixes.placeholder.PlayerData;
+import de.locki.lockiprefixes.stats.StatsReport;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * Main formatter that combines format resolution, placeholder replacement,
  * and color parsing to produce the final formatted string.
+ *
+ * Config formats are compiled once per config generation (see {@link FormatCompiler});
+ * the group-invariant parts are shared by every player using the same format.
+ * Formats from outside the config (per-player meta, formatCustom) go through a bounded LRU.
  */
 public class ChatFormatter {
 
+    /**
+     * Wrap the {name}/{displayname} output when a chat line is rendered with name markers,
+     * so Component-based modules can attach hover/click events to exactly that span.
+     * Private-use characters; they are stripped from the chat message itself.
+     */
+    public static final char NAME_START = '\uE000';
+    public static final char NAME_END = '\uE001';
+
+    private static final Pattern RELATIONAL_PATTERN = Pattern.compile("%rel_[^%\\s]+%");
+
     private final LockiConfig config;
+    private final LuckPermsFacade luckPermsFacade;
     private final FormatResolver formatResolver;
     private final BuiltInPlaceholders builtInPlaceholders;
+    private final FormatCompiler formatCompiler;
+    private final PlaceholderRegistry placeholderRegistry;
+    private final PlaceholderWatchdog placeholderWatchdog;
     private final boolean supportsHex;
     private final boolean papiAvailable;
 
+    // Online names for mention highlighting; null when mentions are not tracked
+    private volatile MentionMatcher mentionMatcher;
+
+    // Compiled config formats, keyed by raw format string (groups sharing a format share the template)
+    private final Map<String, FormatTemplate> templates = new ConcurrentHashMap<>();
+    private volatile int templateGeneration = -1;
+    private volatile int registryVersion = -1;
+
+    // Set once any compiled format shows a sampled stat; until then players are not sampled at all
+    private volatile boolean statsUsed;
+
+    // Compiled formats that are not part of the config — bounded, since every player may have their own
+    private final LruCache<String, FormatTemplate> dynamicTemplates;
+
+    // Last rendered pre-message head per player, see cachedHead
+    private final LruCache<UUID, CachedHead> heads;
+    private final AtomicLong headHits = new AtomicLong();
+    private final AtomicLong headMisses = new AtomicLong();
+
     /**
      * Creates a new ChatFormatter.
      *
@@ -28,28 +82,312 @@ public class ChatFormatter {
      * @param supportsHex      Whether hex colors are supported (1.16+)
      */
     public ChatFormatter(LockiConfig config, LuckPermsFacade luckPermsFacade, boolean supportsHex) {
+        this(config, luckPermsFacade, supportsHex, null);
+    }
+
+    /**
+     * Creates a new ChatFormatter that binds registered placeholder providers into its templates.
+     *
+     * @param config              The plugin configuration
+     * @param luckPermsFacade     The LuckPerms facade
+     * @param supportsHex         Whether hex colors are supported (1.16+)
+     * @param placeholderRegistry Providers registered by other plugins (may be null)
+     */
+    public ChatFormatter(LockiConfig config, LuckPermsFacade luckPermsFacade, boolean supportsHex,
+                         PlaceholderRegistry placeholderRegistry) {
         this.config = config;
+        this.luckPermsFacade = luckPermsFacade;
         this.formatResolver = new FormatResolver(config);
         this.builtInPlaceholders = new BuiltInPlaceholders(config, luckPermsFacade);
+        this.formatCompiler = new FormatCompiler(supportsHex, placeholderRegistry);
+        this.placeholderRegistry = placeholderRegistry;
+        this.placeholderWatchdog = new PlaceholderWatchdog(config);
+        this.dynamicTemplates = new LruCache<>(config.getTemplateCacheSize());
+        this.heads = new LruCache<>(headCacheSize(config));
         this.supportsHex = supportsHex;
-        this.papiAvailable = Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
+        this.papiAvailable = Bukkit.getServer() != null
+            && Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
+    }
+
+    /**
+     * One head per online player: settings.head-cache-size, or the server's max players.
+     */
+    private static int headCacheSize(LockiConfig config) {
+        if (config.getHeadCacheSize() > 0) {
+            return config.getHeadCacheSize();
+        }
+        return Bukkit.getServer() != null ? Math.max(16, Bukkit.getMaxPlayers()) : config.getTemplateCacheSize();
     }
 
     /**
      * Parses PlaceholderAPI placeholders if available.
+     * Calls go through the watchdog, so a slow or failing expansion is skipped for a cooldown.
      */
     private String parsePapi(String text, PlayerData playerData) {
         if (!papiAvailable || playerData.getUuid() == null) {
             return text;
         }
-        try {
-            Player player = Bukkit.getPlayer(playerData.getUuid());
-            if (player != null) {
-                return me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, text);
+        final Player player = Bukkit.getPlayer(playerData.getUuid());
+        if (player == null) {
+            return text;
+        }
+        return placeholderWatchdog.parse(text, playerData.getUuid(),
+            t -> me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, t));
+    }
+
+    /**
+     * Returns the compiled template for a config format.
+     * The cache is dropped whenever the config generation changes, so removed formats do not linger.
+     */
+    private FormatTemplate template(String format) {
+        checkStale();
+        String key = format != null ? format : "";
+        FormatTemplate template = templates.get(key);
+        if (template == null) {
+            template = compile(key);
+            templates.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * Returns the compiled template for a format that does not come from the config.
+     */
+    private FormatTemplate dynamicTemplate(String format) {
+        checkStale();
+        return dynamicTemplates.get(format != null ? format : "", this::compile);
+    }
+
+    private FormatTemplate compile(String format) {
+        FormatTemplate template = formatCompiler.compile(format);
+        if (template.isStatBound() && !statsUsed) {
+            statsUsed = true;
+        }
+        return template;
+    }
+
+    /**
+     * Drops compiled templates after a config reload or a provider (un)registration,
+     * so slots are re-bound against the current config and providers.
+     */
+    private void checkStale() {
+        int generation = config.getGeneration();
+        if (generation != templateGeneration) {
+            templates.clear();
+            heads.clear();
+            templateGeneration = generation;
+        }
+        int version = placeholderRegistry != null ? placeholderRegistry.getVersion() : 0;
+        if (version != registryVersion) {
+            templates.clear();
+            dynamicTemplates.clear();
+            heads.clear();
+            registryVersion = version;
+        }
+    }
+
+    private String render(FormatTemplate template, PlayerData playerData, String message, int position) {
+        return render(template, playerData, message, position, true, false);
+    }
+
+    /**
+     * Renders a compiled template for a player.
+     * Literal segments are appended as-is; only slot values are resolved and color-translated.
+     */
+    private String render(FormatTemplate template, PlayerData playerData, String message, int position,
+                          boolean parsePlaceholders, boolean markName) {
+        return render(template, playerData, message, position, parsePlaceholders, markName, null);
+    }
+
+    /**
+     * Renders a template for a viewer locale. Locale variants bypass the head cache, which keeps
+     * the default rendering of each player.
+     */
+    private String render(FormatTemplate template, PlayerData playerData, String message, int position,
+                          boolean parsePlaceholders, boolean markName, String locale) {
+        template = prefixVariant(template, playerData);
+        FormatTemplate.Segment[] segments = template.getSegments();
+        StringBuilder result;
+        int start = 0;
+        String head = message != null && locale == null && template.isHeadCacheable() && playerData.getUuid() != null
+            ? cachedHead(template, playerData, parsePlaceholders, markName) : null;
+        if (head != null) {
+            result = new StringBuilder(head.length() + message.length() + 32);
+            result.append(head);
+            start = template.getMessageIndex();
+        } else {
+            result = new StringBuilder(template.getLiteralLength() + 32);
+        }
+        for (int i = start; i < segments.length; i++) {
+            appendSegment(result, segments[i], playerData, message, position, parsePlaceholders, markName, locale);
+        }
+        return result.toString();
+    }
+
+    /**
+     * The template's variant without the prefix spacing when the player has no prefix.
+     */
+    private FormatTemplate prefixVariant(FormatTemplate template, PlayerData playerData) {
+        if (template.getEmptyPrefixVariant() != null) {
+            String prefix = builtInPlaceholders.resolvePrefix(playerData);
+            if (prefix == null || prefix.trim().isEmpty()) {
+                return template.getEmptyPrefixVariant();
+            }
+        }
+        return template;
+    }
+
+    private void appendSegment(StringBuilder result, FormatTemplate.Segment segment, PlayerData playerData,
+                               String message, int position, boolean parsePlaceholders, boolean markName,
+                               String locale) {
+        switch (segment.kind) {
+            case LITERAL:
+                result.append(segment.value);
+                break;
+            case BUILT_IN:
+                String value = builtInPlaceholders.resolve(segment.value, playerData, locale);
+                // Prefixes and meta values may themselves contain PAPI placeholders
+                if (parsePlaceholders && value.indexOf('%') >= 0) {
+                    value = parsePapi(value, playerData);
+                }
+                appendValue(result, segment.value, ColorParser.translate(value, supportsHex), markName);
+                break;
+            case MESSAGE:
+                String text = message != null ? message : "";
+                if (markName) {
+                    text = stripNameMarkers(text);
+                }
+                appendMessage(result, text, playerData.getMessageColors());
+                break;
+            case POSITION:
+                result.append(position);
+                break;
+            case PROVIDER:
+                result.append(ColorParser.translate(placeholderRegistry.resolve(segment.provider, playerData), supportsHex));
+                break;
+            case PAPI:
+                // Relational placeholders stay as tokens; they are resolved per viewer by the chat listener
+                String papi = parsePlaceholders && !segment.value.startsWith("%rel_")
+                    ? parsePapi(segment.value, playerData) : segment.value;
+                result.append(ColorParser.translate(papi, supportsHex));
+                break;
+            case ALIGNED:
+                StringBuilder inner = new StringBuilder();
+                appendSegment(inner, segment.inner, playerData, message, position, parsePlaceholders, false, locale);
+                result.append(segment.alignment.apply(inner.toString()));
+                break;
+            case GRADIENT:
+                StringBuilder content = new StringBuilder(64);
+                for (FormatTemplate.Segment child : segment.children) {
+                    appendSegment(content, child, playerData, message, position, parsePlaceholders, markName, locale);
+                }
+                result.append(segment.gradient.apply(content.toString()));
+                break;
+        }
+    }
+
+    /**
+     * Appends the chat message to the already rendered head, highlighting mentions of online
+     * players. The raw message is scanned once for mentions, then translated in one pass with
+     * only the codes the sender may use; after each mention the style in effect before it is restored.
+     *
+     * @param allowed {@link MessageColors} flags of the sender
+     */
+    private void appendMessage(StringBuilder result, String text, int allowed) {
+        MentionMatcher matcher = mentionMatcher;
+        List<MentionMatcher.Mention> mentions = matcher != null && config.isChatMentionsEnabled()
+            ? matcher.find(text) : null;
+        if (mentions == null || mentions.isEmpty()) {
+            result.append(ColorParser.translateMessage(text, allowed, supportsHex));
+            return;
+        }
+        int from = 0;
+        for (MentionMatcher.Mention mention : mentions) {
+            result.append(ColorParser.translateMessage(text.substring(from, mention.getStart()), allowed, supportsHex));
+            String style = ColorParser.trailingStyle(result);
+            String group = luckPermsFacade != null ? luckPermsFacade.getPrimaryGroup(mention.getId()) : null;
+            result.append(ColorParser.translate(config.getMentionStyle(group), supportsHex))
+                .append(text, mention.getStart(), mention.getEnd())
+                .append("§r").append(style);
+            from = mention.getEnd();
+        }
+        result.append(ColorParser.translateMessage(text.substring(from), allowed, supportsHex));
+    }
+
+    /**
+     * Translates a chat message on its own, as the {message} slot would: only the codes the sender
+     * may use, with mentions highlighted. For formats rendered outside this formatter (MiniMessage).
+     *
+     * @param allowed {@link MessageColors} flags of the sender
+     */
+    public String formatMessage(String message, int allowed) {
+        String text = message != null ? message : "";
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        appendMessage(result, text, allowed);
+        return result.toString();
+    }
+
+    /**
+     * Returns the rendered part of a chat line before {message}, reusing the player's last head
+     * while the template and the raw slot values are unchanged. Only the raw lookups run on a hit;
+     * color translation and concatenation are skipped.
+     *
+     * @return The head, or null if it cannot be cached (a slot value carries PAPI placeholders)
+     */
+    private String cachedHead(FormatTemplate template, PlayerData playerData, boolean parsePlaceholders, boolean markName) {
+        FormatTemplate.Segment[] segments = template.getSegments();
+        int end = template.getMessageIndex();
+        CachedHead cached = heads.getIfPresent(playerData.getUuid());
+        if (cached != null && cached.template == template && cached.parsed == parsePlaceholders
+                && cached.marked == markName) {
+            boolean same = true;
+            int slot = 0;
+            for (int i = 0; i < end && same; i++) {
+                if (segments[i].kind == FormatTemplate.Segment.Kind.BUILT_IN) {
+                    same = builtInPlaceholders.resolve(segments[i].value, playerData).equals(cached.values[slot++]);
+                }
+            }
+            if (same) {
+                headHits.incrementAndGet();
+                return cached.head;
+            }
+        }
+        headMisses.incrementAndGet();
+
+        String[] values = new String[end];
+        int slot = 0;
+        StringBuilder head = new StringBuilder(template.getLiteralLength() + 32);
+        for (int i = 0; i < end; i++) {
+            FormatTemplate.Segment segment = segments[i];
+            if (segment.kind == FormatTemplate.Segment.Kind.LITERAL) {
+                head.append(segment.value);
+                continue;
+            }
+            String value = builtInPlaceholders.resolve(segment.value, playerData);
+            if (parsePlaceholders && value.indexOf('%') >= 0) {
+                return null;
             }
-        } catch (Exception ignored) {
+            values[slot++] = value;
+            appendValue(head, segment.value, ColorParser.translate(value, supportsHex), markName);
+        }
+        String rendered = head.toString();
+        heads.put(playerData.getUuid(), new CachedHead(template, parsePlaceholders, markName, values, rendered));
+        return rendered;
+    }
+
+    private static void appendValue(StringBuilder result, String key, String translated, boolean markName) {
+        if (markName && ("name".equals(key) || "displayname".equals(key))) {
+            result.append(NAME_START).append(translated).append(NAME_END);
+        } else {
+            result.append(translated);
         }
-        return text;
+    }
+
+    private static String stripNameMarkers(String text) {
+        if (text.indexOf(NAME_START) < 0 && text.indexOf(NAME_END) < 0) {
+            return text;
+        }
+        return text.replace(String.valueOf(NAME_START), "").replace(String.valueOf(NAME_END), "");
     }
 
     /**
@@ -60,38 +398,256 @@ public class ChatFormatter {
      * @return The formatted chat string
      */
     public String formatChat(PlayerData playerData, String message) {
-        // Player-specific override first (works like config format but per-player)
-        String format = playerData.getMetaValue("chat-format");
-        if (format == null || format.trim().isEmpty()) {
-            // Resolve format based on context
-            format = formatResolver.resolveChatFormat(
-                playerData.getPrimaryGroup(),
-                playerData.getWorld(),
-                playerData.getServer()
-            );
+        return render(chatTemplate(playerData, null), playerData, message, 0);
+    }
+
+    /**
+     * Formats a chat message for a player, optionally wrapping the name in
+     * {@link #NAME_START}/{@link #NAME_END} markers.
+     *
+     * @param channelId  The channel id, or null for normal chat
+     * @param playerData The player data
+     * @param message    The chat message
+     * @param markName   Whether to emit name markers
+     * @return The formatted chat string
+     */
+    public String formatChat(String channelId, PlayerData playerData, String message, boolean markName) {
+        return formatChat(channelId, playerData, message, markName, null);
+    }
+
+    /**
+     * Formats a chat message for viewers with the given locale.
+     *
+     * @param locale A locale key from {@link LockiConfig#matchLocale}, or null for the default formats
+     */
+    public String formatChat(String channelId, PlayerData playerData, String message, boolean markName, String locale) {
+        return render(lineTemplate(channelId, playerData, locale), playerData, message, 0, true, markName, locale);
+    }
+
+    /**
+     * Formats a chat message once for the default formats; locale variants are rendered when
+     * the first viewer needing them asks for the line (see {@link LocalizedLine}).
+     */
+    public LocalizedLine<String> formatChatLocalized(String channelId, PlayerData playerData, String message,
+                                                     boolean markName) {
+        DualRendered<String> line = DualRendered.of(formatChat(channelId, playerData, message, markName, null));
+        if (!config.hasLocaleVariants()) {
+            return LocalizedLine.of(line);
         }
+        return new LocalizedLine<>(line, config::matchLocale, locale -> hasChatVariant(channelId, playerData, locale)
+            ? DualRendered.of(formatChat(channelId, playerData, message, markName, locale)) : null);
+    }
 
-        // Normalize alias to keep config-compatible placeholder set
-        format = format.replace("{user}", "{name}");
+    /**
+     * Formats a chat line with relational placeholders, split around the first {message}, so
+     * %rel_...% tokens can be resolved per viewer (see {@link #parseRelational}) in the format's
+     * own text only, never in what the player wrote.
+     *
+     * A {message} nested in a gradient or alignment stays in the head; gradients put color codes
+     * between its characters, so it cannot form a placeholder.
+     *
+     * @return The head (with %rel_...% tokens), the translated message and the tail (with tokens)
+     */
+    public String[] formatChatRelational(String channelId, PlayerData playerData, String message) {
+        FormatTemplate template = prefixVariant(lineTemplate(channelId, playerData, null), playerData);
+        FormatTemplate.Segment[] segments = template.getSegments();
+        int messageIndex = template.getMessageIndex();
+        StringBuilder result = new StringBuilder(template.getLiteralLength() + 32);
+        int headEnd = -1;
+        int messageEnd = -1;
+        for (int i = 0; i < segments.length; i++) {
+            if (i == messageIndex) {
+                headEnd = result.length();
+            }
+            appendSegment(result, segments[i], playerData, message, 0, true, false, null);
+            if (i == messageIndex) {
+                messageEnd = result.length();
+            }
+        }
+        if (headEnd < 0) {
+            return new String[] { result.toString(), "", "" };
+        }
+        return new String[] { result.substring(0, headEnd), result.substring(headEnd, messageEnd),
+            result.substring(messageEnd) };
+    }
 
-        // Replace built-in placeholders
-        String result = builtInPlaceholders.replace(format, playerData);
+    /**
+     * Resolves the %rel_...% placeholders in a head or tail from {@link #formatChatRelational}
+     * for one viewer. Each placeholder goes through the watchdog on its own; since its value
+     * depends on both players, a tripped placeholder renders empty instead of a remembered value.
+     */
+    public String parseRelational(Player source, Player viewer, String text) {
+        if (!papiAvailable || text.indexOf('%') < 0) {
+            return text;
+        }
+        Matcher matcher = RELATIONAL_PATTERN.matcher(text);
+        if (!matcher.find()) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        int from = 0;
+        do {
+            result.append(text, from, matcher.start());
+            result.append(placeholderWatchdog.parse(matcher.group(), null,
+                t -> me.clip.placeholderapi.PlaceholderAPI.setRelationalPlaceholders(source, viewer, t)));
+            from = matcher.end();
+        } while (matcher.find());
+        return result.append(text, from, text.length()).toString();
+    }
 
-        // Parse PlaceholderAPI placeholders
-        result = parsePapi(result, playerData);
+    /**
+     * Removes the %rel_...% placeholders from a head or tail, for audiences without a viewer (console).
+     */
+    public static String stripRelational(String text) {
+        return text.indexOf('%') < 0 ? text : RELATIONAL_PATTERN.matcher(text).replaceAll("");
+    }
+
+    /**
+     * Checks whether viewers with the given locale see a different line from this player than
+     * the default: the group has a variant for the locale that changes the format or the {rank-tag}.
+     *
+     * @param locale A locale key from {@link LockiConfig#matchLocale}
+     */
+    public boolean hasChatVariant(String channelId, PlayerData playerData, String locale) {
+        String group = playerData.getPrimaryGroup();
+        LockiConfig.GroupFormat groupFormat = group != null && locale != null ? config.getGroupFormat(group) : null;
+        LockiConfig.GroupFormat variant = groupFormat != null ? groupFormat.getLocale(locale) : null;
+        if (variant == null) {
+            return false;
+        }
+        FormatTemplate template = lineTemplate(channelId, playerData, locale);
+        return template != lineTemplate(channelId, playerData, null)
+            || variant.getRankTag() != null && template.getSource().contains("rank-tag");
+    }
 
-        // Replace {message} placeholder
-        result = result.replace("{message}", message != null ? message : "");
+    /**
+     * Formats a chat message sent to a channel.
+     * Channels without their own format render exactly like {@link #formatChat}.
+     *
+     * @param channelId  The channel id
+     * @param playerData The player data
+     * @param message    The chat message (channel prefix already removed)
+     * @return The formatted chat string
+     */
+    public String formatChannelChat(String channelId, PlayerData playerData, String message) {
+        return formatChat(channelId, playerData, message, false);
+    }
 
-        // Parse colors
-        if (supportsHex) {
-            result = ColorParser.translateHex(result);
-        } else {
-            result = ColorParser.stripHex(result);
-            result = ColorParser.translateLegacy(result);
+    /**
+     * The channel's own template, or null if the channel uses the normal chat format.
+     */
+    private FormatTemplate channelTemplate(String channelId, PlayerData playerData, String locale) {
+        String format = formatResolver.resolveChannelFormat(
+            channelId,
+            playerData.getPrimaryGroup(),
+            playerData.getWorld(),
+            playerData.getServer(),
+            locale
+        );
+        String chatFormat = formatResolver.resolveChatFormat(
+            playerData.getPrimaryGroup(),
+            playerData.getWorld(),
+            playerData.getServer(),
+            locale
+        );
+        return format.equals(chatFormat) ? null : template(format);
+    }
+
+    /**
+     * The template a chat line is rendered with: the channel's own format, or the chat format.
+     */
+    private FormatTemplate lineTemplate(String channelId, PlayerData playerData, String locale) {
+        FormatTemplate template = channelId != null ? channelTemplate(channelId, playerData, locale) : null;
+        return template != null ? template : chatTemplate(playerData, locale);
+    }
+
+    /**
+     * Returns the raw chat format a player's message would be rendered with
+     * (channel format, per-player override or the resolved group/world/server format).
+     *
+     * @param channelId  The channel id, or null for normal chat
+     * @param playerData The player data
+     */
+    public String getChatFormat(String channelId, PlayerData playerData) {
+        return getChatFormat(channelId, playerData, null);
+    }
+
+    /**
+     * Returns the raw chat format for viewers with the given locale.
+     *
+     * @param locale A locale key from {@link LockiConfig#matchLocale}, or null for the default formats
+     */
+    public String getChatFormat(String channelId, PlayerData playerData, String locale) {
+        return lineTemplate(channelId, playerData, locale).getSource();
+    }
+
+    /**
+     * Marks the slots of a raw format, see {@link FormatCompiler#markSlots}.
+     */
+    public String markSlots(String format, char base, List<String> tokens) {
+        return formatCompiler.markSlots(format != null ? format : "", base, tokens);
+    }
+
+    /**
+     * Resolves a single slot token from {@link #markSlots} to its raw (untranslated) value.
+     * {message} and {position} are not resolved here.
+     *
+     * @param token      "{key}" or a PlaceholderAPI token including its % delimiters
+     * @param playerData The player data
+     * @return The value, never null
+     */
+    public String resolveSlot(String token, PlayerData playerData) {
+        return resolveSlot(token, playerData, null);
+    }
+
+    /**
+     * Resolves a slot token for viewers with the given locale.
+     *
+     * @param locale A locale key from {@link LockiConfig#matchLocale}, or null for the default
+     */
+    public String resolveSlot(String token, PlayerData playerData, String locale) {
+        if (token.startsWith("%")) {
+            return token.startsWith("%rel_") ? token : parsePapi(token, playerData);
+        }
+        String key = token.substring(1, token.length() - 1);
+        if (key.indexOf(':') > 0) {
+            // Aligned slot ({pad:prefix:60}); rendered through its own one-slot template
+            return render(dynamicTemplate(token), playerData, null, 0, true, false, locale);
+        }
+        if (BuiltInPlaceholders.isBuiltIn(key)) {
+            if (BuiltInPlaceholders.isTickBound(key) && !statsUsed) {
+                statsUsed = true;
+            }
+            String value = builtInPlaceholders.resolve(key, playerData, locale);
+            return value.indexOf('%') >= 0 ? parsePapi(value, playerData) : value;
         }
+        PlaceholderProvider provider = placeholderRegistry != null ? placeholderRegistry.getProvider(key) : null;
+        return provider != null ? placeholderRegistry.resolve(provider, playerData) : "";
+    }
 
-        return result;
+    /**
+     * Checks whether the player's chat format contains relational (%rel_...%) placeholders,
+     * i.e. whether the rendered line differs per viewer.
+     */
+    public boolean isChatViewerDependent(PlayerData playerData) {
+        return chatTemplate(playerData, null).isRelational();
+    }
+
+    private FormatTemplate chatTemplate(PlayerData playerData, String locale) {
+        // Player-specific override first (works like config format but per-player)
+        String format = playerData.getMetaValue("chat-format");
+        if (format != null && !format.trim().isEmpty()) {
+            return dynamicTemplate(format);
+        }
+
+        // Resolve format based on context
+        format = formatResolver.resolveChatFormat(
+            playerData.getPrimaryGroup(),
+            playerData.getWorld(),
+            playerData.getServer(),
+            locale
+        );
+        return template(format);
     }
 
     /**
@@ -101,28 +657,51 @@ public class ChatFormatter {
      * @return The formatted leaderboard string
      */
     public String formatLeaderboard(PlayerData playerData) {
+        return formatLeaderboard(playerData, null);
+    }
+
+    /**
+     * Formats a leaderboard entry for viewers with the given locale.
+     *
+     * @param playerData The player data
+     * @param locale     A locale key from {@link LockiConfig#matchLocale}, or null for the default formats
+     * @return The formatted leaderboard string
+     */
+    public String formatLeaderboard(PlayerData playerData, String locale) {
         // Resolve format based on context
         String format = formatResolver.resolveLeaderboardFormat(
             playerData.getPrimaryGroup(),
             playerData.getWorld(),
-            playerData.getServer()
+            playerData.getServer(),
+            locale
         );
+        return render(template(format), playerData, null, 0, true, false, locale);
+    }
 
-        // Replace built-in placeholders
-        String result = builtInPlaceholders.replace(format, playerData);
-
-        // Parse PlaceholderAPI placeholders
-        result = parsePapi(result, playerData);
-
-        // Parse colors
-        if (supportsHex) {
-            result = ColorParser.translateHex(result);
-        } else {
-            result = ColorParser.stripHex(result);
-            result = ColorParser.translateLegacy(result);
-        }
+    /**
+     * Checks whether the player's leaderboard format shows per-tick stats ({ping}, {health}, ...)
+     * and therefore needs periodic re-rendering.
+     */
+    public boolean isLeaderboardTickBound(PlayerData playerData) {
+        String format = formatResolver.resolveLeaderboardFormat(
+            playerData.getPrimaryGroup(),
+            playerData.getWorld(),
+            playerData.getServer()
+        );
+        return template(format).isTickBound();
+    }
 
-        return result;
+    /**
+     * Checks whether the player's leaderboard format shows {rank-tag}, so an animated tag
+     * (see {@link PlayerData#setRankTag}) can be rendered into it.
+     */
+    public boolean hasLeaderboardRankTag(PlayerData playerData) {
+        String format = formatResolver.resolveLeaderboardFormat(
+            playerData.getPrimaryGroup(),
+            playerData.getWorld(),
+            playerData.getServer()
+        );
+        return template(format).isRankTagged();
     }
 
     /**
@@ -142,21 +721,7 @@ public class ChatFormatter {
             return formatLeaderboard(playerData);
         }
 
-        // Replace built-in placeholders
-        String result = builtInPlaceholders.replace(format, playerData);
-
-        // Parse PlaceholderAPI placeholders
-        result = parsePapi(result, playerData);
-
-        // Parse colors
-        if (supportsHex) {
-            result = ColorParser.translateHex(result);
-        } else {
-            result = ColorParser.stripHex(result);
-            result = ColorParser.translateLegacy(result);
-        }
-
-        return result;
+        return render(template(format), playerData, null, position);
     }
 
     /**
@@ -168,18 +733,60 @@ public class ChatFormatter {
      * @return The formatted string
      */
     public String formatCustom(String format, PlayerData playerData) {
-        // Replace built-in placeholders
-        String result = builtInPlaceholders.replace(format, playerData);
+        // Built-in placeholders only — PAPI tokens are left as-is for the caller
+        return render(dynamicTemplate(format), playerData, null, 0, false, false);
+    }
 
-        // Parse colors
-        if (supportsHex) {
-            result = ColorParser.translateHex(result);
-        } else {
-            result = ColorParser.stripHex(result);
-            result = ColorParser.translateLegacy(result);
+    /**
+     * Appends template cache statistics to a stats report.
+     */
+    public void appendStats(StatsReport report) {
+        report.section("Format templates")
+            .line("Config templates", templates.size())
+            .line("Dynamic cache", dynamicTemplates.size() + "/" + dynamicTemplates.getCapacity())
+            .line("Dynamic hit rate", StatsReport.percent(dynamicTemplates.getHitRate())
+                + " (" + dynamicTemplates.getHits() + " hits, " + dynamicTemplates.getMisses() + " misses)")
+            .line("Dynamic evictions", dynamicTemplates.getEvictions())
+            .line("Cached chat heads", heads.size() + " (" + headHits.get() + " hits, " + headMisses.get() + " misses)");
+        if (placeholderRegistry != null) {
+            report.line("Placeholder providers", placeholderRegistry.getProviders().size());
+        }
+
+        report.section("Placeholder watchdog")
+            .line("Tracked placeholders", placeholderWatchdog.getTrackedCount())
+            .line("Trips", placeholderWatchdog.getTotalTrips());
+        String slowest = placeholderWatchdog.getSlowest();
+        if (slowest != null) {
+            report.line("Slowest (avg)", slowest);
         }
+        List<String> tripped = placeholderWatchdog.getTripped();
+        report.line("Tripped", tripped.isEmpty() ? "none" : String.join(", ", tripped));
+    }
 
-        return result;
+    /**
+     * Enables mention highlighting against the given online names.
+     */
+    public void setMentionMatcher(MentionMatcher mentionMatcher) {
+        this.mentionMatcher = mentionMatcher;
+    }
+
+    /**
+     * Supplies the snapshots {ping}, {health}, {level}, {gamemode} and {online} are read from.
+     * The sampler only samples players while this formatter's templates use those slots,
+     * every settings.stats-interval ticks.
+     */
+    public void setStatsSampler(PlayerStatsSampler statsSampler) {
+        builtInPlaceholders.setStatsSampler(statsSampler);
+        if (statsSampler != null) {
+            statsSampler.configure(config.getStatsInterval(), this::usesStats);
+        }
+    }
+
+    /**
+     * Whether any template compiled so far contains a sampled stat slot.
+     */
+    public boolean usesStats() {
+        return statsUsed;
     }
 
     public LockiConfig getConfig() {
@@ -193,4 +800,25 @@ public class ChatFormatter {
     public BuiltInPlaceholders getBuiltInPlaceholders() {
         return builtInPlaceholders;
     }
+
+    /** Registered placeholder providers, or null if this formatter was created without a registry. */
+    public PlaceholderRegistry getPlaceholderRegistry() {
+        return placeholderRegistry;
+    }
+
+    private static final class CachedHead {
+        final FormatTemplate template;
+        final boolean parsed;
+        final boolean marked;
+        final String[] values;
+        final String head;
+
+        CachedHead(FormatTemplate template, boolean parsed, boolean marked, String[] values, String head) {
+            this.template = template;
+            this.parsed = parsed;
+            this.marked = marked;
+            this.values = values;
+            this.head = head;
+        }
+    }
 }
@@ -0,0 +1,267 @@
+package de.locki.lockiprefixes.format;
+
+import de.locki.lockiprefixes.color.ColorParser;
+import de.locki.lockiprefixes.placeholder.BuiltInPlaceholders;
+import de.locki.lockiprefixes.placeholder.PlaceholderProvider;
+import de.locki.lockiprefixes.placeholder.PlaceholderRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles format strings into {@link FormatTemplate}s.
+ * Everything that does not depend on the player (text, color codes, separators)
+ * is resolved here once, so rendering only has to fill in the player-specific slots.
+ *
+ * Gradient tags ({gradient:#FF0000,#0000FF}...{/gradient}, {rainbow}...{/rainbow}) around
+ * constant text are expanded here as well; around slots they become a gradient segment.
+ */
+public class FormatCompiler {
+
+    // Same cleanup BuiltInPlaceholders applies when a player has no prefix: "{prefix} &7| " -> ""
+    private static final Pattern EMPTY_PREFIX_PATTERN =
+        Pattern.compile("\\{prefix\\}\\s*(?:(?:[&§][0-9A-FK-ORXa-fk-orx])+\\s*)?\\|\\s*");
+
+    private static final String GRADIENT_OPEN = "{gradient:";
+    private static final String GRADIENT_CLOSE = "{/gradient}";
+    private static final String RAINBOW_OPEN = "{rainbow}";
+    private static final String RAINBOW_CLOSE = "{/rainbow}";
+
+    private final boolean supportsHex;
+    private final PlaceholderRegistry placeholderRegistry;
+
+    public FormatCompiler(boolean supportsHex) {
+        this(supportsHex, null);
+    }
+
+    /**
+     * @param supportsHex         Whether hex colors are supported (1.16+)
+     * @param placeholderRegistry Registered providers to bind {key} slots to (may be null)
+     */
+    public FormatCompiler(boolean supportsHex, PlaceholderRegistry placeholderRegistry) {
+        this.supportsHex = supportsHex;
+        this.placeholderRegistry = placeholderRegistry;
+    }
+
+    /**
+     * Compiles a format string.
+     *
+     * @param format The raw format string (may be null)
+     * @return The compiled template
+     */
+    public FormatTemplate compile(String format) {
+        String source = format != null ? format : "";
+        FormatTemplate emptyPrefixVariant = null;
+        if (source.contains("{prefix}")) {
+            String cleaned = EMPTY_PREFIX_PATTERN.matcher(source).replaceAll("").replace("{prefix}", "");
+            emptyPrefixVariant = new FormatTemplate(cleaned, parse(cleaned), null);
+        }
+        return new FormatTemplate(source, parse(source), emptyPrefixVariant);
+    }
+
+    /**
+     * Replaces every slot in a format with a single marker character ({@code base + n} for the n-th slot)
+     * and collects the slot tokens ("{name}", "%vault_eco_balance%", ...) in order.
+     * Literal text is left untouched, so the result can be handed to another template syntax
+     * (MiniMessage) whose parser treats the markers as plain characters.
+     *
+     * @param format The raw format string
+     * @param base   First marker character
+     * @param tokens Receives the slot tokens
+     * @return The format with markers instead of slots
+     */
+    public String markSlots(String format, char base, List<String> tokens) {
+        StringBuilder marked = new StringBuilder(format.length());
+        for (FormatTemplate.Segment segment : parse(format, false)) {
+            if (segment.kind == FormatTemplate.Segment.Kind.LITERAL) {
+                marked.append(segment.value);
+            } else {
+                marked.append((char) (base + tokens.size()));
+                tokens.add(segment.kind == FormatTemplate.Segment.Kind.PAPI ? segment.value : "{" + segment.value + "}");
+            }
+        }
+        return marked.toString();
+    }
+
+    private List<FormatTemplate.Segment> parse(String source) {
+        return parse(source, true);
+    }
+
+    private List<FormatTemplate.Segment> parse(String source, boolean translate) {
+        List<FormatTemplate.Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int length = source.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = source.charAt(i);
+
+            if (c == '{' && translate && (source.startsWith(GRADIENT_OPEN, i) || source.startsWith(RAINBOW_OPEN, i))) {
+                int next = gradient(source, i, literal, segments);
+                if (next > i) {
+                    i = next;
+                    continue;
+                }
+            }
+            if (c == '{') {
+                int close = source.indexOf('}', i + 1);
+                if (close > i + 1) {
+                    FormatTemplate.Segment slot = slotFor(source.substring(i + 1, close));
+                    if (slot != null) {
+                        flushLiteral(literal, segments, translate);
+                        segments.add(slot);
+                        i = close + 1;
+                        continue;
+                    }
+                }
+            } else if (c == '%') {
+                int close = papiEnd(source, i);
+                if (close > 0) {
+                    flushLiteral(literal, segments, translate);
+                    segments.add(new FormatTemplate.Segment(FormatTemplate.Segment.Kind.PAPI, source.substring(i, close + 1)));
+                    i = close + 1;
+                    continue;
+                }
+            }
+
+            literal.append(c);
+            i++;
+        }
+        flushLiteral(literal, segments, translate);
+        return segments;
+    }
+
+    /**
+     * Compiles a gradient tag starting at {@code start}, up to its closing tag or the end of the format.
+     * Constant content is colored right away into a literal; content with slots becomes
+     * a {@link FormatTemplate.Segment.Kind#GRADIENT} segment.
+     *
+     * @return The index after the closing tag, or {@code start} if the tag is invalid (it then stays literal)
+     */
+    private int gradient(String source, int start, StringBuilder literal, List<FormatTemplate.Segment> segments) {
+        boolean rainbow = source.startsWith(RAINBOW_OPEN, start);
+        TextGradient gradient;
+        int contentStart;
+        if (rainbow) {
+            gradient = new TextGradient(null, supportsHex);
+            contentStart = start + RAINBOW_OPEN.length();
+        } else {
+            int close = source.indexOf('}', start);
+            gradient = close > 0 ? TextGradient.parse(source.substring(start + GRADIENT_OPEN.length(), close), supportsHex) : null;
+            contentStart = close + 1;
+        }
+        if (gradient == null) {
+            return start;
+        }
+        String closeTag = rainbow ? RAINBOW_CLOSE : GRADIENT_CLOSE;
+        int contentEnd = source.indexOf(closeTag, contentStart);
+        int next = contentEnd < 0 ? source.length() : contentEnd + closeTag.length();
+        String content = source.substring(contentStart, contentEnd < 0 ? source.length() : contentEnd);
+
+        List<FormatTemplate.Segment> children = parse(content, true);
+        boolean constant = true;
+        for (FormatTemplate.Segment child : children) {
+            constant &= child.kind == FormatTemplate.Segment.Kind.LITERAL;
+        }
+        flushLiteral(literal, segments, true);
+        if (constant) {
+            StringBuilder text = new StringBuilder(content.length());
+            for (FormatTemplate.Segment child : children) {
+                text.append(child.value);
+            }
+            if (text.length() > 0) {
+                segments.add(new FormatTemplate.Segment(FormatTemplate.Segment.Kind.LITERAL, gradient.apply(text.toString())));
+            }
+        } else {
+            segments.add(new FormatTemplate.Segment(source.substring(start, next), children, gradient));
+        }
+        return next;
+    }
+
+    /**
+     * Maps a {key} to a slot, or null if it is not a known placeholder (it then stays literal text).
+     */
+    private FormatTemplate.Segment slotFor(String key) {
+        int colon = key.indexOf(':');
+        if (colon > 0) {
+            return alignedSlotFor(key, colon);
+        }
+        if (key.equals("message")) {
+            return new FormatTemplate.Segment(FormatTemplate.Segment.Kind.MESSAGE, key);
+        }
+        if (key.equals("position")) {
+            return new FormatTemplate.Segment(FormatTemplate.Segment.Kind.POSITION, key);
+        }
+        if (key.equals("user")) {
+            key = "name";
+        }
+        if (BuiltInPlaceholders.isBuiltIn(key)) {
+            return new FormatTemplate.Segment(FormatTemplate.Segment.Kind.BUILT_IN, key);
+        }
+        PlaceholderProvider provider = placeholderRegistry != null ? placeholderRegistry.getProvider(key) : null;
+        if (provider != null) {
+            return new FormatTemplate.Segment(FormatTemplate.Segment.Kind.PROVIDER, key, provider);
+        }
+        return null;
+    }
+
+    /**
+     * Maps "pad:prefix:60" (or center/trunc, inner key may be a %papi% token) to an aligned slot,
+     * or null if the keyword, inner key or width is not valid.
+     */
+    private FormatTemplate.Segment alignedSlotFor(String key, int colon) {
+        TextAlignment.Mode mode = TextAlignment.Mode.byKeyword(key.substring(0, colon));
+        int last = key.lastIndexOf(':');
+        if (mode == null || last <= colon + 1) {
+            return null;
+        }
+        int pixels;
+        try {
+            pixels = Integer.parseInt(key.substring(last + 1).trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String innerKey = key.substring(colon + 1, last);
+        FormatTemplate.Segment inner;
+        if (innerKey.length() > 2 && innerKey.charAt(0) == '%' && papiEnd(innerKey, 0) == innerKey.length() - 1) {
+            inner = new FormatTemplate.Segment(FormatTemplate.Segment.Kind.PAPI, innerKey);
+        } else {
+            inner = innerKey.indexOf(':') < 0 ? slotFor(innerKey) : null;
+        }
+        if (inner == null || pixels <= 0) {
+            return null;
+        }
+        return new FormatTemplate.Segment(key, inner, new TextAlignment(mode, pixels));
+    }
+
+    /**
+     * Returns the index of the closing % of a PlaceholderAPI token starting at {@code start}, or -1.
+     * Tokens may not contain whitespace, so "50% off 20%" stays literal.
+     */
+    private static int papiEnd(String source, int start) {
+        for (int j = start + 1; j < source.length(); j++) {
+            char c = source.charAt(j);
+            if (c == '%') {
+                return j > start + 1 ? j : -1;
+            }
+            if (Character.isWhitespace(c)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private void flushLiteral(StringBuilder literal, List<FormatTemplate.Segment> segments, boolean translate) {
+        if (literal.length() == 0) {
+            return;
+        }
+        String text = translate ? ColorParser.translate(literal.toString(), supportsHex) : literal.toString();
+        segments.add(new FormatTemplate.Segment(FormatTemplate.Segment.Kind.LITERAL, text));
+        literal.setLength(0);
+    }
+
+    public boolean isSupportsHex() {
+        return supportsHex;
+    }
+}
@@ -5,6 +5,9 @@ import de.locki.lockiprefixes.config.LockiConfig;
 /**
  * Resolves the correct format string based on context (group, world, server).
  * Priority: group+context > group > context > default
+ *
+ * Locale-aware overloads take a locale key from {@link LockiConfig#matchLocale}; the group's
+ * variant for that locale wins over its own format, everything else resolves as usual.
  */
 public class FormatResolver {
 
@@ -23,9 +26,22 @@ public class FormatResolver {
      * @return The resolved chat format string
      */
     public String resolveChatFormat(String primaryGroup, String world, String server) {
-        // Priority 1: Group-specific format
+        return resolveChatFormat(primaryGroup, world, server, null);
+    }
+
+    /**
+     * Resolves the chat format for a viewer locale.
+     *
+     * @param locale A locale key, or null for the default formats
+     */
+    public String resolveChatFormat(String primaryGroup, String world, String server, String locale) {
+        // Priority 1: Group-specific format (locale variant first)
         if (primaryGroup != null) {
             LockiConfig.GroupFormat groupFormat = config.getGroupFormat(primaryGroup);
+            LockiConfig.GroupFormat variant = groupFormat != null && locale != null ? groupFormat.getLocale(locale) : null;
+            if (variant != null && variant.getChatFormat() != null) {
+                return variant.getChatFormat();
+            }
             if (groupFormat != null && groupFormat.getChatFormat() != null) {
                 return groupFormat.getChatFormat();
             }
@@ -51,6 +67,48 @@ public class FormatResolver {
         return config.getDefaultChatFormat();
     }
 
+    /**
+     * Resolves the format for a chat channel.
+     * Priority: group channel format > channel format > regular chat format
+     *
+     * @param channelId    The channel id
+     * @param primaryGroup The player's primary LuckPerms group
+     * @param world        The player's current world name
+     * @param server       The server context (from LuckPerms, may be null)
+     * @return The resolved channel format string
+     */
+    public String resolveChannelFormat(String channelId, String primaryGroup, String world, String server) {
+        return resolveChannelFormat(channelId, primaryGroup, world, server, null);
+    }
+
+    /**
+     * Resolves the format for a chat channel and viewer locale.
+     * Channel formats have no locale variants; only the fallback to the chat format is localized.
+     *
+     * @param locale A locale key, or null for the default formats
+     */
+    public String resolveChannelFormat(String channelId, String primaryGroup, String world, String server, String locale) {
+        // Priority 1: Group-specific channel format
+        if (primaryGroup != null) {
+            LockiConfig.GroupFormat groupFormat = config.getGroupFormat(primaryGroup);
+            if (groupFormat != null) {
+                String format = groupFormat.getChannelFormats().get(channelId);
+                if (format != null) {
+                    return format;
+                }
+            }
+        }
+
+        // Priority 2: Channel format
+        LockiConfig.ChannelSettings channel = config.getChannel(channelId);
+        if (channel != null && channel.getFormat() != null && !channel.getFormat().isEmpty()) {
+            return channel.getFormat();
+        }
+
+        // Priority 3: Regular chat format
+        return resolveChatFormat(primaryGroup, world, server, locale);
+    }
+
     /**
      * Resolves the leaderboard format for a player based on their primary group, world, and server.
      *
@@ -60,9 +118,22 @@ public class FormatResolver {
      * @return The resolved leaderboard format string
      */
     public String resolveLeaderboardFormat(String primaryGroup, String world, String server) {
-        // Priority 1: Group-specific format
+        return resolveLeaderboardFormat(primaryGroup, world, server, null);
+    }
+
+    /**
+     * Resolves the leaderboard (tablist) format for a viewer locale.
+     *
+     * @param locale A locale key, or null for the default formats
+     */
+    public String resolveLeaderboardFormat(String primaryGroup, String world, String server, String locale) {
+        // Priority 1: Group-specific format (locale variant first)
         if (primaryGroup != null) {
             LockiConfig.GroupFormat groupFormat = config.getGroupFormat(primaryGroup);
+            LockiConfig.GroupFormat variant = groupFormat != null && locale != null ? groupFormat.getLocale(locale) : null;
+            if (variant != null && variant.getLeaderboardFormat() != null) {
+                return variant.getLeaderboardFormat();
+            }
             if (groupFormat != null && groupFormat.getLeaderboardFormat() != null) {
                 return groupFormat.getLeaderboardFormat();
             }
@@ -0,0 +1,202 @@
+package de.locki.lockiprefixes.format;
+
+import de.locki.lockiprefixes.placeholder.BuiltInPlaceholders;
+import de.locki.lockiprefixes.placeholder.PlaceholderProvider;
+
+import java.util.List;
+
+/**
+ * A format string compiled into segments.
+ * Literal runs are color-translated once at compile time and shared by reference
+ * across every player rendering this format; only the slots are resolved per player.
+ */
+public final class FormatTemplate {
+
+    private final String source;
+    private final Segment[] segments;
+    private final int literalLength;
+    private final boolean tickBound;
+    private final boolean statBound;
+    private final boolean rankTagged;
+    private final boolean relational;
+    private final int messageIndex;
+    private final boolean headCacheable;
+    private final FormatTemplate emptyPrefixVariant;
+
+    FormatTemplate(String source, List<Segment> segments, FormatTemplate emptyPrefixVariant) {
+        this.source = source;
+        this.segments = segments.toArray(new Segment[0]);
+        this.emptyPrefixVariant = emptyPrefixVariant;
+
+        int message = -1;
+        boolean stableHead = true;
+        for (int i = 0; i < this.segments.length && message < 0; i++) {
+            Segment segment = this.segments[i];
+            if (segment.kind == Segment.Kind.MESSAGE) {
+                message = i;
+            } else if (segment.kind != Segment.Kind.LITERAL
+                    && (segment.kind != Segment.Kind.BUILT_IN || BuiltInPlaceholders.isTickBound(segment.value))) {
+                stableHead = false;
+            }
+        }
+        int[] flags = new int[5];
+        scan(this.segments, flags);
+        this.literalLength = flags[0];
+        this.tickBound = flags[1] != 0;
+        this.relational = flags[2] != 0;
+        this.statBound = flags[3] != 0;
+        this.rankTagged = flags[4] != 0;
+        this.messageIndex = message;
+        this.headCacheable = message > 0 && stableHead;
+    }
+
+    /**
+     * Adds up literal length, per-tick and per-viewer slots; aligned and gradient segments
+     * depend on whatever their inner slots depend on.
+     */
+    private static void scan(Segment[] segments, int[] flags) {
+        for (Segment segment : segments) {
+            if (segment.kind == Segment.Kind.ALIGNED) {
+                segment = segment.inner;
+            }
+            if (segment.kind == Segment.Kind.GRADIENT) {
+                scan(segment.children, flags);
+            } else if (segment.kind == Segment.Kind.LITERAL) {
+                flags[0] += segment.value.length();
+            } else if (segment.kind == Segment.Kind.BUILT_IN && BuiltInPlaceholders.isTickBound(segment.value)) {
+                flags[1] = 1;
+                flags[3] = 1;
+            } else if (segment.kind == Segment.Kind.BUILT_IN && "rank-tag".equals(segment.value)) {
+                flags[4] = 1;
+            } else if (segment.kind == Segment.Kind.PROVIDER
+                    && segment.provider.getDependency() == PlaceholderProvider.Dependency.PER_TICK) {
+                flags[1] = 1;
+            } else if (segment.kind == Segment.Kind.PAPI && segment.value.startsWith("%rel_")) {
+                flags[2] = 1;
+            }
+        }
+    }
+
+    /** The raw format string this template was compiled from. */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Whether the template contains per-tick built-ins ({ping}, {health}, ...) or per-tick providers,
+     * i.e. its output can change without any rank or config change.
+     */
+    public boolean isTickBound() {
+        return tickBound;
+    }
+
+    /**
+     * Whether the template contains sampled stat built-ins ({ping}, {health}, {level}, {gamemode}, {online}).
+     */
+    public boolean isStatBound() {
+        return statBound;
+    }
+
+    /** Whether the template shows {rank-tag}, possibly inside an aligned or gradient slot. */
+    public boolean isRankTagged() {
+        return rankTagged;
+    }
+
+    /**
+     * Whether the template contains relational PlaceholderAPI placeholders (%rel_...%),
+     * which can only be resolved per viewer.
+     */
+    public boolean isRelational() {
+        return relational;
+    }
+
+    /** Index of the first {message} segment, or -1 if the format has none. */
+    int getMessageIndex() {
+        return messageIndex;
+    }
+
+    /**
+     * Whether everything before {message} depends only on rank data (literals and non-tick built-ins),
+     * so the rendered head can be reused while those values stay the same.
+     */
+    boolean isHeadCacheable() {
+        return headCacheable;
+    }
+
+    Segment[] getSegments() {
+        return segments;
+    }
+
+    /** Total length of the literal segments, used to presize render buffers. */
+    int getLiteralLength() {
+        return literalLength;
+    }
+
+    /**
+     * Variant used when the player has no prefix — "{prefix} &7| " is dropped entirely
+     * instead of leaving a dangling separator. Null if the format has no {prefix}.
+     */
+    FormatTemplate getEmptyPrefixVariant() {
+        return emptyPrefixVariant;
+    }
+
+    /**
+     * A single piece of a compiled format.
+     */
+    static final class Segment {
+
+        enum Kind {
+            /** Pre-colored constant text. */
+            LITERAL,
+            /** A {@link de.locki.lockiprefixes.placeholder.BuiltInPlaceholders} key, resolved per player. */
+            BUILT_IN,
+            /** The chat message. */
+            MESSAGE,
+            /** The leaderboard position. */
+            POSITION,
+            /** A PlaceholderAPI placeholder including its % delimiters. */
+            PAPI,
+            /** A {key} bound to a registered {@link PlaceholderProvider}. */
+            PROVIDER,
+            /** {pad:key:px}, {center:key:px} or {trunc:key:px}: the inner slot, aligned to a pixel width. */
+            ALIGNED,
+            /** {gradient:...}...{/gradient} or {rainbow}...{/rainbow} around slots: the children, colored. */
+            GRADIENT
+        }
+
+        final Kind kind;
+        final String value;
+        final PlaceholderProvider provider;
+        final Segment inner;
+        final TextAlignment alignment;
+        final Segment[] children;
+        final TextGradient gradient;
+
+        Segment(Kind kind, String value) {
+            this(kind, value, null);
+        }
+
+        Segment(Kind kind, String value, PlaceholderProvider provider) {
+            this(kind, value, provider, null, null, null, null);
+        }
+
+        Segment(String value, Segment inner, TextAlignment alignment) {
+            this(Kind.ALIGNED, value, null, inner, alignment, null, null);
+        }
+
+        Segment(String value, List<Segment> children, TextGradient gradient) {
+            this(Kind.GRADIENT, value, null, null, null, children.toArray(new Segment[0]), gradient);
+        }
+
+        private Segment(Kind kind, String value, PlaceholderProvider provider, Segment inner, TextAlignment alignment,
+                        Segment[] children, TextGradient gradient) {
+            this.kind = kind;
+            this.value = value;
+            this.provider = provider;
+            this.inner = inner;
+            this.alignment = alignment;
+            this.children = children;
+            this.gradient = gradient;
+        }
+    }
+}
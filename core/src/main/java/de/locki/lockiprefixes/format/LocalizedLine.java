@@ -0,0 +1,90 @@
+package de.locki.lockiprefixes.format;
+
+import de.locki.lockiprefixes.color.ClientCapability;
+import de.locki.lockiprefixes.color.DualRendered;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A chat line with its per-locale variants ("groups.&lt;group&gt;.locales").
+ *
+ * Viewer locales are first mapped to a configured locale key, so every viewer without a variant
+ * shares the default line. A variant is rendered the first time a viewer with that key needs it,
+ * and each rendering is a {@link DualRendered}, so one message holds at most one string per
+ * (client capability, locale in use) however many players receive it.
+ *
+ * @param <T> The line type (legacy string or Component)
+ */
+public final class LocalizedLine<T> {
+
+    private final DualRendered<T> line;
+    private final Function<String, String> matcher;
+    private final Function<String, DualRendered<T>> renderer;
+    private final Map<String, DualRendered<T>> variants;
+
+    /**
+     * @param line     The line for the default formats
+     * @param matcher  Maps a client locale to a locale key, or null for the default
+     * @param renderer Renders the line for a locale key; may return null when the sender has no variant
+     */
+    public LocalizedLine(DualRendered<T> line, Function<String, String> matcher,
+                         Function<String, DualRendered<T>> renderer) {
+        this.line = line;
+        this.matcher = matcher;
+        this.renderer = renderer;
+        this.variants = new ConcurrentHashMap<>(4);
+    }
+
+    /**
+     * A line without locale variants.
+     */
+    public static <T> LocalizedLine<T> of(DualRendered<T> line) {
+        return new LocalizedLine<>(line, null, null);
+    }
+
+    /**
+     * Whether viewers can get anything but the default line in their client's colors.
+     */
+    public boolean isLocalized() {
+        return renderer != null;
+    }
+
+    /**
+     * The line for a viewer.
+     *
+     * @param clientLocale The viewer's client locale, or null
+     * @param capability   What the viewer's client can display
+     */
+    public T get(String clientLocale, ClientCapability capability) {
+        String locale = renderer != null && clientLocale != null ? matcher.apply(clientLocale) : null;
+        if (locale == null) {
+            return line.get(capability);
+        }
+        return variants.computeIfAbsent(locale, key -> {
+            DualRendered<T> variant = renderer.apply(key);
+            return variant != null ? variant : line;
+        }).get(capability);
+    }
+
+    /**
+     * The default line with hex colors (console, chat history).
+     */
+    public T getDefault() {
+        return line.getHex();
+    }
+
+    /**
+     * Number of locale variants rendered so far, not counting the default line.
+     */
+    public int getVariantCount() {
+        int count = 0;
+        for (DualRendered<T> variant : variants.values()) {
+            if (variant != line) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,59 @@
+package de.locki.lockiprefixes.format;
+
+import de.locki.lockiprefixes.cache.LruCache;
+
+/**
+ * The alignment of an aligned slot ({pad:key:px}, {center:key:px}, {trunc:key:px}).
+ *
+ * Created once per compiled slot. Aligned results are cached by the translated value, so a
+ * value seen before (the same prefix on many players) is not measured again.
+ */
+final class TextAlignment {
+
+    private static final int CACHE_SIZE = 256;
+
+    enum Mode {
+        PAD, CENTER, TRUNCATE;
+
+        /** The mode for a slot keyword, or null. */
+        static Mode byKeyword(String keyword) {
+            switch (keyword) {
+                case "pad":
+                    return PAD;
+                case "center":
+                    return CENTER;
+                case "trunc":
+                    return TRUNCATE;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    final Mode mode;
+    final int pixels;
+    private final LruCache<String, String> results = new LruCache<>(CACHE_SIZE);
+
+    TextAlignment(Mode mode, int pixels) {
+        this.mode = mode;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Aligns a translated slot value.
+     */
+    String apply(String value) {
+        return results.get(value, this::align);
+    }
+
+    private String align(String value) {
+        switch (mode) {
+            case PAD:
+                return TextWidth.pad(value, pixels);
+            case CENTER:
+                return TextWidth.center(value, pixels);
+            default:
+                return TextWidth.truncate(value, pixels);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package de.locki.lockiprefixes.format;
+
+import de.locki.lockiprefixes.color.ColorParser;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A color gradient ({gradient:#FF0000,#0000FF}...{/gradient}) or rainbow ({rainbow}...{/rainbow})
+ * applied to §-formatted text.
+ *
+ * Colors are never interpolated while rendering: for each text length the ramp of ready-made
+ * color codes ("§x§f§f§0§0§0§0", or the nearest legacy "§c" without hex support) is computed once
+ * and reused by every line of that length. Format codes (§l, §o, ...) in the text are kept and
+ * re-applied after each color; existing colors inside the gradient are replaced.
+ */
+public final class TextGradient {
+
+    /** Longest text whose ramp is cached; longer text gets a one-off ramp. */
+    static final int MAX_CACHED_LENGTH = 256;
+
+    private final int[] stops;
+    private final boolean supportsHex;
+    private final AtomicReferenceArray<String[]> ramps = new AtomicReferenceArray<>(MAX_CACHED_LENGTH + 1);
+
+    /**
+     * @param stops       RGB colors to interpolate between, or null for a rainbow
+     * @param supportsHex Whether to emit hex colors (1.16+) or the nearest legacy colors
+     */
+    public TextGradient(int[] stops, boolean supportsHex) {
+        this.stops = stops;
+        this.supportsHex = supportsHex;
+    }
+
+    /**
+     * Parses comma-separated stops ("#FF0000,#0000FF", '#' optional).
+     *
+     * @return The gradient, or null if there are fewer than two valid colors
+     */
+    public static TextGradient parse(String spec, boolean supportsHex) {
+        String[] parts = spec.split(",");
+        if (parts.length < 2) {
+            return null;
+        }
+        int[] stops = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            stops[i] = parseColor(parts[i]);
+            if (stops[i] < 0) {
+                return null;
+            }
+        }
+        return new TextGradient(stops, supportsHex);
+    }
+
+    /**
+     * Parses "#RRGGBB" or "RRGGBB".
+     *
+     * @return The RGB value, or -1 if invalid
+     */
+    public static int parseColor(String color) {
+        String hex = color.trim();
+        if (hex.startsWith("#")) {
+            hex = hex.substring(1);
+        }
+        if (hex.length() != 6) {
+            return -1;
+        }
+        int rgb = 0;
+        for (int i = 0; i < 6; i++) {
+            int digit = Character.digit(hex.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            rgb = (rgb << 4) | digit;
+        }
+        return rgb;
+    }
+
+    /**
+     * Colors every visible character of §-formatted text along the gradient.
+     * {@link ChatFormatter#NAME_START}/{@link ChatFormatter#NAME_END} markers take no color.
+     */
+    public String apply(String text) {
+        int visible = visibleLength(text);
+        if (visible == 0) {
+            return text;
+        }
+        String[] ramp = ramp(visible);
+        StringBuilder out = new StringBuilder(text.length() + visible * (supportsHex ? 14 : 2) + 8);
+        StringBuilder formats = new StringBuilder(4);
+        String last = null;
+        int index = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '§' && i + 1 < length) {
+                char code = Character.toLowerCase(text.charAt(++i));
+                if (code >= 'k' && code <= 'o') {
+                    formats.append('§').append(code);
+                    if (last != null) {
+                        out.append('§').append(code);
+                    }
+                } else if (code == 'x') {
+                    // §x§r§r§g§g§b§b: replaced by the gradient
+                    i = Math.min(length - 1, i + 12);
+                } else {
+                    // Colors and §r reset the formats; the gradient supplies the color
+                    formats.setLength(0);
+                    last = null;
+                }
+                continue;
+            }
+            if (c == ChatFormatter.NAME_START || c == ChatFormatter.NAME_END) {
+                out.append(c);
+                continue;
+            }
+            String color = ramp[index++];
+            if (color != last) {
+                out.append(color).append(formats);
+                last = color;
+            }
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    /**
+     * The color codes for a text of the given visible length, one per character. Neighbouring
+     * characters with the same color share one String instance.
+     */
+    String[] ramp(int length) {
+        if (length > MAX_CACHED_LENGTH) {
+            return buildRamp(length);
+        }
+        String[] ramp = ramps.get(length);
+        if (ramp == null) {
+            ramp = buildRamp(length);
+            ramps.set(length, ramp);
+        }
+        return ramp;
+    }
+
+    private String[] buildRamp(int length) {
+        String[] ramp = new String[length];
+        for (int i = 0; i < length; i++) {
+            String code = colorCode(colorAt(i, length), supportsHex);
+            ramp[i] = i > 0 && code.equals(ramp[i - 1]) ? ramp[i - 1] : code;
+        }
+        return ramp;
+    }
+
+    private int colorAt(int index, int length) {
+        if (stops == null) {
+            return hueToRgb((float) index / length);
+        }
+        return colorAt(stops, length > 1 ? (float) index / (length - 1) : 0);
+    }
+
+    /**
+     * The color at a position in [0, 1] of a gradient through the given stops.
+     */
+    public static int colorAt(int[] stops, float position) {
+        float scaled = position * (stops.length - 1);
+        int stop = Math.max(0, Math.min((int) scaled, stops.length - 2));
+        return lerp(stops[stop], stops[stop + 1], scaled - stop);
+    }
+
+    /**
+     * The color code for an RGB color: "§x§r§r§g§g§b§b", or the nearest legacy "§c" without hex support.
+     */
+    public static String colorCode(int rgb, boolean supportsHex) {
+        return ColorParser.colorCode(rgb, supportsHex);
+    }
+
+    private static int visibleLength(String text) {
+        int visible = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '§' && i + 1 < length) {
+                i += Character.toLowerCase(text.charAt(i + 1)) == 'x' ? 13 : 1;
+            } else if (c != ChatFormatter.NAME_START && c != ChatFormatter.NAME_END) {
+                visible++;
+            }
+        }
+        return visible;
+    }
+
+    private static int lerp(int from, int to, float t) {
+        int red = Math.round(((from >> 16) & 0xFF) + (((to >> 16) & 0xFF) - ((from >> 16) & 0xFF)) * t);
+        int green = Math.round(((from >> 8) & 0xFF) + (((to >> 8) & 0xFF) - ((from >> 8) & 0xFF)) * t);
+        int blue = Math.round((from & 0xFF) + ((to & 0xFF) - (from & 0xFF)) * t);
+        return (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * Fully saturated color for a hue in [0, 1).
+     */
+    private static int hueToRgb(float hue) {
+        float h = hue * 6;
+        int sector = (int) h % 6;
+        int rising = Math.round((h - (int) h) * 255);
+        int falling = 255 - rising;
+        switch (sector) {
+            case 0:
+                return (255 << 16) | (rising << 8);
+            case 1:
+                return (falling << 16) | (255 << 8);
+            case 2:
+                return (255 << 8) | rising;
+            case 3:
+                return (falling << 8) | 255;
+            case 4:
+                return (rising << 16) | 255;
+            default:
+                return (255 << 16) | falling;
+        }
+    }
+}
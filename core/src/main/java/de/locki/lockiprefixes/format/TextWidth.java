@@ -0,0 +1,194 @@
+package de.locki.lockiprefixes.format;
+
+import de.locki.lockiprefixes.color.ColorParser;
+
+/**
+ * Pixel widths of text in Minecraft's default font, for aligning tab list columns.
+ *
+ * Advances (glyph width plus the 1px gap) are precomputed for Latin-1 in a normal and a bold
+ * table; other characters count as a full-width glyph. Measuring follows §-codes, so bold
+ * runs are measured with the bold table and color codes take no space.
+ *
+ * Padding uses 4px spaces and 5px bold spaces, which together can fill any gap from 12px up
+ * exactly (smaller odd gaps are rounded down).
+ */
+public final class TextWidth {
+
+    private static final int TABLE_SIZE = 256;
+    private static final int DEFAULT_ADVANCE = 6;
+    private static final int SPACE = 4;
+    private static final int BOLD_SPACE = 5;
+    private static final String ELLIPSIS = "...";
+
+    private static final byte[] ADVANCE = new byte[TABLE_SIZE];
+    private static final byte[] BOLD_ADVANCE = new byte[TABLE_SIZE];
+
+    static {
+        for (int c = 0; c < TABLE_SIZE; c++) {
+            ADVANCE[c] = (byte) DEFAULT_ADVANCE;
+        }
+        // Glyph widths of the default font; the advance is one more
+        glyphs(1, "!',.:;i|");
+        glyphs(2, "`l");
+        glyphs(3, "\"()*I[]t");
+        glyphs(4, "<>fk{}");
+        glyphs(6, "@~");
+        ADVANCE[' '] = SPACE;
+        for (int c = 0; c < TABLE_SIZE; c++) {
+            BOLD_ADVANCE[c] = (byte) (ADVANCE[c] + 1);
+        }
+    }
+
+    private TextWidth() {
+    }
+
+    private static void glyphs(int width, String chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            ADVANCE[chars.charAt(i)] = (byte) (width + 1);
+        }
+    }
+
+    /**
+     * Advance of a single character in pixels.
+     */
+    public static int advance(char c, boolean bold) {
+        if (c < TABLE_SIZE) {
+            return bold ? BOLD_ADVANCE[c] : ADVANCE[c];
+        }
+        return bold ? DEFAULT_ADVANCE + 1 : DEFAULT_ADVANCE;
+    }
+
+    /**
+     * Width of §-formatted text in pixels. Color and format codes take no space.
+     */
+    public static int width(String text) {
+        int width = 0;
+        boolean bold = false;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '§' && i + 1 < length) {
+                bold = nextBold(text.charAt(++i), bold);
+                continue;
+            }
+            width += advance(c, bold);
+        }
+        return width;
+    }
+
+    /**
+     * Pads text on the right to the given width. Text already at least that wide is returned as-is.
+     */
+    public static String pad(String text, int pixels) {
+        int gap = pixels - width(text);
+        if (gap <= 0) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length() + gap / SPACE + 8).append(text);
+        appendFill(result, gap, ColorParser.trailingStyle(text));
+        return result.toString();
+    }
+
+    /**
+     * Centers text within the given width. The left side uses plain spaces (so the style the
+     * text inherits is untouched) and the right side absorbs the rounding.
+     */
+    public static String center(String text, int pixels) {
+        int gap = pixels - width(text);
+        if (gap <= 0) {
+            return text;
+        }
+        int left = (gap / 2) / SPACE;
+        StringBuilder result = new StringBuilder(text.length() + gap / SPACE + 8);
+        for (int i = 0; i < left; i++) {
+            result.append(' ');
+        }
+        result.append(text);
+        appendFill(result, gap - left * SPACE, ColorParser.trailingStyle(text));
+        return result.toString();
+    }
+
+    /**
+     * Cuts text to at most the given width, ending in "..." when something was removed.
+     * Color codes are kept intact.
+     */
+    public static String truncate(String text, int pixels) {
+        if (width(text) <= pixels) {
+            return text;
+        }
+        int budget = pixels;
+        boolean bold = false;
+        int length = text.length();
+        int end = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '§' && i + 1 < length) {
+                bold = nextBold(text.charAt(i + 1), bold);
+                i++;
+                end = i + 1;
+                continue;
+            }
+            int ellipsis = 3 * advance('.', bold);
+            int advance = advance(c, bold);
+            if (advance + ellipsis > budget) {
+                return budget >= ellipsis ? text.substring(0, end) + ELLIPSIS : text.substring(0, end);
+            }
+            budget -= advance;
+            end = i + 1;
+        }
+        return text.substring(0, end);
+    }
+
+    /**
+     * Appends spaces filling {@code gap} pixels after text ending in {@code style}.
+     * Spaces inherit the style, so a bold style fills with 5px spaces first.
+     */
+    static void appendFill(StringBuilder out, int gap, String style) {
+        boolean bold = style.indexOf("§l") >= 0 || style.indexOf("§L") >= 0;
+        // Number of 5px spaces that makes the rest a multiple of 4 (at most 3 needed)
+        int wide = 0;
+        while (wide < 4 && (gap - wide * BOLD_SPACE) % SPACE != 0) {
+            wide++;
+        }
+        if (wide == 4 || gap < wide * BOLD_SPACE) {
+            // 1, 2, 3, 6, 7 and 11px cannot be filled exactly; round down
+            wide = 0;
+        }
+        int narrow = (gap - wide * BOLD_SPACE) / SPACE;
+        if (bold) {
+            repeat(out, ' ', wide);
+            if (narrow > 0) {
+                out.append("§r");
+                repeat(out, ' ', narrow);
+                out.append(style);
+            }
+        } else {
+            repeat(out, ' ', narrow);
+            if (wide > 0) {
+                out.append("§l");
+                repeat(out, ' ', wide);
+                out.append("§r").append(style);
+            }
+        }
+    }
+
+    private static void repeat(StringBuilder out, char c, int count) {
+        for (int i = 0; i < count; i++) {
+            out.append(c);
+        }
+    }
+
+    /**
+     * Bold state after a § code: colors and §r reset it, §l sets it, other formats keep it.
+     */
+    private static boolean nextBold(char code, boolean bold) {
+        char lower = Character.toLowerCase(code);
+        if (lower == 'l') {
+            return true;
+        }
+        if ((lower >= '0' && lower <= '9') || (lower >= 'a' && lower <= 'f') || lower == 'r' || lower == 'x') {
+            return false;
+        }
+        return bold;
+    }
+}
@@ -0,0 +1,211 @@
+package de.locki.lockiprefixes.leaderboard;
+
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.lp.LuckPermsFacade;
+import de.locki.lockiprefixes.placeholder.PlayerData;
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Keeps online players ranked by the configured {@link RankingKey}.
+ * The ranking is maintained incrementally — join, quit and rank changes
+ * re-position a single entry in O(log n) instead of re-sorting the online list.
+ *
+ * All access is synchronized: updates arrive on the main thread, placeholder reads
+ * may come from async chat threads. LuckPerms recalculations only capture the UUID
+ * and re-rank the player on the server thread (see {@link #updateLater}).
+ */
+public class LeaderboardService implements Listener {
+
+    /** Highest score first, ties broken by name then UUID so the order is total. */
+    private static final Comparator<Entry> ENTRY_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            int cmp = Double.compare(b.score, a.score);
+            if (cmp != 0) return cmp;
+            cmp = a.name.compareToIgnoreCase(b.name);
+            if (cmp != 0) return cmp;
+            return a.uuid.compareTo(b.uuid);
+        }
+    };
+
+    private final Plugin plugin;
+    private final LockiConfig config;
+    private final Function<Player, PlayerData> playerDataProvider;
+
+    private final RankedSkipList<Entry> ranking = new RankedSkipList<>(ENTRY_ORDER);
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    // Guarded by this, together with the ranking it was computed with
+    private RankingKey rankingKey;
+
+    public LeaderboardService(Plugin plugin, LockiConfig config, Function<Player, PlayerData> playerDataProvider) {
+        this.plugin = plugin;
+        this.config = config;
+        this.playerDataProvider = playerDataProvider;
+        this.rankingKey = RankingKey.parse(config.getLeaderboardRankingKey());
+    }
+
+    /**
+     * Registers listeners and ranks everyone who is already online (e.g. after /reload).
+     */
+    public void start(LuckPermsFacade luckPermsFacade) {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        registerLuckPermsListener(luckPermsFacade);
+        refreshAll();
+    }
+
+    /**
+     * Re-reads the ranking key from config and re-ranks all online players.
+     */
+    public void reload() {
+        RankingKey key = RankingKey.parse(config.getLeaderboardRankingKey());
+        synchronized (this) {
+            rankingKey = key;
+            ranking.clear();
+            entries.clear();
+        }
+        refreshAll();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        update(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        remove(event.getPlayer().getUniqueId());
+    }
+
+    private void registerLuckPermsListener(LuckPermsFacade luckPermsFacade) {
+        try {
+            LuckPerms luckPerms = luckPermsFacade != null ? luckPermsFacade.getLuckPerms() : null;
+            if (luckPerms == null) {
+                return;
+            }
+            luckPerms.getEventBus().subscribe(plugin, UserDataRecalculateEvent.class, event -> {
+                // Placeholder-based keys are re-sampled by refreshAll() on the server thread instead.
+                if (needsPolling()) {
+                    return;
+                }
+                updateLater(event.getUser().getUniqueId());
+            });
+        } catch (Exception e) {
+            plugin.getLogger().warning("Could not register LuckPerms leaderboard listener: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-ranks a player from a thread that may not read them: on the main thread here,
+     * Folia modules override this to use the player's own scheduler.
+     */
+    protected void updateLater(final UUID uuid) {
+        Bukkit.getScheduler().runTask(plugin, new Runnable() {
+            @Override
+            public void run() {
+                Player player = Bukkit.getPlayer(uuid);
+                if (player != null && player.isOnline()) {
+                    update(player);
+                }
+            }
+        });
+    }
+
+    /**
+     * Re-samples every online player. Only entries whose score changed are moved.
+     */
+    public void refreshAll() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            update(player);
+        }
+    }
+
+    /**
+     * Inserts or re-positions a player.
+     */
+    public void update(Player player) {
+        PlayerData playerData = playerDataProvider.apply(player);
+        if (playerData == null) {
+            return;
+        }
+        RankingKey key;
+        synchronized (this) {
+            key = rankingKey;
+        }
+        double score = key.score(player, playerData, config);
+        Entry entry = new Entry(player.getUniqueId(), player.getName(), score);
+
+        synchronized (this) {
+            if (key != rankingKey) {
+                // Reloaded meanwhile; reload() re-ranks everyone with the new key
+                return;
+            }
+            Entry old = entries.get(entry.uuid);
+            if (old != null) {
+                if (old.score == entry.score && old.name.equals(entry.name)) {
+                    return;
+                }
+                ranking.remove(old);
+            }
+            ranking.insert(entry);
+            entries.put(entry.uuid, entry);
+        }
+    }
+
+    public synchronized void remove(UUID uuid) {
+        Entry old = entries.remove(uuid);
+        if (old != null) {
+            ranking.remove(old);
+        }
+    }
+
+    /**
+     * @return the 1-based position of a player, or 0 if the player is not ranked
+     */
+    public synchronized int getPosition(UUID uuid) {
+        Entry entry = entries.get(uuid);
+        return entry != null ? ranking.rankOf(entry) : 0;
+    }
+
+    /**
+     * @return the UUID at a 1-based position, or null if nobody holds it
+     */
+    public synchronized UUID getAt(int position) {
+        Entry entry = ranking.get(position);
+        return entry != null ? entry.uuid : null;
+    }
+
+    public synchronized int size() {
+        return ranking.size();
+    }
+
+    public synchronized boolean needsPolling() {
+        return rankingKey.needsPolling();
+    }
+
+    private static final class Entry {
+        final UUID uuid;
+        final String name;
+        final double score;
+
+        Entry(UUID uuid, String name, double score) {
+            this.uuid = uuid;
+            this.name = name != null ? name : "";
+            this.score = score;
+        }
+    }
+}
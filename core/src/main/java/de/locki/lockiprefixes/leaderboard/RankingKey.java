@@ -0,0 +1,115 @@
+package de.locki.lockiprefixes.leaderboard;
+
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.placeholder.PlayerData;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * The value players are ranked by on the leaderboard.
+ * Config syntax: "group-priority", "meta:&lt;key&gt;" or "papi:&lt;placeholder&gt;".
+ */
+public final class RankingKey {
+
+    public enum Type {
+        GROUP_PRIORITY, META, PLACEHOLDER
+    }
+
+    private final Type type;
+    private final String argument;
+
+    private RankingKey(Type type, String argument) {
+        this.type = type;
+        this.argument = argument;
+    }
+
+    /**
+     * Parses a ranking key from config. Unknown or empty values fall back to group priority.
+     */
+    public static RankingKey parse(String raw) {
+        if (raw != null) {
+            String value = raw.trim();
+            int colon = value.indexOf(':');
+            if (colon > 0 && colon < value.length() - 1) {
+                String kind = value.substring(0, colon).toLowerCase();
+                String arg = value.substring(colon + 1).trim();
+                if (kind.equals("meta")) {
+                    return new RankingKey(Type.META, arg);
+                }
+                if (kind.equals("papi")) {
+                    // Accept both "papi:player_level" and "papi:%player_level%"
+                    if (!arg.startsWith("%")) {
+                        arg = "%" + arg + "%";
+                    }
+                    return new RankingKey(Type.PLACEHOLDER, arg);
+                }
+            }
+        }
+        return new RankingKey(Type.GROUP_PRIORITY, null);
+    }
+
+    /**
+     * Computes the score for a player. Higher scores rank first.
+     */
+    public double score(Player player, PlayerData playerData, LockiConfig config) {
+        switch (type) {
+            case META:
+                return parseNumber(playerData.getMetaValue(argument));
+            case PLACEHOLDER:
+                if (player == null || Bukkit.getPluginManager().getPlugin("PlaceholderAPI") == null) {
+                    return 0;
+                }
+                try {
+                    return parseNumber(me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, argument));
+                } catch (Exception e) {
+                    return 0;
+                }
+            case GROUP_PRIORITY:
+            default:
+                String group = playerData.getPrimaryGroup();
+                if (group == null) {
+                    return 0;
+                }
+                LockiConfig.GroupFormat groupFormat = config.getGroupFormat(group);
+                return groupFormat != null ? groupFormat.getPriority() : 0;
+        }
+    }
+
+    /**
+     * Placeholder values can change without any event we could listen to, so they must be re-sampled periodically.
+     */
+    public boolean needsPolling() {
+        return type == Type.PLACEHOLDER;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getArgument() {
+        return argument;
+    }
+
+    /**
+     * Lenient numeric parse — tolerates color codes and thousands separators ("§a1,250" -> 1250).
+     */
+    static double parseNumber(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c == '§' || c == '&') && i + 1 < value.length()) {
+                i++; // skip color code
+            } else if ((c >= '0' && c <= '9') || c == '.' || (c == '-' && digits.length() == 0)) {
+                digits.append(c);
+            }
+        }
+        try {
+            return digits.length() == 0 ? 0 : Double.parseDouble(digits.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -157,6 +157,35 @@ public class LuckPermsFacade {
         });
     }
 
+    /**
+     * Reads a player meta value from LuckPerms' cached data.
+     *
+     * @param uuid The player's UUID
+     * @param key  Meta key
+     * @return The value, or null if the user is not loaded or has no such meta
+     */
+    public String getPlayerMeta(UUID uuid, String key) {
+        if (luckPerms == null) {
+            return null;
+        }
+        User user = luckPerms.getUserManager().getUser(uuid);
+        return user != null ? user.getCachedData().getMetaData().getMetaValue(key) : null;
+    }
+
+    /**
+     * Reads a player's primary group from LuckPerms' cached data.
+     *
+     * @param uuid The player's UUID
+     * @return The group, or null if the user is not loaded
+     */
+    public String getPrimaryGroup(UUID uuid) {
+        if (luckPerms == null) {
+            return null;
+        }
+        User user = luckPerms.getUserManager().getUser(uuid);
+        return user != null ? user.getPrimaryGroup() : null;
+    }
+
     /**
      * Sets (or clears) a player meta key.
      * This is used for plugin-level per-player overrides like "chat-format" or "prefix".
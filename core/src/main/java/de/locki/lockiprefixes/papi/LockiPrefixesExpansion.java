@@ -1,18 +1,22 @@
 package de.locki.lockiprefixes.papi;
 
 import de.locki.lockiprefixes.format.ChatFormatter;
+import de.locki.lockiprefixes.leaderboard.LeaderboardService;
 import de.locki.lockiprefixes.placeholder.PlayerData;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
  * PlaceholderAPI expansion for LockiPrefixes.
  * Provides placeholders: %lockiprefixes_world%, %lockiprefixes_prefix%, etc.
+ * Leaderboard: %lockiprefixes_position% and %lockiprefixes_top_&lt;n&gt;%.
  */
 public class LockiPrefixesExpansion extends PlaceholderExpansion {
 
@@ -20,11 +24,18 @@ public class LockiPrefixesExpansion extends PlaceholderExpansion {
     /** Supplier so we always use the most-current formatter, even after /lockiprefixes reload. */
     private final Supplier<ChatFormatter> chatFormatterSupplier;
     private final Function<Player, PlayerData> playerDataProvider;
+    private final LeaderboardService leaderboardService;
 
     public LockiPrefixesExpansion(Plugin plugin, Supplier<ChatFormatter> chatFormatterSupplier, Function<Player, PlayerData> playerDataProvider) {
+        this(plugin, chatFormatterSupplier, playerDataProvider, null);
+    }
+
+    public LockiPrefixesExpansion(Plugin plugin, Supplier<ChatFormatter> chatFormatterSupplier, Function<Player, PlayerData> playerDataProvider,
+                                  LeaderboardService leaderboardService) {
         this.plugin = plugin;
         this.chatFormatterSupplier = chatFormatterSupplier;
         this.playerDataProvider = playerDataProvider;
+        this.leaderboardService = leaderboardService;
     }
 
     @Override
@@ -56,6 +67,12 @@ public class LockiPrefixesExpansion extends PlaceholderExpansion {
 
     @Override
     public String onRequest(OfflinePlayer offlinePlayer, String params) {
+        // %lockiprefixes_top_<n>%
+        // Does not depend on the requesting player, so it also works in holograms/scoreboards without a viewer.
+        if (params.regionMatches(true, 0, "top_", 0, 4)) {
+            return formatTop(params.substring(4));
+        }
+
         if (offlinePlayer == null || !offlinePlayer.isOnline()) {
             return "";
         }
@@ -96,9 +113,39 @@ public class LockiPrefixesExpansion extends PlaceholderExpansion {
                 String playerName = playerData.getName() != null ? playerData.getName() : "";
                 return de.locki.lockiprefixes.color.ColorParser.translateHex(pfx + playerName);
 
+            // %lockiprefixes_position%
+            // The player's own leaderboard line, rendered through leaderboard.positions
+            case "position":
+                if (leaderboardService == null) {
+                    return "";
+                }
+                int position = leaderboardService.getPosition(player.getUniqueId());
+                return position > 0 ? chatFormatter.formatLeaderboardPosition(playerData, position) : "";
+
             default:
                 return null;
         }
     }
 
+    private String formatTop(String positionParam) {
+        if (leaderboardService == null) {
+            return "";
+        }
+        int position;
+        try {
+            position = Integer.parseInt(positionParam.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        UUID uuid = leaderboardService.getAt(position);
+        Player player = uuid != null ? Bukkit.getPlayer(uuid) : null;
+        ChatFormatter chatFormatter = chatFormatterSupplier.get();
+        if (player == null || chatFormatter == null) {
+            return "";
+        }
+        PlayerData playerData = playerDataProvider.apply(player);
+        return playerData != null ? chatFormatter.formatLeaderboardPosition(playerData, position) : "";
+    }
+
 }
@@ -3,17 +3,35 @@ package de.locki.lockiprefixes.placeholder;
 import de.locki.lockiprefixes.config.LockiConfig;
 import de.locki.lockiprefixes.lp.LuckPermsFacade;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Handles built-in placeholder replacement.
  * Placeholders: {world}, {prefix}, {prefixes}, {name}, {displayname},
- *               {suffix}, {suffixes}, {username-color}, {message-color}
+ *               {suffix}, {suffixes}, {username-color}, {message-color},
+ *               {rank-tag}, {ping}, {health}, {level}, {gamemode}, {online}
  */
 public class BuiltInPlaceholders {
 
+    /** Keys resolvable through {@link #resolve(String, PlayerData)} ({user} is compiled to {name}). */
+    private static final Set<String> KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "world", "name", "displayname", "prefix", "prefixes", "suffix", "suffixes", "username-color", "message-color",
+        "rank-tag", "ping", "health", "level", "gamemode", "online"
+    )));
+
+    /** Keys whose values change from tick to tick (read from the Bukkit player, not LuckPerms). */
+    private static final Set<String> TICK_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "ping", "health", "level", "gamemode", "online"
+    )));
+
     private final LockiConfig config;
     private final LuckPermsFacade luckPermsFacade;
+    // Snapshots taken on the server thread; null until the plugin provides its sampler
+    private volatile PlayerStatsSampler statsSampler;
 
     public BuiltInPlaceholders(LockiConfig config, LuckPermsFacade luckPermsFacade) {
         this.config = config;
@@ -47,11 +65,7 @@ public class BuiltInPlaceholders {
         result = result.replace("{displayname}", playerData.getDisplayName() != null ? playerData.getDisplayName() : playerData.getName());
 
         // {prefix} - player meta override first, then LuckPerms prefix
-        String prefix = playerData.getMetaValue("prefix");
-        if (prefix == null || prefix.isEmpty()) {
-            prefix = playerData.getPrefix();
-        }
-        result = replacePrefixPlaceholder(result, prefix);
+        result = replacePrefixPlaceholder(result, resolvePrefix(playerData));
 
         // {prefixes} - all prefixes sorted by priority, joined
         List<String> prefixes = playerData.getPrefixes();
@@ -78,9 +92,158 @@ public class BuiltInPlaceholders {
         String messageColor = resolveMessageColor(playerData);
         result = result.replace("{message-color}", messageColor);
 
+        // {rank-tag} - the group's rank tag
+        if (result.contains("{rank-tag}")) {
+            result = result.replace("{rank-tag}", resolveRankTag(playerData, null));
+        }
+
         return result;
     }
 
+    /**
+     * Checks whether a placeholder key (without braces) is a built-in placeholder.
+     */
+    public static boolean isBuiltIn(String key) {
+        return KEYS.contains(key);
+    }
+
+    /**
+     * Checks whether a built-in placeholder changes every tick (ping, health, ...).
+     */
+    public static boolean isTickBound(String key) {
+        return TICK_KEYS.contains(key);
+    }
+
+    /**
+     * Resolves a single built-in placeholder to its raw (untranslated) value.
+     * Used by compiled formats, which only look up the slots they actually contain.
+     *
+     * @param key        The placeholder key without braces
+     * @param playerData The player data holder
+     * @return The value, never null
+     */
+    public String resolve(String key, PlayerData playerData) {
+        return resolve(key, playerData, null);
+    }
+
+    /**
+     * Resolves a single built-in placeholder for viewers with the given locale.
+     * Only {rank-tag} has locale variants.
+     *
+     * @param locale A locale key from {@link LockiConfig#matchLocale}, or null for the default
+     */
+    public String resolve(String key, PlayerData playerData, String locale) {
+        String value;
+        switch (key) {
+            case "world":
+                value = playerData.getWorld();
+                break;
+            case "name":
+                value = playerData.getName();
+                break;
+            case "displayname":
+                value = playerData.getDisplayName() != null ? playerData.getDisplayName() : playerData.getName();
+                break;
+            case "prefix":
+                value = resolvePrefix(playerData);
+                break;
+            case "prefixes":
+                List<String> prefixes = playerData.getPrefixes();
+                value = prefixes != null ? String.join(config.getPrefixSeparator(), prefixes) : null;
+                break;
+            case "suffix":
+                value = playerData.getMetaValue("suffix");
+                if (value == null || value.isEmpty()) {
+                    value = playerData.getSuffix();
+                }
+                break;
+            case "suffixes":
+                List<String> suffixes = playerData.getSuffixes();
+                value = suffixes != null ? String.join(config.getSuffixSeparator(), suffixes) : null;
+                break;
+            case "username-color":
+                value = resolveUsernameColor(playerData);
+                break;
+            case "message-color":
+                value = resolveMessageColor(playerData);
+                break;
+            case "rank-tag":
+                value = resolveRankTag(playerData, locale);
+                break;
+            case "ping":
+            case "health":
+            case "level":
+            case "gamemode":
+            case "online":
+                value = resolveStat(key, playerData);
+                break;
+            default:
+                value = null;
+        }
+        return value != null ? value : "";
+    }
+
+    /**
+     * Resolves the rank tag ("groups.<group>.rank-tag"), falling back to the group name.
+     * A tag set on the player data (an animation frame) takes precedence.
+     */
+    public String resolveRankTag(PlayerData playerData, String locale) {
+        if (playerData.getRankTag() != null) {
+            return playerData.getRankTag();
+        }
+        String group = playerData.getPrimaryGroup();
+        String tag = config.getRankTag(group, locale);
+        return tag != null && !tag.isEmpty() ? tag : (group != null ? group : "");
+    }
+
+    /**
+     * Resolves the prefix: player meta override first, then LuckPerms prefix.
+     */
+    public String resolvePrefix(PlayerData playerData) {
+        String prefix = playerData.getMetaValue("prefix");
+        if (prefix == null || prefix.isEmpty()) {
+            prefix = playerData.getPrefix();
+        }
+        return prefix;
+    }
+
+    public void setStatsSampler(PlayerStatsSampler statsSampler) {
+        this.statsSampler = statsSampler;
+    }
+
+    /**
+     * Returns the player's last sampled stats, keeping them in the player data. Never reads the
+     * Bukkit player, so it is safe from async chat threads.
+     */
+    public PlayerStats getStats(PlayerData playerData) {
+        PlayerStatsSampler sampler = statsSampler;
+        PlayerStats stats = sampler != null && playerData.getUuid() != null ? sampler.get(playerData.getUuid()) : null;
+        if (stats == null) {
+            return playerData.getStats();
+        }
+        playerData.setStats(stats);
+        return stats;
+    }
+
+    private String resolveStat(String key, PlayerData playerData) {
+        PlayerStats stats = getStats(playerData);
+        if (stats == null) {
+            return "";
+        }
+        switch (key) {
+            case "ping":
+                return String.valueOf(stats.getPing());
+            case "health":
+                return String.valueOf((int) Math.ceil(stats.getHealth()));
+            case "level":
+                return String.valueOf(stats.getLevel());
+            case "gamemode":
+                return stats.getGameMode();
+            default:
+                return String.valueOf(stats.getOnline());
+        }
+    }
+
     private String replacePrefixPlaceholder(String format, String prefix) {
         if (prefix != null && !prefix.trim().isEmpty()) {
             return format.replace("{prefix}", prefix);
@@ -0,0 +1,39 @@
+package de.locki.lockiprefixes.placeholder;
+
+import org.bukkit.entity.Player;
+
+/**
+ * A placeholder supplied by another plugin, usable in any format as {key}.
+ * Providers are bound directly into compiled format slots, so they render without
+ * the PlaceholderAPI string scan. Register them through {@link PlaceholderRegistry},
+ * which is available from the Bukkit ServicesManager.
+ */
+public interface PlaceholderProvider {
+
+    /**
+     * How often a provider's value may change; decides how long resolved values are reused.
+     */
+    enum Dependency {
+        /** Changes constantly (e.g. a live counter) — resolved at most once per tick per player. */
+        PER_TICK,
+        /** Changes on specific events — cached until {@link PlaceholderRegistry#invalidate} is called. */
+        PER_EVENT,
+        /** Fixed for a player's session — resolved once, dropped when the player quits. */
+        STATIC
+    }
+
+    /**
+     * The placeholder key without braces, e.g. "clan" for {clan}. Built-in keys cannot be overridden.
+     */
+    String getKey();
+
+    Dependency getDependency();
+
+    /**
+     * Resolves the value for an online player. May contain &amp; color codes.
+     * Called on whatever thread renders the format (chat is usually async).
+     *
+     * @return The value, or null for an empty string
+     */
+    String resolve(Player player);
+}
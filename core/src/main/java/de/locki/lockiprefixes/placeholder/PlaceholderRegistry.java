@@ -0,0 +1,165 @@
+package de.locki.lockiprefixes.placeholder;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Holds the {@link PlaceholderProvider}s registered by other plugins and caches their values
+ * according to each provider's declared {@link PlaceholderProvider.Dependency}.
+ *
+ * The registry outlives config reloads. Every (un)registration bumps {@link #getVersion()},
+ * which makes the formatter recompile its templates so the new provider is bound into them.
+ */
+public class PlaceholderRegistry implements Listener {
+
+    private final Logger logger;
+    private final Map<String, PlaceholderProvider> providers = new ConcurrentHashMap<>();
+    // provider key -> player -> last resolved value
+    private final Map<String, Map<UUID, CachedValue>> values = new ConcurrentHashMap<>();
+    private final List<Consumer<UUID>> invalidationListeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger version = new AtomicInteger();
+
+    public PlaceholderRegistry(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Registers a provider, replacing any previous provider with the same key.
+     *
+     * @throws IllegalArgumentException if the key is empty, contains braces or is a built-in placeholder
+     */
+    public void register(PlaceholderProvider provider) {
+        String key = provider.getKey();
+        if (key == null || key.isEmpty() || key.indexOf('{') >= 0 || key.indexOf('}') >= 0) {
+            throw new IllegalArgumentException("Invalid placeholder key: " + key);
+        }
+        if (BuiltInPlaceholders.isBuiltIn(key) || key.equals("message") || key.equals("position") || key.equals("user")) {
+            throw new IllegalArgumentException("Cannot override built-in placeholder {" + key + "}");
+        }
+        providers.put(key, provider);
+        values.remove(key);
+        version.incrementAndGet();
+        logger.info("Registered placeholder provider {" + key + "} (" + provider.getDependency() + ")");
+    }
+
+    public void unregister(String key) {
+        if (providers.remove(key) != null) {
+            values.remove(key);
+            version.incrementAndGet();
+        }
+    }
+
+    public PlaceholderProvider getProvider(String key) {
+        return providers.get(key);
+    }
+
+    public Collection<PlaceholderProvider> getProviders() {
+        return Collections.unmodifiableCollection(new ArrayList<>(providers.values()));
+    }
+
+    /** Incremented on every (un)registration; compiled templates are stale once it changes. */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns the provider's value for a player, resolving it only when the cached value is stale.
+     */
+    public String resolve(PlaceholderProvider provider, PlayerData playerData) {
+        UUID uuid = playerData.getUuid();
+        if (uuid == null) {
+            return "";
+        }
+        Map<UUID, CachedValue> perPlayer = values.computeIfAbsent(provider.getKey(), k -> new ConcurrentHashMap<>());
+        CachedValue cached = perPlayer.get(uuid);
+        long tick = PlayerStatsSampler.currentTick();
+        if (cached != null && (provider.getDependency() != PlaceholderProvider.Dependency.PER_TICK || cached.tick == tick)) {
+            return cached.value;
+        }
+
+        Player player = Bukkit.getPlayer(uuid);
+        if (player == null) {
+            return cached != null ? cached.value : "";
+        }
+        String value;
+        try {
+            value = provider.resolve(player);
+        } catch (RuntimeException e) {
+            logger.warning("Placeholder provider {" + provider.getKey() + "} failed: " + e.getMessage());
+            return cached != null ? cached.value : "";
+        }
+        value = value != null ? value : "";
+        perPlayer.put(uuid, new CachedValue(value, tick));
+        return value;
+    }
+
+    /**
+     * Drops a player's cached value for one placeholder, e.g. after their clan changed.
+     * Listeners (the tablist) re-render that player.
+     */
+    public void invalidate(String key, UUID uuid) {
+        Map<UUID, CachedValue> perPlayer = values.get(key);
+        if (perPlayer != null) {
+            perPlayer.remove(uuid);
+        }
+        notifyInvalidated(uuid);
+    }
+
+    /**
+     * Drops all cached values of one placeholder, e.g. after a clan was renamed.
+     */
+    public void invalidate(String key) {
+        Map<UUID, CachedValue> perPlayer = values.remove(key);
+        if (perPlayer != null) {
+            for (UUID uuid : perPlayer.keySet()) {
+                notifyInvalidated(uuid);
+            }
+        }
+    }
+
+    /**
+     * Adds a callback run (on the invalidating thread) whenever a player's values were invalidated.
+     */
+    public void addInvalidationListener(Consumer<UUID> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    private void notifyInvalidated(UUID uuid) {
+        for (Consumer<UUID> listener : invalidationListeners) {
+            listener.accept(uuid);
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        for (Map<UUID, CachedValue> perPlayer : values.values()) {
+            perPlayer.remove(uuid);
+        }
+    }
+
+    private static final class CachedValue {
+        final String value;
+        final long tick;
+
+        CachedValue(String value, long tick) {
+            this.value = value;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package de.locki.lockiprefixes.placeholder;
+
+import de.locki.lockiprefixes.cache.LruCache;
+import de.locki.lockiprefixes.config.LockiConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Circuit breaker around PlaceholderAPI calls.
+ *
+ * Every placeholder text is timed. When it is slower than its threshold (or throws) several times
+ * in a row, the breaker trips: for the cooldown period the placeholder is not evaluated at all and
+ * each player gets the last good value (or an empty string). After the cooldown a single call probes
+ * the placeholder again; if that one is still slow the breaker trips right away.
+ */
+public class PlaceholderWatchdog {
+
+    private static final Logger LOG = Logger.getLogger("LockiPrefixes");
+
+    // Per-player meta prefixes may contain placeholders, so the number of distinct texts is capped
+    private static final int MAX_TRACKED = 1024;
+    private static final int REMEMBERED_VALUES = 1024;
+
+    private final LockiConfig config;
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    public PlaceholderWatchdog(LockiConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Evaluates placeholders in a text through its breaker.
+     *
+     * @param text   The text containing placeholders, also the breaker identifier
+     * @param uuid   The player the text is evaluated for
+     * @param parser The actual PlaceholderAPI call
+     * @return The parsed text, or the last good value / "" while the breaker is open
+     */
+    public String parse(String text, UUID uuid, Function<String, String> parser) {
+        if (!config.isPlaceholderWatchdogEnabled()) {
+            return parser.apply(text);
+        }
+        Breaker breaker = breakers.get(text);
+        if (breaker == null) {
+            if (breakers.size() >= MAX_TRACKED) {
+                return parser.apply(text);
+            }
+            breaker = breakers.computeIfAbsent(text, Breaker::new);
+        }
+
+        long now = System.nanoTime();
+        if (!breaker.allowCall(now)) {
+            return breaker.lastGood(uuid);
+        }
+
+        String result;
+        try {
+            result = parser.apply(text);
+        } catch (RuntimeException e) {
+            breaker.recordFailure(System.nanoTime(), "threw " + e.getClass().getSimpleName() + ": " + e.getMessage());
+            return breaker.lastGood(uuid);
+        }
+
+        long elapsed = System.nanoTime() - now;
+        long threshold = TimeUnit.MILLISECONDS.toNanos(config.getPlaceholderThresholdMs(text));
+        if (elapsed > threshold) {
+            breaker.recordFailure(now + elapsed, "took " + TimeUnit.NANOSECONDS.toMillis(elapsed)
+                + "ms (threshold " + TimeUnit.NANOSECONDS.toMillis(threshold) + "ms)");
+        } else {
+            breaker.recordSuccess();
+        }
+        breaker.record(elapsed);
+        if (uuid != null && result != null) {
+            breaker.lastGood.put(uuid, result);
+        }
+        return result;
+    }
+
+    /**
+     * Placeholders whose breaker is currently open, with the remaining cooldown in seconds.
+     */
+    public List<String> getTripped() {
+        long now = System.nanoTime();
+        List<String> tripped = new ArrayList<>();
+        for (Breaker breaker : breakers.values()) {
+            long remaining = breaker.openUntil - now;
+            if (breaker.open && remaining > 0) {
+                tripped.add(breaker.identifier + " (" + (TimeUnit.NANOSECONDS.toSeconds(remaining) + 1) + "s left)");
+            }
+        }
+        Collections.sort(tripped);
+        return tripped;
+    }
+
+    public int getTrackedCount() {
+        return breakers.size();
+    }
+
+    public long getTotalTrips() {
+        long trips = 0;
+        for (Breaker breaker : breakers.values()) {
+            trips += breaker.trips.get();
+        }
+        return trips;
+    }
+
+    /**
+     * The slowest tracked placeholder by average latency, e.g. "%vault_eco_balance% 3.2ms", or null.
+     */
+    public String getSlowest() {
+        Breaker slowest = null;
+        for (Breaker breaker : breakers.values()) {
+            if (breaker.calls.get() > 0 && (slowest == null || breaker.averageNanos() > slowest.averageNanos())) {
+                slowest = breaker;
+            }
+        }
+        if (slowest == null) {
+            return null;
+        }
+        return slowest.identifier + " " + String.format(Locale.ROOT, "%.1fms", slowest.averageNanos() / 1_000_000.0);
+    }
+
+    private final class Breaker {
+        final String identifier;
+        final LruCache<UUID, String> lastGood = new LruCache<>(REMEMBERED_VALUES);
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        final AtomicBoolean probing = new AtomicBoolean();
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicInteger trips = new AtomicInteger();
+        volatile boolean open;
+        volatile long openUntil;
+
+        Breaker(String identifier) {
+            this.identifier = identifier;
+        }
+
+        /**
+         * Closed: always. Open: never until the cooldown ends, then exactly one probing call.
+         */
+        boolean allowCall(long now) {
+            if (!open) {
+                return true;
+            }
+            if (now - openUntil < 0) {
+                return false;
+            }
+            return probing.compareAndSet(false, true);
+        }
+
+        void recordSuccess() {
+            consecutiveFailures.set(0);
+            if (open) {
+                open = false;
+                probing.set(false);
+                LOG.info("Placeholder " + identifier + " recovered, evaluating it again.");
+            }
+        }
+
+        void recordFailure(long now, String reason) {
+            int failures = consecutiveFailures.incrementAndGet();
+            // A failed probe re-trips immediately; otherwise wait for a streak of slow calls
+            if (open || failures >= config.getPlaceholderWatchdogTripAfter()) {
+                int cooldown = config.getPlaceholderWatchdogCooldownSeconds();
+                openUntil = now + TimeUnit.SECONDS.toNanos(cooldown);
+                open = true;
+                probing.set(false);
+                consecutiveFailures.set(0);
+                trips.incrementAndGet();
+                LOG.warning("Placeholder " + identifier + " " + reason + " — serving cached values for "
+                    + cooldown + "s.");
+            }
+        }
+
+        void record(long elapsed) {
+            calls.incrementAndGet();
+            totalNanos.addAndGet(elapsed);
+        }
+
+        double averageNanos() {
+            long count = calls.get();
+            return count == 0 ? 0 : (double) totalNanos.get() / count;
+        }
+
+        String lastGood(UUID uuid) {
+            String value = uuid != null ? lastGood.getIfPresent(uuid) : null;
+            return value != null ? value : "";
+        }
+    }
+}
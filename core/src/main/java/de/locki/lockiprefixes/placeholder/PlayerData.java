@@ -24,6 +24,15 @@ public class PlayerData {
     private List<String> suffixes;
     private Map<String, String> meta;
 
+    // Per-tick stats ({ping}, {health}, ...), the sampler's last snapshot
+    private PlayerStats stats;
+
+    // Codes the player may use in their own messages (MessageColors flags), resolved once per message
+    private int messageColors;
+
+    // Shown for {rank-tag} instead of the configured tag (e.g. an animation frame); null = configured
+    private String rankTag;
+
     public UUID getUuid() {
         return uuid;
     }
@@ -112,6 +121,30 @@ public class PlayerData {
         this.meta = meta;
     }
 
+    public PlayerStats getStats() {
+        return stats;
+    }
+
+    public void setStats(PlayerStats stats) {
+        this.stats = stats;
+    }
+
+    public int getMessageColors() {
+        return messageColors;
+    }
+
+    public void setMessageColors(int messageColors) {
+        this.messageColors = messageColors;
+    }
+
+    public String getRankTag() {
+        return rankTag;
+    }
+
+    public void setRankTag(String rankTag) {
+        this.rankTag = rankTag;
+    }
+
     public String getMetaValue(String key) {
         if (meta == null) {
             return null;
@@ -0,0 +1,49 @@
+package de.locki.lockiprefixes.placeholder;
+
+/**
+ * Immutable per-tick sample of frequently displayed player values.
+ * Read directly from the Bukkit player instead of going through PlaceholderAPI.
+ */
+public final class PlayerStats {
+
+    private final int ping;
+    private final double health;
+    private final int level;
+    private final String gameMode;
+    private final int online;
+    private final long tick;
+
+    public PlayerStats(int ping, double health, int level, String gameMode, int online, long tick) {
+        this.ping = ping;
+        this.health = health;
+        this.level = level;
+        this.gameMode = gameMode;
+        this.online = online;
+        this.tick = tick;
+    }
+
+    public int getPing() {
+        return ping;
+    }
+
+    public double getHealth() {
+        return health;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getGameMode() {
+        return gameMode;
+    }
+
+    public int getOnline() {
+        return online;
+    }
+
+    /** The tick this sample was taken in. */
+    public long getTick() {
+        return tick;
+    }
+}
@@ -0,0 +1,180 @@
+package de.locki.lockiprefixes.placeholder;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Snapshots of {@link PlayerStats}, taken where the player may be read (the main thread, or the
+ * player's region on Folia). Chat and tablist renders only read the last snapshot, so async chat
+ * threads never call Bukkit getters.
+ *
+ * The tick counter advances every tick; players are only sampled every few ticks, and only while
+ * the formatter's templates use a stat slot (see {@link #configure}). {@link #start} does both from
+ * a main-thread timer; Folia modules instead call {@link #tick} from the global region and
+ * {@link #sample} from each player's scheduler when {@link #isDue} says so.
+ */
+public class PlayerStatsSampler implements Listener {
+
+    // Server ticks counted by the sampling task; only that task writes it
+    private static volatile long tick;
+
+    private final Map<UUID, PlayerStats> samples = new ConcurrentHashMap<>();
+    private volatile int online;
+    private BukkitTask task;
+
+    private volatile int interval = 20;
+    private volatile BooleanSupplier demand = () -> false;
+    private long lastSampled = Long.MIN_VALUE / 2;
+
+    // Ping accessor, resolved once: Player#getPing on 1.17+, CraftPlayer handle field before that
+    private volatile boolean pingResolved;
+    private volatile Method pingMethod;
+    private volatile Method handleMethod;
+    private volatile Field pingField;
+
+    /**
+     * Returns the current server tick, as counted by the sampling task.
+     */
+    public static long currentTick() {
+        return tick;
+    }
+
+    /**
+     * Sets how often players are sampled and whether anything reads the stats at all.
+     * Called again with the new formatter on every reload.
+     *
+     * @param interval Ticks between samples
+     * @param demand   Whether any template uses a stat slot
+     */
+    public void configure(int interval, BooleanSupplier demand) {
+        this.interval = Math.max(1, interval);
+        this.demand = demand;
+    }
+
+    /**
+     * Registers the quit listener and advances the tick on the main thread, sampling every
+     * online player when due.
+     */
+    public void start(Plugin plugin) {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, new Runnable() {
+            @Override
+            public void run() {
+                tick();
+                if (isDue()) {
+                    sampleAll();
+                }
+            }
+        }, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Starts the next tick. Runs on the main thread (or Folia's global region).
+     */
+    public void tick() {
+        tick++;
+        online = Bukkit.getOnlinePlayers().size();
+    }
+
+    /**
+     * Whether players should be sampled this tick: a template uses a stat slot and the interval
+     * has passed since the last sample. Claims the sample, so call it once per tick, from the
+     * thread that runs {@link #tick}.
+     */
+    public boolean isDue() {
+        if (tick - lastSampled < interval || !demand.getAsBoolean()) {
+            return false;
+        }
+        lastSampled = tick;
+        return true;
+    }
+
+    /**
+     * Samples every online player. Main thread only.
+     */
+    public void sampleAll() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            sample(player);
+        }
+    }
+
+    /**
+     * Takes a player's snapshot. Must run where the player may be accessed.
+     */
+    public void sample(Player player) {
+        samples.put(player.getUniqueId(), new PlayerStats(
+            readPing(player),
+            player.getHealth(),
+            player.getLevel(),
+            player.getGameMode() != null ? player.getGameMode().name().toLowerCase() : "",
+            online,
+            tick
+        ));
+    }
+
+    /**
+     * Returns a player's last snapshot, or null if they have not been sampled yet.
+     */
+    public PlayerStats get(UUID uuid) {
+        return samples.get(uuid);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        samples.remove(event.getPlayer().getUniqueId());
+    }
+
+    private int readPing(Player player) {
+        if (!pingResolved) {
+            resolvePingAccessor(player);
+        }
+        try {
+            if (pingMethod != null) {
+                return ((Number) pingMethod.invoke(player)).intValue();
+            }
+            if (handleMethod != null && pingField != null) {
+                return pingField.getInt(handleMethod.invoke(player));
+            }
+        } catch (Exception ignored) {
+        }
+        return 0;
+    }
+
+    private synchronized void resolvePingAccessor(Player player) {
+        if (pingResolved) {
+            return;
+        }
+        try {
+            pingMethod = player.getClass().getMethod("getPing");
+        } catch (NoSuchMethodException e) {
+            try {
+                handleMethod = player.getClass().getMethod("getHandle");
+                pingField = handleMethod.getReturnType().getField("ping");
+            } catch (Exception ignored) {
+                handleMethod = null;
+                pingField = null;
+            }
+        }
+        pingResolved = true;
+    }
+}
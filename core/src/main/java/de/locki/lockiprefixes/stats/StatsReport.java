@@ -0,0 +1,38 @@
+package de.locki.lockiprefixes.stats;
+
+import org.bukkit.ChatColor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects the runtime statistics shown by /lockiprefixes stats.
+ * Components append their own section; the command just prints the lines.
+ */
+public class StatsReport {
+
+    private final List<String> lines = new ArrayList<>();
+
+    public StatsReport section(String title) {
+        lines.add(ChatColor.GOLD + title);
+        return this;
+    }
+
+    public StatsReport line(String label, Object value) {
+        lines.add(ChatColor.DARK_GRAY + "  - " + ChatColor.GRAY + label + ": " + ChatColor.WHITE + value);
+        return this;
+    }
+
+    /**
+     * Formats a 0..1 ratio as a percentage with one decimal.
+     */
+    public static String percent(double ratio) {
+        return String.format(Locale.ROOT, "%.1f%%", ratio * 100.0);
+    }
+
+    public List<String> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+}
@@ -3,6 +3,7 @@ package de.locki.lockiprefixes.tablist;
 import de.locki.lockiprefixes.format.ChatFormatter;
 import de.locki.lockiprefixes.lp.LuckPermsFacade;
 import de.locki.lockiprefixes.placeholder.PlayerData;
+import de.locki.lockiprefixes.placeholder.PlaceholderRegistry;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.event.EventBus;
 import net.luckperms.api.event.user.UserDataRecalculateEvent;
@@ -12,7 +13,13 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Lightweight tablist name updater for legacy, mid, and modern modules.
@@ -23,15 +30,29 @@ public class SimpleTablistManager implements Listener {
     private ChatFormatter chatFormatter;
     private final LuckPermsFacade luckPermsFacade;
 
+    // Last rendered data per player, reused by the live-stats refresh instead of re-querying LuckPerms
+    private final Map<UUID, PlayerData> tabData = new ConcurrentHashMap<>();
+    private final Map<UUID, String> tabNames = new ConcurrentHashMap<>();
+    private BukkitTask statsTask;
+
     public SimpleTablistManager(JavaPlugin plugin, ChatFormatter chatFormatter, LuckPermsFacade luckPermsFacade) {
         this.plugin = plugin;
         this.chatFormatter = chatFormatter;
         this.luckPermsFacade = luckPermsFacade;
         registerLuckPermsListener();
+        registerInvalidationListener();
+        scheduleStatsRefresh();
     }
 
     public void setChatFormatter(ChatFormatter chatFormatter) {
         this.chatFormatter = chatFormatter;
+        scheduleStatsRefresh();
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        tabData.remove(event.getPlayer().getUniqueId());
+        tabNames.remove(event.getPlayer().getUniqueId());
     }
 
     @EventHandler
@@ -50,6 +71,60 @@ public class SimpleTablistManager implements Listener {
         }
     }
 
+    /**
+     * (Re)starts the periodic refresh for tablist formats showing {ping}, {health}, ...
+     */
+    private void scheduleStatsRefresh() {
+        if (statsTask != null) {
+            statsTask.cancel();
+            statsTask = null;
+        }
+        int interval = chatFormatter != null ? chatFormatter.getConfig().getTablistStatsRefreshInterval() : 0;
+        if (interval > 0) {
+            statsTask = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
+                @Override
+                public void run() {
+                    refreshStats();
+                }
+            }, interval, interval);
+        }
+    }
+
+    /**
+     * Re-renders only players whose tablist format uses per-tick values; unchanged names are not resent.
+     */
+    private void refreshStats() {
+        if (chatFormatter == null) {
+            return;
+        }
+        for (Map.Entry<UUID, PlayerData> entry : tabData.entrySet()) {
+            PlayerData data = entry.getValue();
+            if (!chatFormatter.isLeaderboardTickBound(data)) {
+                continue;
+            }
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player != null && player.isOnline()) {
+                applyName(player, chatFormatter.formatLeaderboard(data));
+            }
+        }
+    }
+
+    /**
+     * Re-renders a player when another plugin invalidates one of its placeholder values.
+     */
+    private void registerInvalidationListener() {
+        PlaceholderRegistry registry = chatFormatter != null ? chatFormatter.getPlaceholderRegistry() : null;
+        if (registry == null) {
+            return;
+        }
+        registry.addInvalidationListener(uuid -> Bukkit.getScheduler().runTask(plugin, new Runnable() {
+            @Override
+            public void run() {
+                updatePlayer(Bukkit.getPlayer(uuid));
+            }
+        }));
+    }
+
     private void registerLuckPermsListener() {
         try {
             LuckPerms luckPerms = luckPermsFacade.getLuckPerms();
@@ -90,8 +165,15 @@ public class SimpleTablistManager implements Listener {
         data.setDisplayName(player.getDisplayName());
         data.setWorld(player.getWorld().getName());
         luckPermsFacade.populatePlayerData(data);
+        tabData.put(player.getUniqueId(), data);
 
-        String formatted = chatFormatter.formatLeaderboard(data);
+        applyName(player, chatFormatter.formatLeaderboard(data));
+    }
+
+    private void applyName(Player player, String formatted) {
+        if (formatted.equals(tabNames.put(player.getUniqueId(), formatted))) {
+            return;
+        }
         try {
             player.setPlayerListName(formatted);
         } catch (IllegalArgumentException ignored) {
@@ -0,0 +1,45 @@
+package de.locki.lockiprefixes.cache;
+
+import org.junit.Test;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LruCacheTest {
+
+    private static final Function<String, String> UPPER = new Function<String, String>() {
+        @Override
+        public String apply(String key) {
+            return key.toUpperCase();
+        }
+    };
+
+    @Test
+    public void evictsLeastRecentlyUsedEntry() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.get("a", UPPER);
+        cache.get("b", UPPER);
+        cache.get("a", UPPER); // "b" is now the eldest
+        cache.get("c", UPPER);
+
+        assertEquals(2, cache.size());
+        assertEquals("A", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void tracksHitRate() {
+        LruCache<String, String> cache = new LruCache<>(8);
+        cache.get("a", UPPER);
+        cache.get("a", UPPER);
+        cache.get("a", UPPER);
+        cache.get("b", UPPER);
+
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 0.0001);
+    }
+}
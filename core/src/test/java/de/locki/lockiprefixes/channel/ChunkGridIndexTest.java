@@ -0,0 +1,77 @@
+package de.locki.lockiprefixes.channel;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkGridIndexTest {
+
+    private final ChunkGridIndex<String> grid = new ChunkGridIndex<>();
+
+    @Test
+    public void onlyRebucketsOnChunkCrossings() {
+        assertTrue(grid.update("alex", "world", 0, 0));
+        assertFalse(grid.update("alex", "world", 15, 15));
+        assertTrue(grid.update("alex", "world", 16, 15));
+        assertTrue(grid.update("alex", "world_nether", 16, 15));
+        assertEquals(1, grid.size());
+        assertEquals(1, grid.getCellCount());
+    }
+
+    @Test
+    public void collectsOnlyCellsCoveringTheRadius() {
+        grid.update("near", "world", 40, -20);
+        grid.update("edge", "world", 70, 0);
+        grid.update("far", "world", 500, 500);
+        grid.update("other", "world_nether", 0, 0);
+
+        Set<String> found = new HashSet<>();
+        int visited = grid.collect("world", 0, 0, 48, found);
+
+        // -48..48 spans chunks -3..3 on both axes
+        assertEquals(49, visited);
+        assertEquals(new HashSet<>(Arrays.asList("near")), found);
+
+        found.clear();
+        grid.collect("world", 0, 0, 64, found);
+        assertTrue(found.contains("edge"));
+        assertFalse(found.contains("far"));
+    }
+
+    @Test
+    public void collectsNearbyMembersByFiledPosition() {
+        grid.update("alex", "world", 0, 0);
+        grid.update("near", "world", 30, 40);
+        grid.update("corner", "world", 40, 40);
+        grid.update("other", "world_nether", 1, 1);
+        // Moving within a chunk keeps the cell but updates the position
+        grid.update("corner", "world", 20, 20);
+
+        Set<String> found = new HashSet<>();
+        grid.collectNear("alex", 50, found);
+        assertEquals(new HashSet<>(Arrays.asList("alex", "near", "corner")), found);
+
+        grid.update("corner", "world", 47, 47);
+        found.clear();
+        grid.collectNear("alex", 50, found);
+        assertFalse(found.contains("corner"));
+        assertEquals(0, grid.collectNear("nobody", 50, found));
+    }
+
+    @Test
+    public void removingTheLastMemberDropsTheCell() {
+        grid.update("alex", "world", -1, -1);
+        grid.update("steve", "world", -16, -16);
+        assertEquals(1, grid.getCellCount());
+        grid.remove("alex");
+        grid.remove("steve");
+        assertEquals(0, grid.size());
+        assertEquals(0, grid.getCellCount());
+    }
+}
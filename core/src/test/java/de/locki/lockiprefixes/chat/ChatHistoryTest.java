@@ -0,0 +1,47 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.config.LockiConfig;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChatHistoryTest {
+
+    private final ChatHistory<String> history = new ChatHistory<>(enabledConfig(), (player, line) -> { }, null);
+
+    private static LockiConfig enabledConfig() {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("chat.history.enabled", true);
+        LockiConfig config = new LockiConfig();
+        config.load(yaml);
+        return config;
+    }
+
+    @Test
+    public void keepsTheNewestLinesOldestFirst() {
+        UUID sender = UUID.randomUUID();
+        for (int i = 0; i < 25; i++) {
+            history.record(sender, "line " + i);
+        }
+        List<String> lines = history.snapshot(Collections.<UUID>emptySet());
+        assertEquals(20, lines.size());
+        assertEquals("line 5", lines.get(0));
+        assertEquals("line 24", lines.get(19));
+    }
+
+    @Test
+    public void skipsIgnoredSenders() {
+        UUID alex = UUID.randomUUID();
+        UUID steve = UUID.randomUUID();
+        history.record(alex, "hi");
+        history.record(steve, "spam");
+        history.record(alex, "bye");
+        assertEquals(Arrays.asList("hi", "bye"), history.snapshot(Collections.singleton(steve)));
+    }
+}
@@ -0,0 +1,50 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.placeholder.PlayerData;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ChatLogWriterTest {
+
+    @Test
+    public void writesEscapedRecordsAndFlushesOnClose() throws IOException {
+        File directory = Files.createTempDirectory("chat-logs").toFile();
+        ChatLogWriter writer = new ChatLogWriter(directory, Logger.getLogger("test"), new LockiConfig());
+        writer.start();
+
+        PlayerData data = new PlayerData();
+        data.setUuid(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        data.setPrimaryGroup("vip");
+        data.setWorld("world");
+        writer.log(data, "", "hi\tthere", "§aVIP alex: hi\tthere");
+        writer.log(data, "staff", "back\\slash", "line");
+        writer.close();
+
+        File[] files = directory.listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        List<String> lines = Files.readAllLines(files[0].toPath(), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        String[] fields = lines.get(0).split("\t", -1);
+        assertEquals(7, fields.length);
+        assertEquals("00000000-0000-0000-0000-000000000001", fields[1]);
+        assertEquals("vip", fields[2]);
+        assertEquals("hi\\tthere", fields[5]);
+        assertEquals("staff", lines.get(1).split("\t", -1)[4]);
+        assertEquals("back\\\\slash", lines.get(1).split("\t", -1)[5]);
+
+        files[0].delete();
+        directory.delete();
+    }
+}
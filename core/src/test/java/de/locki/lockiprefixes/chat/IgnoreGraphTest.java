@@ -0,0 +1,52 @@
+package de.locki.lockiprefixes.chat;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IgnoreGraphTest {
+
+    private final IgnoreGraph<String> graph = new IgnoreGraph<>();
+    private final UUID alex = UUID.randomUUID();
+    private final UUID steve = UUID.randomUUID();
+    private final UUID notch = UUID.randomUUID();
+
+    @Test
+    public void filtersIgnoringRecipientsAndRelinksOnJoin() {
+        graph.join(alex, "alex", Collections.singletonList(steve));
+        assertFalse(graph.isIgnored(steve));
+
+        // steve comes online after alex stored him
+        graph.join(steve, "steve", Collections.<UUID>emptyList());
+        graph.join(notch, "notch", Collections.<UUID>emptyList());
+        assertTrue(graph.isIgnored(steve));
+
+        Set<String> recipients = new HashSet<>(Arrays.asList("alex", "steve", "notch"));
+        assertEquals(1, graph.removeIgnoring(steve, recipients));
+        assertEquals(new HashSet<>(Arrays.asList("steve", "notch")), recipients);
+
+        assertFalse(graph.toggle(alex, steve));
+        assertFalse(graph.isIgnored(steve));
+    }
+
+    @Test
+    public void reusesFreedSlotsAndDropsLinksOnQuit() {
+        assertEquals(0, graph.join(alex, "alex", Collections.<UUID>emptyList()));
+        assertEquals(1, graph.join(steve, "steve", Collections.<UUID>emptyList()));
+        assertTrue(graph.toggle(steve, alex));
+        assertTrue(graph.isIgnored(alex));
+
+        graph.quit(steve);
+        assertFalse(graph.isIgnored(alex));
+        assertEquals(1, graph.join(notch, "notch", Collections.<UUID>emptyList()));
+        assertEquals(2, graph.getSlotSpan());
+    }
+}
@@ -0,0 +1,58 @@
+package de.locki.lockiprefixes.chat;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MentionMatcherTest {
+
+    private static final UUID STEVE = UUID.randomUUID();
+    private static final UUID AN = UUID.randomUUID();
+    private static final UUID STEVE_2 = UUID.randomUUID();
+
+    @Test
+    public void findsWholeWordMentions() {
+        MentionMatcher matcher = new MentionMatcher();
+        matcher.add(STEVE, "Steve");
+        matcher.add(AN, "an");
+        matcher.add(STEVE_2, "Steve_2");
+
+        List<MentionMatcher.Mention> mentions = matcher.find("hey @steve, and an Steve_2!");
+        assertEquals(3, mentions.size());
+        assertEquals(STEVE, mentions.get(0).getId());
+        assertEquals("@steve", "hey @steve, and an Steve_2!".substring(mentions.get(0).getStart(), mentions.get(0).getEnd()));
+        assertEquals("Steve", mentions.get(0).getName());
+        // "an" inside "and" is not a mention
+        assertEquals(AN, mentions.get(1).getId());
+        assertEquals(16, mentions.get(1).getStart());
+        // The longer name wins where one name is a prefix of another
+        assertEquals(STEVE_2, mentions.get(2).getId());
+
+        assertTrue(matcher.find("Steves and stevenson").isEmpty());
+    }
+
+    @Test
+    public void rebuildsOnceAfterABurstOfChanges() {
+        MentionMatcher matcher = new MentionMatcher();
+        matcher.add(STEVE, "Steve");
+        matcher.add(AN, "an");
+        matcher.remove(AN);
+        assertEquals(1, matcher.find("steve").size());
+        assertEquals(1, matcher.getRebuilds());
+        assertTrue(matcher.find("an").isEmpty());
+        assertEquals(1, matcher.getRebuilds());
+
+        // The listener asks again for the message the formatter just scanned
+        String message = "gg steve";
+        assertSame(matcher.find(message), matcher.find(message));
+
+        matcher.remove(STEVE);
+        assertTrue(matcher.find(message).isEmpty());
+        assertEquals(2, matcher.getRebuilds());
+    }
+}
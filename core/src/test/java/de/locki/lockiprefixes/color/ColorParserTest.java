@@ -0,0 +1,21 @@
+package de.locki.lockiprefixes.color;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ColorParserTest {
+
+    @Test
+    public void findsTheTrailingStyleFromTheEnd() {
+        assertEquals("", ColorParser.trailingStyle("plain"));
+        assertEquals("§a§l§o", ColorParser.trailingStyle("§cred §aGreen §lbold §otext"));
+        assertEquals("§x§1§2§a§b§5§6§n", ColorParser.trailingStyle("§l§x§1§2§a§b§5§6hex §nunder"));
+        // A color right after a hex color is a color of its own
+        assertEquals("§7", ColorParser.trailingStyle("§x§1§2§3§4§5§6§7gray"));
+        // A cut-off hex color counts as its last digit, as the client reads it
+        assertEquals("§3", ColorParser.trailingStyle("§x§1§2§3"));
+        assertEquals("§k", ColorParser.trailingStyle("§kmagic"));
+        assertEquals("§c", ColorParser.trailingStyle(new StringBuilder("§cred §aafter"), 7));
+    }
+}
@@ -0,0 +1,46 @@
+package de.locki.lockiprefixes.color;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DualRenderedTest {
+
+    @Test
+    public void downsamplesOnceAndOnlyForLegacyViewers() {
+        UUID modern = UUID.randomUUID();
+        UUID old = UUID.randomUUID();
+        Map<UUID, ClientCapability> versions = new HashMap<>();
+        versions.put(modern, ClientCapability.HEX);
+        versions.put(old, ClientCapability.LEGACY);
+        ClientCapabilityResolver resolver = versions::get;
+
+        AtomicInteger downsampled = new AtomicInteger();
+        String hex = ColorParser.translate("&#ff4444Owner &f{name}", true);
+        DualRendered<String> line = new DualRendered<>(hex, text -> {
+            downsampled.incrementAndGet();
+            return ColorParser.downsampleHex(text);
+        });
+
+        assertSame(hex, line.get(resolver.resolve(modern)));
+        assertEquals(0, downsampled.get());
+        assertEquals("§cOwner §f{name}", line.get(resolver.resolve(old)));
+        assertSame(line.get(resolver.resolve(old)), line.get(ClientCapability.LEGACY));
+        assertEquals(1, downsampled.get());
+    }
+
+    @Test
+    public void detectsHexInTranslatedText() {
+        assertTrue(ColorParser.containsHex(ColorParser.translate("&#123456x", true)));
+        assertFalse(ColorParser.containsHex(ColorParser.translate("&cOwner", true)));
+        assertEquals(ClientCapability.LEGACY, ClientCapabilityResolver.fixed(ClientCapability.LEGACY).resolve(UUID.randomUUID()));
+    }
+}
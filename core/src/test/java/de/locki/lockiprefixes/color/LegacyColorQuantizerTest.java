@@ -0,0 +1,40 @@
+package de.locki.lockiprefixes.color;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class LegacyColorQuantizerTest {
+
+    @Test
+    public void paletteColorsMapToThemselves() {
+        String codes = "0123456789abcdef";
+        for (int i = 0; i < codes.length(); i++) {
+            char code = codes.charAt(i);
+            assertEquals(code, LegacyColorQuantizer.toCode(LegacyColorQuantizer.toRgb(code)));
+        }
+    }
+
+    @Test
+    public void mapsNearbyColorsToClosestCode() {
+        assertEquals('c', LegacyColorQuantizer.toCode("ff4444"));
+        assertEquals('6', LegacyColorQuantizer.toCode("ffa500"));
+        assertEquals('4', LegacyColorQuantizer.toCode("b00000"));
+        assertEquals('7', LegacyColorQuantizer.toCode("b0b0b0"));
+        assertEquals('f', LegacyColorQuantizer.toCode(0xFAFAFA));
+    }
+
+    @Test
+    public void downsamplesEveryHexFormat() {
+        assertEquals("§cOwner §7| §fName", ColorParser.translate("&#ff4444Owner &7| <#ffffff>Name", false));
+        assertEquals("§6Gold", ColorParser.downsampleHex("§x§f§f§a§5§0§0Gold"));
+        assertEquals("§6Gold", ColorParser.downsampleHex("&x&f&f&a&5&0&0Gold"));
+    }
+
+    @Test
+    public void leavesInvalidHexUntouched() {
+        String text = "&#ggggggA <#123456 B §x§1§2";
+        assertSame(text, ColorParser.downsampleHex(text));
+    }
+}
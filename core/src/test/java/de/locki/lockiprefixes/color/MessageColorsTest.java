@@ -0,0 +1,27 @@
+package de.locki.lockiprefixes.color;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class MessageColorsTest {
+
+    @Test
+    public void translatesOnlyAllowedCodes() {
+        String message = "&cred &lbold &#00ff00green <#0000ff>blue";
+        assertSame(message, ColorParser.translateMessage(message, MessageColors.NONE, true));
+        assertEquals("§cred &lbold &#00ff00green <#0000ff>blue",
+            ColorParser.translateMessage(message, MessageColors.COLORS, true));
+        assertEquals("&cred §lbold &#00ff00green <#0000ff>blue",
+            ColorParser.translateMessage(message, MessageColors.FORMATS, true));
+        assertEquals("&cred &lbold §x§0§0§f§f§0§0green §x§0§0§0§0§f§fblue",
+            ColorParser.translateMessage(message, MessageColors.HEX, true));
+        // Allowed codes match the config parser; hex falls back to legacy colors without hex support
+        assertEquals(ColorParser.translate(message, true), ColorParser.translateMessage(message, MessageColors.ALL, true));
+        assertEquals("§cred §lbold §" + LegacyColorQuantizer.toCode(0x00FF00) + "green",
+            ColorParser.translateMessage("&cred &lbold &#00ff00green", MessageColors.ALL, false));
+        // Incomplete codes stay as typed
+        assertEquals("50& more &#12 <#00ff00", ColorParser.translateMessage("50& more &#12 <#00ff00", MessageColors.ALL, true));
+    }
+}
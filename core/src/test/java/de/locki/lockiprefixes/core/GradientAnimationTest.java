@@ -0,0 +1,55 @@
+package de.locki.lockiprefixes.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class GradientAnimationTest {
+
+    private static final int[] STOPS = GradientAnimation.parseStops("#FF0000,#0000FF,#FF0000");
+
+    private static GradientAnimation animation(int speed, int frames, GradientAnimation.Direction direction) {
+        return new GradientAnimation(STOPS, speed, frames, direction, GradientAnimation.Easing.LINEAR, false, true);
+    }
+
+    @Test
+    public void framesFollowTheClock() {
+        GradientAnimation forward = animation(2, 4, GradientAnimation.Direction.FORWARD);
+        assertEquals(0, forward.frameAt(1));
+        assertEquals(1, forward.frameAt(2));
+        assertEquals(3, forward.frameAt(7));
+        assertEquals(0, forward.frameAt(8));
+
+        GradientAnimation backward = animation(1, 4, GradientAnimation.Direction.BACKWARD);
+        assertEquals(3, backward.frameAt(0));
+        assertEquals(0, backward.frameAt(3));
+
+        GradientAnimation pingpong = animation(1, 3, GradientAnimation.Direction.PINGPONG);
+        int[] expected = {0, 1, 2, 1, 0, 1};
+        for (int tick = 0; tick < expected.length; tick++) {
+            assertEquals(expected[tick], pingpong.frameAt(tick));
+        }
+    }
+
+    @Test
+    public void rendersEachFrameOnce() {
+        GradientAnimation animation = animation(1, 4, GradientAnimation.Direction.FORWARD);
+        String first = animation.frame("Owner", 0);
+        assertSame(first, animation.frame("Owner", 0));
+        assertEquals(GradientAnimation.render("Owner", STOPS, 0, false, true), first);
+        // Later frames shift the gradient
+        assertFalse(first.equals(animation.frame("Owner", 1)));
+        assertEquals(GradientAnimation.render("Owner", STOPS, 0.25f, false, true), animation.frame("Owner", 1));
+        assertNull(GradientAnimation.parseStops("#FF0000"));
+    }
+
+    @Test
+    public void animatedGradientUsesThePhase() {
+        String start = GradientUtils.getAnimatedGradient("Owner", "#FF0000", "#0000FF", 0, 10);
+        assertEquals(start, GradientUtils.getAnimatedGradient("Owner", "#FF0000", "#0000FF", 10, 10));
+        assertFalse(start.equals(GradientUtils.getAnimatedGradient("Owner", "#FF0000", "#0000FF", 5, 10)));
+    }
+}
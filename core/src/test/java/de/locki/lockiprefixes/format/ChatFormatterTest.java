@@ -0,0 +1,41 @@
+package de.locki.lockiprefixes.format;
+
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.placeholder.PlayerData;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChatFormatterTest {
+
+    @Test
+    public void keepsTheMessageApartFromRelationalPlaceholders() {
+        ChatFormatter chatFormatter = new ChatFormatter(new LockiConfig(), null, true);
+        PlayerData data = new PlayerData();
+        data.setName("Steve");
+        data.setMeta(Collections.singletonMap("chat-format", "%rel_a% {name}: {message} &7%rel_b%"));
+
+        String[] parts = chatFormatter.formatChatRelational(null, data, "hi %rel_c%");
+        assertArrayEquals(new String[] { "%rel_a% Steve: ", "hi %rel_c%", " §7%rel_b%" }, parts);
+        assertEquals(" Steve: ", ChatFormatter.stripRelational(parts[0]));
+    }
+
+    @Test
+    public void asksForStatsOnlyOnceAFormatUsesThem() {
+        ChatFormatter chatFormatter = new ChatFormatter(new LockiConfig(), null, true);
+        PlayerData data = new PlayerData();
+        data.setName("Steve");
+        data.setMeta(Collections.singletonMap("chat-format", "{name}: {message}"));
+        chatFormatter.formatChat(data, "hi");
+        assertFalse(chatFormatter.usesStats());
+
+        data.setMeta(Collections.singletonMap("chat-format", "{name} ({ping}ms): {message}"));
+        chatFormatter.formatChat(data, "hi");
+        assertTrue(chatFormatter.usesStats());
+    }
+}
@@ -0,0 +1,106 @@
+package de.locki.lockiprefixes.format;
+
+import de.locki.lockiprefixes.placeholder.PlaceholderProvider;
+import de.locki.lockiprefixes.placeholder.PlaceholderRegistry;
+import org.bukkit.entity.Player;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FormatCompilerTest {
+
+    private final FormatCompiler compiler = new FormatCompiler(true);
+
+    @Test
+    public void splitsGroupFormatIntoColoredLiteralAndNameSlot() {
+        FormatTemplate template = compiler.compile("&a&lVIP &7| &f{name}");
+        FormatTemplate.Segment[] segments = template.getSegments();
+
+        assertEquals(2, segments.length);
+        assertEquals(FormatTemplate.Segment.Kind.LITERAL, segments[0].kind);
+        assertEquals("§a§lVIP §7| §f", segments[0].value);
+        assertEquals(FormatTemplate.Segment.Kind.BUILT_IN, segments[1].kind);
+        assertEquals("name", segments[1].value);
+        assertNull(template.getEmptyPrefixVariant());
+    }
+
+    @Test
+    public void compilesMessagePapiAndAliasSlots() {
+        FormatTemplate template = compiler.compile("{user} %vault_eco_balance% » {message} {unknown} 50% off");
+        FormatTemplate.Segment[] segments = template.getSegments();
+
+        assertEquals(FormatTemplate.Segment.Kind.BUILT_IN, segments[0].kind);
+        assertEquals("name", segments[0].value);
+        assertEquals(FormatTemplate.Segment.Kind.PAPI, segments[2].kind);
+        assertEquals("%vault_eco_balance%", segments[2].value);
+        assertEquals(FormatTemplate.Segment.Kind.MESSAGE, segments[4].kind);
+        assertEquals(FormatTemplate.Segment.Kind.LITERAL, segments[5].kind);
+        assertEquals(" {unknown} 50% off", segments[5].value);
+    }
+
+    @Test
+    public void prefixFormatsGetSeparatorFreeVariant() {
+        FormatTemplate template = compiler.compile("{prefix} &7| &f{name}");
+        FormatTemplate variant = template.getEmptyPrefixVariant();
+
+        assertNotNull(variant);
+        assertEquals("&f{name}", variant.getSource());
+        assertEquals("§f", variant.getSegments()[0].value);
+    }
+
+    @Test
+    public void bindsRegisteredProvidersAndMarksPerTickTemplates() {
+        PlaceholderRegistry registry = new PlaceholderRegistry(Logger.getLogger("FormatCompilerTest"));
+        PlaceholderProvider clan = provider("clan", PlaceholderProvider.Dependency.PER_EVENT);
+        registry.register(clan);
+        FormatCompiler bound = new FormatCompiler(true, registry);
+
+        FormatTemplate template = bound.compile("{clan} {name}");
+        assertEquals(FormatTemplate.Segment.Kind.PROVIDER, template.getSegments()[0].kind);
+        assertSame(clan, template.getSegments()[0].provider);
+        assertFalse(template.isTickBound());
+
+        registry.register(provider("kills", PlaceholderProvider.Dependency.PER_TICK));
+        assertTrue(bound.compile("{kills}").isTickBound());
+        assertTrue(bound.compile("&7{ping}ms").isTickBound());
+        assertEquals(FormatTemplate.Segment.Kind.LITERAL, compiler.compile("{clan}").getSegments()[0].kind);
+    }
+
+    @Test
+    public void marksSlotsAndKeepsLiteralsUntranslated() {
+        List<String> tokens = new ArrayList<>();
+        String marked = compiler.markSlots("<gray>&7{user} %vault_eco_balance% » {message}", 'A', tokens);
+
+        assertEquals("<gray>&7A B » C", marked);
+        assertEquals(Arrays.asList("{name}", "%vault_eco_balance%", "{message}"), tokens);
+    }
+
+    private static PlaceholderProvider provider(final String key, final PlaceholderProvider.Dependency dependency) {
+        return new PlaceholderProvider() {
+            @Override
+            public String getKey() {
+                return key;
+            }
+
+            @Override
+            public Dependency getDependency() {
+                return dependency;
+            }
+
+            @Override
+            public String resolve(Player player) {
+                return key;
+            }
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package de.locki.lockiprefixes.format;
+
+import de.locki.lockiprefixes.color.ClientCapability;
+import de.locki.lockiprefixes.color.ColorParser;
+import de.locki.lockiprefixes.color.DualRendered;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LocalizedLineTest {
+
+    private static String match(String clientLocale) {
+        String locale = clientLocale.toLowerCase();
+        return locale.startsWith("de") ? "de" : locale.equals("fr_fr") ? "fr_fr" : null;
+    }
+
+    @Test
+    public void rendersEachLocaleInUseOnce() {
+        AtomicInteger renders = new AtomicInteger();
+        String line = ColorParser.translate("&#ff4444Helper &f| Steve: hi", true);
+        LocalizedLine<String> localized = new LocalizedLine<>(DualRendered.of(line), LocalizedLineTest::match, locale -> {
+            renders.incrementAndGet();
+            return "fr_fr".equals(locale) ? null
+                : DualRendered.of(ColorParser.translate("&#ff4444Helfer &f| Steve: hi", true));
+        });
+
+        // Viewers without a variant share the default line
+        assertSame(line, localized.get("en_us", ClientCapability.HEX));
+        assertSame(line, localized.get(null, ClientCapability.HEX));
+        assertEquals(0, renders.get());
+
+        // Many German viewers, one rendering (plus one legacy downsample)
+        String german = localized.get("de_DE", ClientCapability.HEX);
+        assertTrue(german.contains("Helfer"));
+        assertSame(german, localized.get("de_at", ClientCapability.HEX));
+        assertEquals("§cHelfer §f| Steve: hi", localized.get("de_de", ClientCapability.LEGACY));
+        assertSame(localized.get("de_de", ClientCapability.LEGACY), localized.get("de_ch", ClientCapability.LEGACY));
+
+        // A locale the sender has no variant for falls back to the default, also only checked once
+        assertSame(line, localized.get("fr_fr", ClientCapability.HEX));
+        assertSame(line, localized.get("fr_FR", ClientCapability.HEX));
+        assertEquals(2, renders.get());
+        assertEquals(1, localized.getVariantCount());
+        assertSame(line, localized.getDefault());
+    }
+
+    @Test
+    public void unlocalizedLineOnlyVariesByCapability() {
+        String line = ColorParser.translate("&#ff4444Owner &fSteve", true);
+        LocalizedLine<String> localized = LocalizedLine.of(DualRendered.of(line));
+
+        assertFalse(localized.isLocalized());
+        assertSame(line, localized.get("de_de", ClientCapability.HEX));
+        assertEquals("§cOwner §fSteve", localized.get("de_de", ClientCapability.LEGACY));
+    }
+}
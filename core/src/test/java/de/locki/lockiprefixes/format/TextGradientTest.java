@@ -0,0 +1,56 @@
+package de.locki.lockiprefixes.format;
+
+import de.locki.lockiprefixes.color.ColorParser;
+import de.locki.lockiprefixes.color.LegacyColorQuantizer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TextGradientTest {
+
+    @Test
+    public void interpolatesBetweenStops() {
+        TextGradient gradient = TextGradient.parse("#FF0000,#0000FF", true);
+        assertEquals("§x§f§f§0§0§0§0A§x§8§0§0§0§8§0B§x§0§0§0§0§f§fC", gradient.apply("ABC"));
+        // Format codes survive every color change, existing colors are replaced
+        assertEquals("§x§f§f§0§0§0§0§lA§x§0§0§0§0§f§f§lB", gradient.apply("§c§lAB"));
+        assertNull(TextGradient.parse("#FF0000", true));
+        assertNull(TextGradient.parse("#FF0000,blue", true));
+    }
+
+    @Test
+    public void reusesRampsPerLength() {
+        TextGradient gradient = TextGradient.parse("FF0000,00FF00,0000FF", false);
+        assertSame(gradient.ramp(12), gradient.ramp(12));
+        String[] ramp = gradient.ramp(12);
+        assertEquals("§" + LegacyColorQuantizer.toCode(0xFF0000), ramp[0]);
+        // Legacy colors only change where the nearest color changes
+        String legacy = gradient.apply("Administrator");
+        assertTrue(legacy.startsWith(ramp[0] + "A"));
+        assertTrue(legacy.length() < "Administrator".length() * 3);
+    }
+
+    @Test
+    public void compilesConstantGradientsAndKeepsSlotsDynamic() {
+        FormatCompiler compiler = new FormatCompiler(true);
+        FormatTemplate.Segment[] constant = compiler.compile("{gradient:#FF0000,#0000FF}Owner{/gradient} &7| {name}").getSegments();
+        assertEquals(FormatTemplate.Segment.Kind.LITERAL, constant[0].kind);
+        assertEquals(TextGradient.parse("#FF0000,#0000FF", true).apply("Owner"), constant[0].value);
+
+        FormatTemplate template = compiler.compile("{rainbow}&l{name}{/rainbow}&7: {message}");
+        FormatTemplate.Segment[] segments = template.getSegments();
+        assertEquals(FormatTemplate.Segment.Kind.GRADIENT, segments[0].kind);
+        assertEquals(FormatTemplate.Segment.Kind.LITERAL, segments[0].children[0].kind);
+        assertEquals(FormatTemplate.Segment.Kind.BUILT_IN, segments[0].children[1].kind);
+        assertEquals(2, template.getMessageIndex());
+
+        // Unclosed tags run to the end, invalid ones stay literal
+        assertEquals(FormatTemplate.Segment.Kind.GRADIENT,
+            compiler.compile("{gradient:#FFFFFF,#000000}{name}").getSegments()[0].kind);
+        assertEquals(ColorParser.translate("{gradient:#FFFFFF}x", true),
+            compiler.compile("{gradient:#FFFFFF}x").getSegments()[0].value);
+    }
+}
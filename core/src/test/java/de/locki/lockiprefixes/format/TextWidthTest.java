@@ -0,0 +1,66 @@
+package de.locki.lockiprefixes.format;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TextWidthTest {
+
+    @Test
+    public void measuresProportionalAndBoldGlyphs() {
+        assertEquals(6 + 2 + 3 + 2, TextWidth.width("Mili"));
+        assertEquals(4, TextWidth.width(" "));
+        assertEquals(TextWidth.width("Admin") + 5, TextWidth.width("§c§lAdmin"));
+        assertEquals(TextWidth.width("Admin"), TextWidth.width("§x§f§f§0§0§0§0Admin"));
+    }
+
+    @Test
+    public void padsToExactWidthAndKeepsStyle() {
+        // Gaps of 12px and more are filled exactly
+        for (int target = 43; target <= 80; target++) {
+            assertEquals("target " + target, target, TextWidth.width(TextWidth.pad("§aVIP", target)));
+            assertEquals("bold target " + target, target, TextWidth.width(TextWidth.pad("§c§lAdmin", target)));
+        }
+        String padded = TextWidth.pad("§c§lAdmin", 60);
+        assertTrue(padded.endsWith(" ") || padded.endsWith("§c§l"));
+        assertSame("Administrator", TextWidth.pad("Administrator", 10));
+    }
+
+    @Test
+    public void centersWithinWidth() {
+        String centered = TextWidth.center("§fSteve", 80);
+        assertEquals(80, TextWidth.width(centered));
+        assertTrue(centered.startsWith("    "));
+    }
+
+    @Test
+    public void truncatesWithEllipsis() {
+        String cut = TextWidth.truncate("§6Grandmaster", 40);
+        assertTrue(TextWidth.width(cut) <= 40);
+        assertTrue(cut.startsWith("§6Gr") && cut.endsWith("..."));
+        assertSame("§6VIP", TextWidth.truncate("§6VIP", 40));
+    }
+
+    @Test
+    public void compilesAlignedSlots() {
+        FormatCompiler compiler = new FormatCompiler(true);
+        FormatTemplate.Segment[] segments = compiler.compile("{pad:prefix:60}&7| {center:%player_name%:80}").getSegments();
+
+        assertEquals(FormatTemplate.Segment.Kind.ALIGNED, segments[0].kind);
+        assertEquals(FormatTemplate.Segment.Kind.BUILT_IN, segments[0].inner.kind);
+        assertEquals(60, segments[0].alignment.pixels);
+        assertEquals(FormatTemplate.Segment.Kind.PAPI, segments[2].inner.kind);
+        assertEquals(TextAlignment.Mode.CENTER, segments[2].alignment.mode);
+
+        assertNotNull(segments[0].alignment);
+        assertNull(segments[1].alignment);
+        assertEquals(FormatTemplate.Segment.Kind.LITERAL,
+            compiler.compile("{pad:nothing:60}").getSegments()[0].kind);
+        assertEquals(FormatTemplate.Segment.Kind.LITERAL,
+            compiler.compile("{pad:prefix:wide}").getSegments()[0].kind);
+    }
+}
@@ -0,0 +1,74 @@
+package de.locki.lockiprefixes.leaderboard;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RankedSkipListTest {
+
+    @Test
+    public void ranksAndPositionsMatchSortedOrder() {
+        RankedSkipList<Integer> list = new RankedSkipList<>(Comparator.<Integer>reverseOrder());
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            int value = random.nextInt(100000);
+            if (!expected.contains(value)) {
+                expected.add(value);
+                list.insert(value);
+            }
+        }
+        expected.sort(Collections.reverseOrder());
+
+        assertEquals(expected.size(), list.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i + 1, list.rankOf(expected.get(i)));
+            assertEquals(expected.get(i), list.get(i + 1));
+        }
+        assertNull(list.get(0));
+        assertNull(list.get(expected.size() + 1));
+    }
+
+    @Test
+    public void removeKeepsRanksConsistent() {
+        RankedSkipList<Integer> list = new RankedSkipList<>(Comparator.<Integer>naturalOrder());
+        for (int i = 1; i <= 100; i++) {
+            list.insert(i);
+        }
+
+        for (int i = 2; i <= 100; i += 2) {
+            assertTrue(list.remove(i));
+        }
+        assertFalse(list.remove(2));
+        assertFalse(list.remove(1000));
+
+        assertEquals(50, list.size());
+        assertEquals(1, list.rankOf(1));
+        assertEquals(26, list.rankOf(51));
+        assertEquals(0, list.rankOf(50));
+        assertEquals(Integer.valueOf(99), list.get(50));
+    }
+
+    @Test
+    public void reinsertMovesEntry() {
+        RankedSkipList<Integer> list = new RankedSkipList<>(Comparator.<Integer>reverseOrder());
+        list.insert(10);
+        list.insert(20);
+        list.insert(30);
+        assertEquals(3, list.rankOf(10));
+
+        list.remove(10);
+        list.insert(40);
+        assertEquals(1, list.rankOf(40));
+        assertEquals(Integer.valueOf(20), list.get(3));
+    }
+}
@@ -0,0 +1,53 @@
+package de.locki.lockiprefixes.placeholder;
+
+import de.locki.lockiprefixes.config.LockiConfig;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PlaceholderWatchdogTest {
+
+    private final PlaceholderWatchdog watchdog = new PlaceholderWatchdog(new LockiConfig());
+    private final UUID player = UUID.randomUUID();
+
+    @Test
+    public void tripsAfterRepeatedFailuresAndServesLastGoodValue() {
+        final AtomicInteger calls = new AtomicInteger();
+        assertEquals("1000", watchdog.parse("%eco_balance%", player, t -> "1000"));
+
+        Function<String, String> failing = t -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("database down");
+        };
+        for (int i = 0; i < 3; i++) {
+            assertEquals("1000", watchdog.parse("%eco_balance%", player, failing));
+        }
+        assertEquals(3, calls.get());
+        assertEquals(1, watchdog.getTripped().size());
+        assertTrue(watchdog.getTripped().get(0).startsWith("%eco_balance%"));
+
+        // While tripped the placeholder is not evaluated at all
+        assertEquals("1000", watchdog.parse("%eco_balance%", player, failing));
+        assertEquals(3, calls.get());
+        assertEquals("", watchdog.parse("%eco_balance%", UUID.randomUUID(), failing));
+    }
+
+    @Test
+    public void fastCallsResetTheFailureStreak() {
+        Function<String, String> failing = t -> {
+            throw new IllegalStateException();
+        };
+        watchdog.parse("%clan_tag%", player, failing);
+        watchdog.parse("%clan_tag%", player, failing);
+        watchdog.parse("%clan_tag%", player, t -> "[A]");
+        watchdog.parse("%clan_tag%", player, failing);
+
+        assertTrue(watchdog.getTripped().isEmpty());
+        assertEquals(0, watchdog.getTotalTrips());
+    }
+}
@@ -1,24 +1,51 @@
 package de.locki.lockiprefixes;
 
+import de.locki.lockiprefixes.channel.ChannelManager;
 import de.locki.lockiprefixes.chat.AdventureChatListener;
+import de.locki.lockiprefixes.chat.ChatFloodGuard;
+import de.locki.lockiprefixes.chat.ChatHistory;
+import de.locki.lockiprefixes.chat.ChatLogWriter;
+import de.locki.lockiprefixes.chat.IgnoreManager;
+import de.locki.lockiprefixes.chat.LegacyDownsampler;
+import de.locki.lockiprefixes.chat.MentionManager;
+import de.locki.lockiprefixes.chat.MiniMessageTemplates;
+import de.locki.lockiprefixes.chat.PaperChatRendererListener;
+import de.locki.lockiprefixes.chat.RankCards;
+import de.locki.lockiprefixes.chat.VirtualThreadChatPipeline;
+import de.locki.lockiprefixes.color.ClientCapability;
+import de.locki.lockiprefixes.color.ClientCapabilityResolver;
+import de.locki.lockiprefixes.color.MessageColorCache;
+import de.locki.lockiprefixes.color.ViaVersionCapabilityResolver;
+import de.locki.lockiprefixes.command.IgnoreCommand;
 import de.locki.lockiprefixes.command.ReloadCommand;
 import de.locki.lockiprefixes.config.LockiConfig;
 import de.locki.lockiprefixes.format.ChatFormatter;
 import de.locki.lockiprefixes.gui.PrefixChatInputListener;
 import de.locki.lockiprefixes.gui.PrefixGuiListener;
 import de.locki.lockiprefixes.gui.PrefixMenuManager;
+import de.locki.lockiprefixes.leaderboard.LeaderboardService;
+import de.locki.lockiprefixes.leaderboard.RegionLeaderboardService;
 import de.locki.lockiprefixes.lp.LuckPermsFacade;
 import de.locki.lockiprefixes.papi.LockiPrefixesExpansion;
+import de.locki.lockiprefixes.placeholder.PlaceholderRegistry;
 import de.locki.lockiprefixes.placeholder.PlayerData;
+import de.locki.lockiprefixes.placeholder.PlayerStatsSampler;
+import de.locki.lockiprefixes.placeholder.RegionStatsSampler;
+import de.locki.lockiprefixes.stats.StatsReport;
 import de.locki.lockiprefixes.tablist.TablistManager;
 import de.locki.lockiprefixes.update.UpdateNotifier;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import net.luckperms.api.LuckPerms;
 import org.bstats.bukkit.Metrics;
 import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -37,14 +64,30 @@ public class LockiPrefixesPlugin extends JavaPlugin {
     private LockiConfig lockiConfig;
     private LuckPermsFacade luckPermsFacade;
     private ChatFormatter chatFormatter;
+    private PlaceholderRegistry placeholderRegistry;
+    private VirtualThreadChatPipeline chatPipeline;
+    private ChatFloodGuard chatFloodGuard;
     private TablistManager tablistManager;
     private PrefixMenuManager prefixMenuManager;
+    private LeaderboardService leaderboardService;
+    private ChannelManager channelManager;
+    private IgnoreManager ignoreManager;
+    private MessageColorCache messageColorCache;
+    private MentionManager mentionManager;
+    private PlayerStatsSampler statsSampler;
+    private ChatHistory<Component> chatHistory;
+    private ChatLogWriter chatLog;
+    private RankCards rankCards;
+    private MiniMessageTemplates miniMessageTemplates;
+    private ClientCapabilityResolver capabilityResolver;
+    private ScheduledTask leaderboardRefreshTask;
     private UpdateNotifier updateNotifier;
     
     private boolean luckPermsAvailable = false;
     private boolean placeholderApiAvailable = false;
     private boolean tabPluginAvailable = false;
     private boolean secureProfileEnforced = true;
+    private boolean adventureChat = false;
     private final List<String> missingDependencies = new ArrayList<>();
 
     @Override
@@ -73,14 +116,52 @@ public class LockiPrefixesPlugin extends JavaPlugin {
             if (luckPerms != null) {
                 luckPermsFacade = new LuckPermsFacade(luckPerms);
                 
-                // Initialize formatter with hex support
-                chatFormatter = new ChatFormatter(lockiConfig, luckPermsFacade, true);
+                // Placeholder providers from other plugins ({key} slots in any format)
+                placeholderRegistry = new PlaceholderRegistry(getLogger());
+                getServer().getPluginManager().registerEvents(placeholderRegistry, this);
+                getServer().getServicesManager().register(PlaceholderRegistry.class, placeholderRegistry, this, ServicePriority.Normal);
 
-                // Register chat listener (Adventure-based)
-                getServer().getPluginManager().registerEvents(
-                    new AdventureChatListener(this, chatFormatter, luckPermsFacade),
-                    this
-                );
+                // Initialize formatter with hex support
+                chatFormatter = new ChatFormatter(lockiConfig, luckPermsFacade, true, placeholderRegistry);
+
+                // Online names for mentions, highlighted by the formatter and pinged by the chat listener
+                mentionManager = new MentionManager(this, lockiConfig);
+                mentionManager.start();
+                chatFormatter.setMentionMatcher(mentionManager.getMatcher());
+
+                // Stat placeholders ({ping}, {health}, ...) read snapshots taken on each player's region
+                statsSampler = new RegionStatsSampler();
+                statsSampler.start(this);
+                chatFormatter.setStatsSampler(statsSampler);
+
+                // Hover rank cards on chat names (cached per player, see RankCards)
+                rankCards = new RankCards(lockiConfig);
+                getServer().getPluginManager().registerEvents(rankCards, this);
+                // MiniMessage chat formats, parsed once per format (chat.minimessage)
+                miniMessageTemplates = new MiniMessageTemplates(lockiConfig, rankCards);
+                // Viewer capabilities: pre-1.16 clients joining through ViaVersion get hex colors downsampled
+                capabilityResolver = getServer().getPluginManager().getPlugin("ViaVersion") != null
+                    ? ViaVersionCapabilityResolver.create(this, ClientCapability.HEX) : null;
+
+                // Chat color permissions, cached per player until LuckPerms recalculates them
+                messageColorCache = new MessageColorCache(this, luckPermsFacade);
+                messageColorCache.start();
+
+                // Register chat listener: Paper ChatRenderer (keeps recipients) or Adventure broadcast
+                if ("renderer".equals(lockiConfig.getChatMode())) {
+                    getServer().getPluginManager().registerEvents(
+                        new PaperChatRendererListener(this, luckPermsFacade),
+                        this
+                    );
+                    getLogger().info("Chat mode: renderer (AsyncChatEvent).");
+                } else {
+                    adventureChat = true;
+                    getServer().getPluginManager().registerEvents(
+                        new AdventureChatListener(this, luckPermsFacade),
+                        this
+                    );
+                }
+                startChatPipeline();
                 
                 // Register tablist manager only when TAB plugin is NOT present
                 if (!tabPluginAvailable) {
@@ -90,6 +171,28 @@ public class LockiPrefixesPlugin extends JavaPlugin {
                     getLogger().info("TAB plugin detected - internal tablist disabled. Use placeholder %lockiprefixes_formatted% in TAB. (Guide: https://leifiyo.dev/docs/placeholders)");
                 }
 
+                // Leaderboard ranking (backs %lockiprefixes_position% and %lockiprefixes_top_<n>%)
+                leaderboardService = new RegionLeaderboardService(this, lockiConfig, this::createPlayerData);
+                leaderboardService.start(luckPermsFacade);
+                scheduleLeaderboardRefresh();
+
+                // Chat channels (membership sets maintained on join/quit/world change/permission changes)
+                channelManager = new ChannelManager(this, lockiConfig);
+                channelManager.start(luckPermsFacade);
+
+                // Ignore lists (/ignore), persisted as LuckPerms meta
+                ignoreManager = new IgnoreManager(this, luckPermsFacade);
+                ignoreManager.start();
+
+                // Last global chat lines (as delivered Components), replayed to joining players
+                chatHistory = new ChatHistory<>(lockiConfig, (player, line) -> player.sendMessage(
+                    capabilityResolver != null && capabilityResolver.resolve(player.getUniqueId()) == ClientCapability.LEGACY
+                        ? LegacyDownsampler.downsample(line) : line), ignoreManager);
+                getServer().getPluginManager().registerEvents(chatHistory, this);
+
+                // Chat audit log (background writer, see ChatLogWriter)
+                startChatLog();
+
                 // Initialize Prefix Manager GUI
                 prefixMenuManager = new PrefixMenuManager(this, luckPermsFacade);
                 getServer().getPluginManager().registerEvents(new PrefixGuiListener(prefixMenuManager), this);
@@ -113,10 +216,16 @@ public class LockiPrefixesPlugin extends JavaPlugin {
         } else {
             getLogger().severe("Command 'lockiprefixes' not found in plugin.yml — command registration skipped.");
         }
+        org.bukkit.command.PluginCommand ignoreCmd = getCommand("ignore");
+        if (ignoreCmd != null && ignoreManager != null) {
+            IgnoreCommand ignoreCommand = new IgnoreCommand(ignoreManager);
+            ignoreCmd.setExecutor(ignoreCommand);
+            ignoreCmd.setTabCompleter(ignoreCommand);
+        }
 
         // Register PlaceholderAPI expansion if available
         if (placeholderApiAvailable && chatFormatter != null) {
-            new LockiPrefixesExpansion(this, this::getChatFormatter, this::createPlayerData).register();
+            new LockiPrefixesExpansion(this, this::getChatFormatter, this::createPlayerData, leaderboardService).register();
             getLogger().info("PlaceholderAPI expansion registered.");
         }
 
@@ -160,6 +269,19 @@ public class LockiPrefixesPlugin extends JavaPlugin {
         if (updateNotifier != null) {
             updateNotifier.stop();
         }
+        if (leaderboardRefreshTask != null) {
+            leaderboardRefreshTask.cancel();
+        }
+        if (statsSampler != null) {
+            statsSampler.stop();
+        }
+        if (chatPipeline != null) {
+            chatPipeline.close();
+        }
+        // After the pipeline, so renders it still delivers are logged
+        if (chatLog != null) {
+            chatLog.close();
+        }
         if (luckPermsFacade != null) {
             luckPermsFacade.clearCache();
         }
@@ -261,15 +383,86 @@ public class LockiPrefixesPlugin extends JavaPlugin {
         lockiConfig.load(getConfig());
         if (luckPermsFacade != null) {
             luckPermsFacade.clearCache();
-            chatFormatter = new ChatFormatter(lockiConfig, luckPermsFacade, true);
+            chatFormatter = new ChatFormatter(lockiConfig, luckPermsFacade, true, placeholderRegistry);
+            if (mentionManager != null) {
+                chatFormatter.setMentionMatcher(mentionManager.getMatcher());
+            }
+            if (statsSampler != null) {
+                chatFormatter.setStatsSampler(statsSampler);
+            }
             // Update tablist for all players
             if (tablistManager != null) {
+                tablistManager.reloadAnimations();
                 tablistManager.updateAll();
             }
+            if (leaderboardService != null) {
+                leaderboardService.reload();
+                scheduleLeaderboardRefresh();
+            }
+            if (channelManager != null) {
+                channelManager.rebuild();
+            }
+            startChatPipeline();
+            startChatLog();
         }
         getLogger().info("Configuration reloaded.");
     }
 
+    /**
+     * (Re)creates the flood guard and, in broadcast mode, the virtual-thread pipeline so changed chat
+     * settings apply. The old pipeline still delivers the lines it accepted; the listener picks up the new ones per message.
+     */
+    private void startChatPipeline() {
+        if (chatPipeline != null) {
+            chatPipeline.shutdown();
+            chatPipeline = null;
+        }
+        if (chatFloodGuard != null) {
+            HandlerList.unregisterAll(chatFloodGuard);
+            chatFloodGuard = null;
+        }
+        if (adventureChat && lockiConfig.isChatVirtualThreads()) {
+            chatPipeline = new VirtualThreadChatPipeline(getLogger(),
+                lockiConfig.getChatMaxConcurrentRenders(), lockiConfig.getChatRenderTimeoutMs());
+            getLogger().info("Chat formatting runs on virtual threads.");
+        }
+        if (lockiConfig.isChatFloodGuard()) {
+            chatFloodGuard = new ChatFloodGuard(lockiConfig.getChatFloodBurst(), lockiConfig.getChatFloodPerSecond(),
+                lockiConfig.getChatFloodMaxQueue(), lockiConfig.getChatFloodCoalesceWindowMs());
+            getServer().getPluginManager().registerEvents(chatFloodGuard, this);
+        }
+    }
+
+    /**
+     * (Re)starts the chat log so changed chat.log settings apply; the old writer is flushed first.
+     */
+    private void startChatLog() {
+        if (chatLog != null) {
+            chatLog.close();
+            chatLog = null;
+        }
+        if (lockiConfig.isChatLogEnabled()) {
+            chatLog = new ChatLogWriter(new File(getDataFolder(), "chat-logs"), getLogger(), lockiConfig);
+            chatLog.start();
+        }
+    }
+
+    /**
+     * Placeholder-based ranking keys have no change event, so they are re-sampled on a timer.
+     */
+    private void scheduleLeaderboardRefresh() {
+        if (leaderboardRefreshTask != null) {
+            leaderboardRefreshTask.cancel();
+            leaderboardRefreshTask = null;
+        }
+        if (!leaderboardService.needsPolling()) {
+            return;
+        }
+        long interval = lockiConfig.getLeaderboardRefreshInterval();
+        leaderboardRefreshTask = getServer().getGlobalRegionScheduler().runAtFixedRate(this,
+            task -> leaderboardService.refreshAll(), interval, interval);
+    }
+
     /**
      * Updates groups.<group>.chat-format in config.yml and reloads runtime state.
      */
@@ -346,6 +539,98 @@ public class LockiPrefixesPlugin extends JavaPlugin {
     public LuckPermsFacade getLuckPermsFacade() {
         return luckPermsFacade;
     }
+
+    public PlaceholderRegistry getPlaceholderRegistry() {
+        return placeholderRegistry;
+    }
+
+    public ChannelManager getChannelManager() {
+        return channelManager;
+    }
+
+    public MessageColorCache getMessageColorCache() {
+        return messageColorCache;
+    }
+
+    /** Ignore lists, or null when LuckPerms is unavailable. */
+    public IgnoreManager getIgnoreManager() {
+        return ignoreManager;
+    }
+
+    /** Mention tracking, or null when LuckPerms is unavailable. */
+    public MentionManager getMentionManager() {
+        return mentionManager;
+    }
+
+    public ChatHistory<Component> getChatHistory() {
+        return chatHistory;
+    }
+
+    /** Hover rank cards for chat names, or null without LuckPerms. */
+    public RankCards getRankCards() {
+        return rankCards;
+    }
+
+    /** Compiled MiniMessage chat formats, or null without LuckPerms. */
+    public MiniMessageTemplates getMiniMessageTemplates() {
+        return miniMessageTemplates;
+    }
+
+    /** Viewer client capabilities (hex or legacy colors), or null without ViaVersion. */
+    public ClientCapabilityResolver getCapabilityResolver() {
+        return capabilityResolver;
+    }
+
+    /** The virtual-thread chat pipeline, or null when chat.virtual-threads.enabled is off. */
+    public VirtualThreadChatPipeline getChatPipeline() {
+        return chatPipeline;
+    }
+
+    /** The chat flood guard, or null when chat.flood.enabled is off. */
+    public ChatFloodGuard getChatFloodGuard() {
+        return chatFloodGuard;
+    }
+
+    /** The chat audit log, or null when chat.log.enabled is off. */
+    public ChatLogWriter getChatLog() {
+        return chatLog;
+    }
+
+    public LeaderboardService getLeaderboardService() {
+        return leaderboardService;
+    }
+
+    /**
+     * Collects runtime statistics for /lockiprefixes stats.
+     */
+    public StatsReport buildStatsReport() {
+        StatsReport report = new StatsReport();
+        if (chatFormatter != null) {
+            chatFormatter.appendStats(report);
+        }
+        if (miniMessageTemplates != null && lockiConfig.isChatMiniMessage()) {
+            miniMessageTemplates.appendStats(report);
+        }
+        if (channelManager != null && lockiConfig.isChannelsEnabled()) {
+            channelManager.appendStats(report);
+        }
+        if (ignoreManager != null) {
+            ignoreManager.appendStats(report);
+        }
+        if (mentionManager != null) {
+            mentionManager.appendStats(report);
+        }
+        if (chatLog != null) {
+            chatLog.appendStats(report);
+        }
+        if (chatPipeline != null) {
+            chatPipeline.appendStats(report);
+        }
+        if (chatFloodGuard != null) {
+            chatFloodGuard.appendStats(report);
+        }
+        return report;
+    }
     
     public boolean isLuckPermsAvailable() {
         return luckPermsAvailable;
@@ -1,10 +1,17 @@
 package de.locki.lockiprefixes.chat;
 
 import de.locki.lockiprefixes.LockiPrefixesPlugin;
+import de.locki.lockiprefixes.channel.ChannelManager;
+import de.locki.lockiprefixes.color.ClientCapability;
+import de.locki.lockiprefixes.color.ClientCapabilityResolver;
+import de.locki.lockiprefixes.color.DualRendered;
+import de.locki.lockiprefixes.config.LockiConfig;
 import de.locki.lockiprefixes.format.ChatFormatter;
+import de.locki.lockiprefixes.format.LocalizedLine;
 import de.locki.lockiprefixes.lp.LuckPermsFacade;
 import de.locki.lockiprefixes.placeholder.PlayerData;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
@@ -14,14 +21,24 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.UUID;
+
 /**
  * Chat listener for Latest versions (1.20-1.21).
  * Uses legacy AsyncPlayerChatEvent to avoid secure chat signature issues.
+ * With a {@link VirtualThreadChatPipeline}, LuckPerms lookups and formatting run on a virtual thread.
+ * With a {@link ChatFloodGuard}, messages must be admitted before they are formatted at all.
+ * With chat.minimessage, lines are rendered from {@link MiniMessageTemplates}.
+ * Locale variants (groups.&lt;group&gt;.locales) are rendered once per locale in use, see {@link LocalizedLine}.
  */
 @SuppressWarnings("deprecation")
 public class AdventureChatListener implements Listener {
 
-    private final ChatFormatter chatFormatter;
+    static final ClientLocaleResolver CLIENT_LOCALE = player -> player.locale().toString();
+
+    private final LockiPrefixesPlugin plugin;
     private final LuckPermsFacade luckPermsFacade;
     
     // Legacy serializer with hex support
@@ -32,38 +49,205 @@ public class AdventureChatListener implements Listener {
             .useUnusualXRepeatedCharacterHexFormat()
             .build();
 
-    public AdventureChatListener(LockiPrefixesPlugin plugin, ChatFormatter chatFormatter, LuckPermsFacade luckPermsFacade) {
-        this.chatFormatter = chatFormatter;
+    public AdventureChatListener(LockiPrefixesPlugin plugin, LuckPermsFacade luckPermsFacade) {
+        this.plugin = plugin;
         this.luckPermsFacade = luckPermsFacade;
     }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onChat(AsyncPlayerChatEvent event) {
+        // Looked up per message so /lockiprefixes reload takes effect
+        ChatFormatter chatFormatter = plugin.getChatFormatter();
+        VirtualThreadChatPipeline pipeline = plugin.getChatPipeline();
+        ChatFloodGuard floodGuard = plugin.getChatFloodGuard();
         // Skip if formatter is not available (LuckPerms not installed)
         if (chatFormatter == null || luckPermsFacade == null) {
             return;
         }
         
         Player player = event.getPlayer();
+        String message = event.getMessage();
+
+        // Backpressure: rate-limited, coalesced and dropped messages never reach the formatter
+        if (floodGuard != null) {
+            ChatFloodGuard.Verdict verdict = floodGuard.admit(player.getUniqueId(), message);
+            if (verdict != ChatFloodGuard.Verdict.ACCEPTED) {
+                event.setCancelled(true);
+                if (verdict == ChatFloodGuard.Verdict.RATE_LIMITED && floodGuard.shouldWarn(player.getUniqueId())) {
+                    player.sendMessage(Component.text("You are sending messages too fast.", NamedTextColor.RED));
+                }
+                return;
+            }
+        }
+
+        // Every admitted message completes exactly once: here, or in the pipeline's delivery
+        boolean handedOff = false;
+        try {
+            // Build player data
+            PlayerData playerData = new PlayerData();
+            playerData.setUuid(player.getUniqueId());
+            playerData.setName(player.getName());
+            playerData.setDisplayName(PlainTextComponentSerializer.plainText().serialize(player.displayName()));
+            playerData.setWorld(player.getWorld().getName());
+            // Codes the sender may use in the message (lockiprefixes.chat.color/format/hex)
+            playerData.setMessageColors(plugin.getMessageColorCache().get(player));
+
+            // Channel routing (null when channels are disabled)
+            ChannelManager channelManager = plugin.getChannelManager();
+            ChannelManager.Route route = channelManager != null ? channelManager.route(player, message) : null;
+            Collection<Player> recipients = recipients(event, player, channelManager, route);
+            boolean global = route == null || route.isGlobal();
+
+            if (pipeline != null) {
+                event.setCancelled(true);
+                pipeline.submit(
+                    player.getUniqueId(),
+                    () -> {
+                        luckPermsFacade.populatePlayerData(playerData);
+                        return render(chatFormatter, playerData, message, route);
+                    },
+                    LocalizedLine.of(LegacyDownsampler.dual(
+                        Component.text(player.getName() + ": " + (route != null ? route.getMessage() : message)))),
+                    line -> {
+                        try {
+                            send(line, recipients, player.getUniqueId(), global);
+                            pingMentions(plugin, player, route != null ? route.getMessage() : message, recipients);
+                        } finally {
+                            if (floodGuard != null) {
+                                floodGuard.complete();
+                            }
+                        }
+                    }
+                );
+                handedOff = true;
+                return;
+            }
+
+            // Populate LuckPerms data
+            luckPermsFacade.populatePlayerData(playerData);
+
+            // Format the message using our formatter
+            LocalizedLine<Component> formatted = render(chatFormatter, playerData, message, route);
+
+            // Cancel original event
+            event.setCancelled(true);
+
+            send(formatted, recipients, player.getUniqueId(), global);
+            pingMentions(plugin, player, route != null ? route.getMessage() : message, recipients);
+        } finally {
+            if (floodGuard != null && !handedOff) {
+                floodGuard.complete();
+            }
+        }
+    }
+
+    /**
+     * Renders the default line and, when the config has locale variants, a renderer for them.
+     */
+    private LocalizedLine<Component> render(ChatFormatter chatFormatter, PlayerData playerData, String message,
+                                            ChannelManager.Route route) {
+        String channelId = route != null ? route.getChannel().getId() : null;
+        String text = route != null ? route.getMessage() : message;
+        DualRendered<Component> line = LegacyDownsampler.dual(render(chatFormatter, playerData, channelId, text, null));
+        LockiConfig config = chatFormatter.getConfig();
+        if (!config.hasLocaleVariants()) {
+            return LocalizedLine.of(line);
+        }
+        return new LocalizedLine<>(line, config::matchLocale, locale ->
+            chatFormatter.hasChatVariant(channelId, playerData, locale)
+                ? LegacyDownsampler.dual(render(chatFormatter, playerData, channelId, text, locale)) : null);
+    }
 
-        // Build player data
-        PlayerData playerData = new PlayerData();
-        playerData.setUuid(player.getUniqueId());
-        playerData.setName(player.getName());
-        playerData.setDisplayName(PlainTextComponentSerializer.plainText().serialize(player.displayName()));
-        playerData.setWorld(player.getWorld().getName());
+    /**
+     * Renders the line from the compiled MiniMessage template, or from the legacy format with the
+     * name marked so {@link RankCards} can attach the hover card. Only the default line
+     * (locale null) is written to the chat log.
+     */
+    private Component render(ChatFormatter chatFormatter, PlayerData playerData, String channelId, String text,
+                             String locale) {
+        ChatLogWriter chatLog = locale == null ? plugin.getChatLog() : null;
 
-        // Populate LuckPerms data
-        luckPermsFacade.populatePlayerData(playerData);
+        MiniMessageTemplates miniMessage = plugin.getMiniMessageTemplates();
+        if (miniMessage != null && miniMessage.isEnabled()) {
+            Component component = miniMessage.render(chatFormatter, channelId, playerData, text, locale);
+            if (chatLog != null) {
+                chatLog.log(playerData, channelId != null ? channelId : "", text, LEGACY_SERIALIZER.serialize(component));
+            }
+            return component;
+        }
 
-        // Format the message using our formatter
-        String formatted = chatFormatter.formatChat(playerData, event.getMessage());
+        RankCards rankCards = plugin.getRankCards();
+        boolean markName = rankCards != null && rankCards.isEnabled();
+        String formatted = chatFormatter.formatChat(channelId, playerData, text, markName, locale);
+        if (chatLog != null) {
+            chatLog.log(playerData, channelId != null ? channelId : "", text, RankCards.strip(formatted));
+        }
+        return rankCards != null ? rankCards.decorate(formatted, playerData) : LEGACY_SERIALIZER.deserialize(formatted);
+    }
+
+    /**
+     * Explicit recipients for non-global channels or when someone ignores the sender;
+     * null means a plain server broadcast.
+     */
+    private Collection<Player> recipients(AsyncPlayerChatEvent event, Player player,
+                                          ChannelManager channelManager, ChannelManager.Route route) {
+        Collection<Player> recipients = route != null && !route.isGlobal()
+            ? new ArrayList<>(channelManager.getRecipients(route, player))
+            : null;
+        IgnoreManager ignoreManager = plugin.getIgnoreManager();
+        if (ignoreManager != null && ignoreManager.isIgnored(player)) {
+            if (recipients == null) {
+                recipients = new ArrayList<>(event.getRecipients());
+            }
+            ignoreManager.removeIgnoring(player, recipients);
+        }
+        return recipients;
+    }
 
-        // Cancel original event
-        event.setCancelled(true);
+    /**
+     * Broadcasts to the whole server, or only to a channel's recipients (plus console).
+     * With ViaVersion or locale variants, each viewer gets the variant for its locale and client.
+     * Global lines are kept for replay to joining players.
+     */
+    private void send(LocalizedLine<Component> line, Collection<Player> recipients, UUID sender, boolean global) {
+        Component component = line.getDefault();
+        ClientCapabilityResolver resolver = plugin.getCapabilityResolver();
+        if (resolver != null || line.isLocalized()) {
+            // Per viewer: each (locale, client) variant is built at most once per message
+            for (Player recipient : recipients != null ? recipients : Bukkit.getOnlinePlayers()) {
+                ClientCapability capability = resolver != null
+                    ? resolver.resolve(recipient.getUniqueId()) : ClientCapability.HEX;
+                recipient.sendMessage(line.get(CLIENT_LOCALE.resolve(recipient), capability));
+            }
+            Bukkit.getConsoleSender().sendMessage(component);
+        } else if (recipients == null) {
+            Bukkit.getServer().sendMessage(component);
+        } else {
+            for (Player recipient : recipients) {
+                recipient.sendMessage(component);
+            }
+            Bukkit.getConsoleSender().sendMessage(component);
+        }
+        ChatHistory<Component> history = plugin.getChatHistory();
+        if (global && history != null) {
+            history.record(sender, component);
+        }
+    }
 
-        // Convert to Adventure Component and broadcast
-        Component formattedComponent = LEGACY_SERIALIZER.deserialize(formatted);
-        Bukkit.getServer().sendMessage(formattedComponent);
+    /**
+     * Plays the mention sound to mentioned recipients, each on its own region's scheduler.
+     * The formatter already scanned the message, so this reuses its mentions.
+     *
+     * @param recipients The recipients, or null for everyone online
+     */
+    static void pingMentions(LockiPrefixesPlugin plugin, Player sender, String text, Collection<?> recipients) {
+        MentionManager mentionManager = plugin.getMentionManager();
+        if (mentionManager == null) {
+            return;
+        }
+        for (Player target : mentionManager.mentioned(sender, text,
+                recipients != null ? recipients : Bukkit.getOnlinePlayers())) {
+            target.getScheduler().run(plugin, task -> mentionManager.ping(target), null);
+        }
     }
 }
@@ -0,0 +1,179 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.stats.StatsReport;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Backpressure for chat bursts. Every message must be admitted before it is formatted:
+ *
+ * - Each sender has a token bucket (burst size, refill per second); empty bucket = rate-limited.
+ * - Admitted messages count towards a bounded queue until delivered; full queue = dropped.
+ * - Once the queue is half full, a message identical to one admitted within the coalesce
+ *   window (from anyone — bot waves usually repeat the same text) is coalesced away.
+ *
+ * Drops are counted instead of letting formatting latency grow without limit.
+ */
+public class ChatFloodGuard implements Listener {
+
+    public enum Verdict {
+        ACCEPTED,
+        RATE_LIMITED,
+        COALESCED,
+        DROPPED
+    }
+
+    private final int burst;
+    private final double refillPerNano;
+    private final int maxQueue;
+    private final long coalesceWindowNanos;
+
+    private final Map<UUID, TokenBucket> buckets = new ConcurrentHashMap<>();
+    // Recently admitted message texts (lower case) -> admission time, consulted only under saturation
+    private final Map<String, Long> recentMessages = new ConcurrentHashMap<>();
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Per-second delivery throughput
+    private long currentSecond;
+    private int currentCount;
+    private int lastSecondCount;
+    private int peakPerSecond;
+
+    public ChatFloodGuard(int burst, double perSecond, int maxQueue, long coalesceWindowMillis) {
+        this.burst = burst;
+        this.refillPerNano = perSecond / 1_000_000_000.0;
+        this.maxQueue = maxQueue;
+        this.coalesceWindowNanos = coalesceWindowMillis * 1_000_000L;
+    }
+
+    /**
+     * Decides whether a message may enter the formatting pipeline.
+     * Every ACCEPTED message must be followed by exactly one {@link #complete()}.
+     */
+    public Verdict admit(UUID sender, String message) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(sender, uuid -> new TokenBucket(burst, now));
+        if (!bucket.tryConsume(now)) {
+            rateLimited.incrementAndGet();
+            return Verdict.RATE_LIMITED;
+        }
+
+        int depth = queueDepth.incrementAndGet();
+        if (depth > maxQueue) {
+            queueDepth.decrementAndGet();
+            dropped.incrementAndGet();
+            return Verdict.DROPPED;
+        }
+
+        if (depth > maxQueue / 2) {
+            String key = message.trim().toLowerCase(Locale.ROOT);
+            Long seen = recentMessages.put(key, now);
+            if (seen != null && now - seen < coalesceWindowNanos) {
+                queueDepth.decrementAndGet();
+                coalesced.incrementAndGet();
+                return Verdict.COALESCED;
+            }
+            if (recentMessages.size() > maxQueue * 4) {
+                recentMessages.entrySet().removeIf(e -> now - e.getValue() >= coalesceWindowNanos);
+            }
+        }
+        return Verdict.ACCEPTED;
+    }
+
+    /**
+     * Marks an admitted message as delivered (or abandoned).
+     */
+    public void complete() {
+        queueDepth.decrementAndGet();
+        recordDelivery();
+    }
+
+    /**
+     * Whether the sender should be told they were rate-limited (once per empty-bucket streak).
+     */
+    public boolean shouldWarn(UUID sender) {
+        TokenBucket bucket = buckets.get(sender);
+        return bucket != null && bucket.warn();
+    }
+
+    private synchronized void recordDelivery() {
+        long second = System.nanoTime() / 1_000_000_000L;
+        if (second != currentSecond) {
+            lastSecondCount = second == currentSecond + 1 ? currentCount : 0;
+            currentSecond = second;
+            currentCount = 0;
+        }
+        currentCount++;
+        if (currentCount > peakPerSecond) {
+            peakPerSecond = currentCount;
+        }
+    }
+
+    private synchronized int throughput() {
+        long second = System.nanoTime() / 1_000_000_000L;
+        if (second == currentSecond) {
+            return lastSecondCount;
+        }
+        return second == currentSecond + 1 ? currentCount : 0;
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        buckets.remove(event.getPlayer().getUniqueId());
+    }
+
+    public void appendStats(StatsReport report) {
+        int peak;
+        synchronized (this) {
+            peak = peakPerSecond;
+        }
+        report.section("Chat flood guard")
+            .line("Throughput", throughput() + " msg/s (peak " + peak + ")")
+            .line("Queue depth", queueDepth.get() + "/" + maxQueue)
+            .line("Rate-limited", rateLimited.get())
+            .line("Coalesced duplicates", coalesced.get())
+            .line("Dropped (queue full)", dropped.get());
+    }
+
+    private final class TokenBucket {
+        private double tokens;
+        private long lastRefill;
+        private boolean warned;
+
+        TokenBucket(int tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryConsume(long now) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+            if (tokens >= 1.0) {
+                tokens -= 1.0;
+                warned = false;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized boolean warn() {
+            if (warned) {
+                return false;
+            }
+            warned = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.color.DualRendered;
+import de.locki.lockiprefixes.color.LegacyColorQuantizer;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps the hex colors of a Component tree (including hover text) to the nearest legacy colors,
+ * for viewers on pre-1.16 clients. Uses the same table as {@link LegacyColorQuantizer}, so a
+ * line looks the same whether it was downsampled as a string or as a Component.
+ */
+public final class LegacyDownsampler {
+
+    private LegacyDownsampler() {
+    }
+
+    /**
+     * A dual line for a Component; the legacy variant is built on first use.
+     */
+    public static DualRendered<Component> dual(Component component) {
+        return new DualRendered<>(component, LegacyDownsampler::downsample);
+    }
+
+    public static Component downsample(Component component) {
+        Style style = component.style();
+        Style mapped = downsample(style);
+        List<Component> children = component.children();
+        List<Component> mappedChildren = children;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component mappedChild = downsample(child);
+            if (mappedChild != child && mappedChildren == children) {
+                mappedChildren = new ArrayList<>(children);
+            }
+            if (mappedChildren != children) {
+                mappedChildren.set(i, mappedChild);
+            }
+        }
+        if (mapped == style && mappedChildren == children) {
+            return component;
+        }
+        return component.style(mapped).children(mappedChildren);
+    }
+
+    private static Style downsample(Style style) {
+        Style result = style;
+        TextColor color = style.color();
+        if (color != null && !(color instanceof NamedTextColor)) {
+            result = result.color(nearest(color));
+        }
+        HoverEvent<?> hover = style.hoverEvent();
+        if (hover != null && hover.action() == HoverEvent.Action.SHOW_TEXT) {
+            Component text = (Component) hover.value();
+            Component mappedText = downsample(text);
+            if (mappedText != text) {
+                result = result.hoverEvent(HoverEvent.showText(mappedText));
+            }
+        }
+        return result;
+    }
+
+    private static NamedTextColor nearest(TextColor color) {
+        return NamedTextColor.namedColor(LegacyColorQuantizer.toRgb(LegacyColorQuantizer.toCode(color.value())));
+    }
+}
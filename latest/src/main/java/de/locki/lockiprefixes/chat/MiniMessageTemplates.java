@@ -0,0 +1,222 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.color.ColorParser;
+import de.locki.lockiprefixes.color.MessageColors;
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.format.ChatFormatter;
+import de.locki.lockiprefixes.placeholder.PlayerData;
+import de.locki.lockiprefixes.stats.StatsReport;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chat formats written in MiniMessage (chat.minimessage).
+ *
+ * A format is parsed once: its {..} and %..% slots are swapped for private-use marker characters,
+ * the result goes through MiniMessage, and the Component tree is flattened into a list of
+ * pre-built literal Components and slots that remember the style in effect at their position.
+ * Rendering a message only resolves the slot values and joins the pieces — no tag parsing.
+ *
+ * The message never goes through MiniMessage, so players cannot inject tags. Its &-codes and
+ * hex colors are only translated as far as the sender's {@link MessageColors} allow, and
+ * mentions are highlighted as in legacy formats.
+ */
+public class MiniMessageTemplates {
+
+    private static final char SLOT_BASE = '\uE100';
+    private static final int MAX_SLOTS = 256;
+
+    private static final LegacyComponentSerializer LEGACY_SERIALIZER =
+        LegacyComponentSerializer.builder()
+            .character('§')
+            .hexColors()
+            .useUnusualXRepeatedCharacterHexFormat()
+            .build();
+
+    private final LockiConfig config;
+    private final RankCards rankCards;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+    private final AtomicLong compiled = new AtomicLong();
+    private volatile int generation = -1;
+
+    /**
+     * @param config    Supplies chat.minimessage and the config generation
+     * @param rankCards Hover cards for {name}/{displayname}, or null
+     */
+    public MiniMessageTemplates(LockiConfig config, RankCards rankCards) {
+        this.config = config;
+        this.rankCards = rankCards;
+    }
+
+    public boolean isEnabled() {
+        return config.isChatMiniMessage();
+    }
+
+    /**
+     * Renders a chat line from the player's (channel) format.
+     *
+     * @param chatFormatter The formatter resolving formats and slot values
+     * @param channelId     The channel id, or null for normal chat
+     * @param playerData    The player data
+     * @param message       The chat message
+     */
+    public Component render(ChatFormatter chatFormatter, String channelId, PlayerData playerData, String message) {
+        return render(chatFormatter, channelId, playerData, message, null);
+    }
+
+    /**
+     * Renders a chat line for viewers with the given locale key (see LockiConfig#matchLocale).
+     */
+    public Component render(ChatFormatter chatFormatter, String channelId, PlayerData playerData, String message,
+                            String locale) {
+        Template template = template(chatFormatter, chatFormatter.getChatFormat(channelId, playerData, locale));
+        boolean hover = rankCards != null && rankCards.isEnabled();
+
+        List<Component> children = new ArrayList<>(template.pieces.length);
+        for (Piece piece : template.pieces) {
+            if (piece.literal != null) {
+                children.add(piece.literal);
+                continue;
+            }
+            String token = template.tokens[piece.slot];
+            Component value;
+            if ("{message}".equals(token)) {
+                value = message(chatFormatter, message, playerData.getMessageColors(), piece.style);
+            } else {
+                value = value(chatFormatter.resolveSlot(token, playerData, locale), piece.style);
+                if (hover && ("{name}".equals(token) || "{displayname}".equals(token))) {
+                    value = rankCards.decorateName(value, playerData);
+                }
+            }
+            children.add(value);
+        }
+        return Component.text().append(children).build();
+    }
+
+    private Template template(ChatFormatter chatFormatter, String format) {
+        int current = config.getGeneration();
+        if (current != generation) {
+            templates.clear();
+            generation = current;
+        }
+        return templates.computeIfAbsent(format, f -> compile(chatFormatter, f));
+    }
+
+    private Template compile(ChatFormatter chatFormatter, String format) {
+        compiled.incrementAndGet();
+        List<String> tokens = new ArrayList<>();
+        String marked = chatFormatter.markSlots(format, SLOT_BASE, tokens);
+        if (tokens.size() > MAX_SLOTS) {
+            // Markers would leave the private-use block; treat the whole format as text
+            return new Template(new Piece[] { Piece.literal(MiniMessage.miniMessage().deserialize(format)) },
+                new String[0]);
+        }
+        List<Piece> pieces = new ArrayList<>();
+        flatten(MiniMessage.miniMessage().deserialize(marked), Style.empty(), pieces);
+        return new Template(pieces.toArray(new Piece[0]), tokens.toArray(new String[0]));
+    }
+
+    /**
+     * Walks the parsed tree depth-first, giving every node the style it inherits from its parents,
+     * and splits text at the slot markers.
+     */
+    private static void flatten(Component component, Style parent, List<Piece> out) {
+        Style style = component.style().merge(parent, Style.Merge.Strategy.IF_ABSENT_ON_TARGET);
+        if (component instanceof TextComponent) {
+            String content = ((TextComponent) component).content();
+            int start = 0;
+            for (int i = 0; i < content.length(); i++) {
+                int slot = content.charAt(i) - SLOT_BASE;
+                if (slot < 0 || slot >= MAX_SLOTS) {
+                    continue;
+                }
+                if (i > start) {
+                    out.add(Piece.literal(Component.text(content.substring(start, i), style)));
+                }
+                out.add(Piece.slot(slot, style));
+                start = i + 1;
+            }
+            if (start < content.length()) {
+                out.add(Piece.literal(Component.text(content.substring(start), style)));
+            }
+        } else {
+            // Translatable, keybind, etc.: kept whole, children are flattened separately
+            out.add(Piece.literal(component.children(Collections.emptyList()).style(style)));
+        }
+        for (Component child : component.children()) {
+            flatten(child, style, out);
+        }
+    }
+
+    /**
+     * A slot value in the slot's style. Values with &-codes (prefixes, meta) keep their own colors.
+     */
+    private static Component value(String raw, Style style) {
+        String translated = ColorParser.translate(raw, true);
+        if (translated.indexOf('§') < 0) {
+            return Component.text(translated, style);
+        }
+        return LEGACY_SERIALIZER.deserialize(translated).applyFallbackStyle(style);
+    }
+
+    /**
+     * The chat message in the slot's style, with only the codes the sender may use translated
+     * and mentions highlighted. Plain messages stay a single text Component.
+     */
+    private static Component message(ChatFormatter chatFormatter, String raw, int allowed, Style style) {
+        String translated = chatFormatter.formatMessage(raw, allowed);
+        if (translated.indexOf('§') < 0) {
+            return Component.text(translated, style);
+        }
+        return LEGACY_SERIALIZER.deserialize(translated).applyFallbackStyle(style);
+    }
+
+    public void appendStats(StatsReport report) {
+        report.section("MiniMessage templates")
+            .line("Cached", templates.size())
+            .line("Compiled", compiled.get());
+    }
+
+    private static final class Template {
+        final Piece[] pieces;
+        final String[] tokens;
+
+        Template(Piece[] pieces, String[] tokens) {
+            this.pieces = pieces;
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * Either a ready literal Component or a slot index with the style it is rendered in.
+     */
+    private static final class Piece {
+        final Component literal;
+        final int slot;
+        final Style style;
+
+        private Piece(Component literal, int slot, Style style) {
+            this.literal = literal;
+            this.slot = slot;
+            this.style = style;
+        }
+
+        static Piece literal(Component literal) {
+            return new Piece(literal, -1, null);
+        }
+
+        static Piece slot(int slot, Style style) {
+            return new Piece(null, slot, style);
+        }
+    }
+}
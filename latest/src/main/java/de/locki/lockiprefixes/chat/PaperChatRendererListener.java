@@ -0,0 +1,235 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.LockiPrefixesPlugin;
+import de.locki.lockiprefixes.channel.ChannelManager;
+import de.locki.lockiprefixes.color.ClientCapability;
+import de.locki.lockiprefixes.color.ClientCapabilityResolver;
+import de.locki.lockiprefixes.color.DualRendered;
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.format.ChatFormatter;
+import de.locki.lockiprefixes.format.LocalizedLine;
+import de.locki.lockiprefixes.lp.LuckPermsFacade;
+import de.locki.lockiprefixes.placeholder.PlayerData;
+import io.papermc.paper.chat.ChatRenderer;
+import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chat listener for the "renderer" chat mode (Paper AsyncChatEvent + ChatRenderer).
+ * Unlike {@link AdventureChatListener} the event is not cancelled, so Paper delivers the
+ * message to {@code event.viewers()} — other plugins' recipient filtering and console
+ * output keep working.
+ *
+ * The line is formatted once per message and the same Component is handed to every viewer.
+ * Only formats with relational placeholders (%rel_...%) are rendered per viewer, and even
+ * then identical results share one Component. Viewers whose locale has a variant
+ * (groups.&lt;group&gt;.locales) share one Component per locale, see {@link LocalizedLine}.
+ * Messages the {@link ChatFloodGuard} rejects are cancelled before they are formatted.
+ */
+public class PaperChatRendererListener implements Listener {
+
+    private static final LegacyComponentSerializer LEGACY_SERIALIZER =
+        LegacyComponentSerializer.builder()
+            .character('§')
+            .hexColors()
+            .useUnusualXRepeatedCharacterHexFormat()
+            .build();
+
+    private final LockiPrefixesPlugin plugin;
+    private final LuckPermsFacade luckPermsFacade;
+    private final boolean papiAvailable;
+
+    public PaperChatRendererListener(LockiPrefixesPlugin plugin, LuckPermsFacade luckPermsFacade) {
+        this.plugin = plugin;
+        this.luckPermsFacade = luckPermsFacade;
+        this.papiAvailable = Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onChat(AsyncChatEvent event) {
+        // Looked up per message so /lockiprefixes reload takes effect
+        ChatFormatter chatFormatter = plugin.getChatFormatter();
+        if (chatFormatter == null || luckPermsFacade == null) {
+            return;
+        }
+
+        Player player = event.getPlayer();
+        String message = PlainTextComponentSerializer.plainText().serialize(event.message());
+
+        // Backpressure: rejected messages are cancelled before anything is formatted
+        ChatFloodGuard floodGuard = plugin.getChatFloodGuard();
+        if (floodGuard != null) {
+            ChatFloodGuard.Verdict verdict = floodGuard.admit(player.getUniqueId(), message);
+            if (verdict != ChatFloodGuard.Verdict.ACCEPTED) {
+                event.setCancelled(true);
+                if (verdict == ChatFloodGuard.Verdict.RATE_LIMITED && floodGuard.shouldWarn(player.getUniqueId())) {
+                    player.sendMessage(Component.text("You are sending messages too fast.", NamedTextColor.RED));
+                }
+                return;
+            }
+        }
+        try {
+            format(event, chatFormatter, player, message);
+        } finally {
+            if (floodGuard != null) {
+                floodGuard.complete();
+            }
+        }
+    }
+
+    /**
+     * Formats the line once and installs the renderer Paper hands it to the viewers with.
+     */
+    private void format(AsyncChatEvent event, ChatFormatter chatFormatter, Player player, String message) {
+        PlayerData playerData = new PlayerData();
+        playerData.setUuid(player.getUniqueId());
+        playerData.setName(player.getName());
+        playerData.setDisplayName(PlainTextComponentSerializer.plainText().serialize(player.displayName()));
+        playerData.setWorld(player.getWorld().getName());
+        // Codes the sender may use in the message (lockiprefixes.chat.color/format/hex)
+        playerData.setMessageColors(plugin.getMessageColorCache().get(player));
+        luckPermsFacade.populatePlayerData(playerData);
+
+        // Channel routing: non-global channels replace the viewers with the channel's members
+        ChannelManager channelManager = plugin.getChannelManager();
+        ChannelManager.Route route = channelManager != null ? channelManager.route(player, message) : null;
+        // Rank cards need the name span marked; relational lines are rendered per viewer without them
+        RankCards rankCards = plugin.getRankCards();
+        boolean relational = papiAvailable && chatFormatter.isChatViewerDependent(playerData);
+        boolean markName = !relational && rankCards != null && rankCards.isEnabled();
+        // MiniMessage templates render once per message; relational lines keep the legacy per-viewer path
+        MiniMessageTemplates miniMessage = plugin.getMiniMessageTemplates();
+        boolean useMiniMessage = !relational && miniMessage != null && miniMessage.isEnabled();
+        String channelId = route != null ? route.getChannel().getId() : null;
+        String text = route != null ? route.getMessage() : message;
+        if (route != null && !route.isGlobal()) {
+            event.viewers().clear();
+            event.viewers().addAll(channelManager.getRecipients(route, player));
+            event.viewers().add(Bukkit.getConsoleSender());
+        }
+        Component miniMessageLine = useMiniMessage ? miniMessage.render(chatFormatter, channelId, playerData, text) : null;
+        // Relational lines keep the message apart, so %rel_...% is only resolved in the format's own text
+        String[] parts = relational ? chatFormatter.formatChatRelational(channelId, playerData, text) : null;
+        String formatted = useMiniMessage ? null
+            : relational ? parts[0] + parts[1] + parts[2]
+            : chatFormatter.formatChat(channelId, playerData, text, markName);
+
+        ChatLogWriter chatLog = plugin.getChatLog();
+        if (chatLog != null) {
+            chatLog.log(playerData, channelId != null ? channelId : "", text,
+                useMiniMessage ? LEGACY_SERIALIZER.serialize(miniMessageLine) : RankCards.strip(formatted));
+        }
+
+        IgnoreManager ignoreManager = plugin.getIgnoreManager();
+        if (ignoreManager != null) {
+            ignoreManager.removeIgnoring(player, event.viewers());
+        }
+        AdventureChatListener.pingMentions(plugin, player, text, event.viewers());
+
+        if (relational) {
+            event.renderer(new RelationalRenderer(chatFormatter, parts));
+        } else {
+            Component rendered = useMiniMessage ? miniMessageLine
+                : markName ? rankCards.decorate(formatted, playerData) : LEGACY_SERIALIZER.deserialize(formatted);
+            LocalizedLine<Component> line = localize(LegacyDownsampler.dual(rendered), chatFormatter, channelId,
+                playerData, text, useMiniMessage ? miniMessage : null, markName ? rankCards : null);
+            ClientCapabilityResolver resolver = plugin.getCapabilityResolver();
+            if (resolver == null && !line.isLocalized()) {
+                event.renderer((source, sourceDisplayName, msg, viewer) -> rendered);
+            } else {
+                // Pre-1.16 viewers and each locale in use share one Component, built on first use
+                event.renderer((source, sourceDisplayName, msg, viewer) -> {
+                    if (!(viewer instanceof Player)) {
+                        return rendered;
+                    }
+                    Player target = (Player) viewer;
+                    ClientCapability capability = resolver != null
+                        ? resolver.resolve(target.getUniqueId()) : ClientCapability.HEX;
+                    return line.get(AdventureChatListener.CLIENT_LOCALE.resolve(target), capability);
+                });
+            }
+            // Per-viewer (relational) lines are not replayed; they have no single rendering
+            ChatHistory<Component> history = plugin.getChatHistory();
+            if (history != null && (route == null || route.isGlobal())) {
+                history.record(player.getUniqueId(), rendered);
+            }
+        }
+    }
+
+    /**
+     * Wraps the default line with a renderer for the sender's locale variants, if the config has any.
+     *
+     * @param miniMessage The templates to render with, or null for the legacy format
+     * @param rankCards   Rank cards to decorate legacy lines with, or null
+     */
+    private static LocalizedLine<Component> localize(DualRendered<Component> line, ChatFormatter chatFormatter,
+                                                     String channelId, PlayerData playerData, String text,
+                                                     MiniMessageTemplates miniMessage, RankCards rankCards) {
+        LockiConfig config = chatFormatter.getConfig();
+        if (!config.hasLocaleVariants()) {
+            return LocalizedLine.of(line);
+        }
+        return new LocalizedLine<>(line, config::matchLocale, locale -> {
+            if (!chatFormatter.hasChatVariant(channelId, playerData, locale)) {
+                return null;
+            }
+            if (miniMessage != null) {
+                return LegacyDownsampler.dual(miniMessage.render(chatFormatter, channelId, playerData, text, locale));
+            }
+            String formatted = chatFormatter.formatChat(channelId, playerData, text, rankCards != null, locale);
+            return LegacyDownsampler.dual(rankCards != null
+                ? rankCards.decorate(formatted, playerData) : LEGACY_SERIALIZER.deserialize(formatted));
+        });
+    }
+
+    /**
+     * Resolves %rel_...% placeholders per player viewer in the head and tail of the line, around
+     * the already translated message; viewers that end up with the same text (e.g. all "enemies")
+     * share one Component. The console gets the line without them.
+     */
+    private static final class RelationalRenderer implements ChatRenderer {
+
+        private final ChatFormatter chatFormatter;
+        private final String head;
+        private final String message;
+        private final String tail;
+        private final Map<String, Component> rendered = new ConcurrentHashMap<>();
+        private volatile Component withoutRelational;
+
+        RelationalRenderer(ChatFormatter chatFormatter, String[] parts) {
+            this.chatFormatter = chatFormatter;
+            this.head = parts[0];
+            this.message = parts[1];
+            this.tail = parts[2];
+        }
+
+        @Override
+        public Component render(Player source, Component sourceDisplayName, Component msg, Audience viewer) {
+            if (!(viewer instanceof Player)) {
+                Component component = withoutRelational;
+                if (component == null) {
+                    component = LEGACY_SERIALIZER.deserialize(ChatFormatter.stripRelational(head) + message
+                        + ChatFormatter.stripRelational(tail));
+                    withoutRelational = component;
+                }
+                return component;
+            }
+            Player target = (Player) viewer;
+            String text = chatFormatter.parseRelational(source, target, head) + message
+                + chatFormatter.parseRelational(source, target, tail);
+            return rendered.computeIfAbsent(text, LEGACY_SERIALIZER::deserialize);
+        }
+    }
+}
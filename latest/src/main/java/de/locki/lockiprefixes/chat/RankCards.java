@@ -0,0 +1,252 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.color.ColorParser;
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.format.ChatFormatter;
+import de.locki.lockiprefixes.placeholder.PlayerData;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hover rank cards and click-to-message on player names in chat.
+ *
+ * The group part of a card is built once per (group, config generation); the full card and
+ * click event are cached per player and only rebuilt when one of its inputs (group, prefixes,
+ * world, name) changes. Attaching them to a chat line splits the rendered line at the name
+ * markers emitted by {@link ChatFormatter}. The part up to the name rarely changes between
+ * messages, so its Components (including the decorated name) are kept with the card; per message
+ * only the text after the name is deserialized.
+ */
+public class RankCards implements Listener {
+
+    private static final LegacyComponentSerializer LEGACY_SERIALIZER =
+        LegacyComponentSerializer.builder()
+            .character('§')
+            .hexColors()
+            .useUnusualXRepeatedCharacterHexFormat()
+            .build();
+
+    private static final DateTimeFormatter JOIN_TIME = DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault());
+
+    private final LockiConfig config;
+    private final Map<UUID, Long> joinTimes = new ConcurrentHashMap<>();
+    private final Map<UUID, Card> cards = new ConcurrentHashMap<>();
+    private final Map<String, Component> groupLines = new ConcurrentHashMap<>();
+    private volatile int generation = -1;
+
+    public RankCards(LockiConfig config) {
+        this.config = config;
+    }
+
+    public boolean isEnabled() {
+        return config.isChatHoverEnabled();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        joinTimes.put(event.getPlayer().getUniqueId(), System.currentTimeMillis());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        joinTimes.remove(uuid);
+        cards.remove(uuid);
+    }
+
+    /**
+     * Turns a line rendered with name markers into a Component whose name span carries the
+     * player's rank card and click action. Lines without markers are deserialized as-is.
+     */
+    public Component decorate(String formatted, PlayerData playerData) {
+        int start = formatted.indexOf(ChatFormatter.NAME_START);
+        int end = start >= 0 ? formatted.indexOf(ChatFormatter.NAME_END, start + 1) : -1;
+        if (end < 0) {
+            return LEGACY_SERIALIZER.deserialize(strip(formatted));
+        }
+        Card card = card(playerData);
+        Head head = card.head;
+        if (head == null || !head.matches(formatted, start, end)) {
+            head = head(card, formatted, start, end);
+            card.head = head;
+        }
+        String after = strip(formatted.substring(end + 1));
+        return Component.text()
+            .append(head.before)
+            .append(head.name)
+            .append(LEGACY_SERIALIZER.deserialize(head.afterStyle + after))
+            .build();
+    }
+
+    /**
+     * Deserializes the part of a line up to the end of the name. Legacy colors carry over into
+     * the following text, so the name and the rest start with the style in effect before them.
+     */
+    private static Head head(Card card, String formatted, int start, int end) {
+        String before = formatted.substring(0, start);
+        String name = formatted.substring(start + 1, end);
+        Component nameComponent = LEGACY_SERIALIZER.deserialize(ColorParser.trailingStyle(before) + name)
+            .hoverEvent(card.hover)
+            .clickEvent(card.click);
+        return new Head(before, name, LEGACY_SERIALIZER.deserialize(before), nameComponent,
+            ColorParser.trailingStyle(before + name));
+    }
+
+    /**
+     * Attaches the player's rank card and click action to an already built name Component.
+     */
+    public Component decorateName(Component name, PlayerData playerData) {
+        Card card = card(playerData);
+        return name.hoverEvent(card.hover).clickEvent(card.click);
+    }
+
+    /**
+     * Removes name markers, e.g. for the chat log or when hover cards are off.
+     */
+    public static String strip(String formatted) {
+        if (formatted.indexOf(ChatFormatter.NAME_START) < 0) {
+            return formatted;
+        }
+        return formatted.replace(String.valueOf(ChatFormatter.NAME_START), "")
+            .replace(String.valueOf(ChatFormatter.NAME_END), "");
+    }
+
+    private Card card(PlayerData playerData) {
+        int current = config.getGeneration();
+        if (current != generation) {
+            groupLines.clear();
+            cards.clear();
+            generation = current;
+        }
+        UUID uuid = playerData.getUuid();
+        Card card = cards.get(uuid);
+        if (card == null || !card.matches(playerData, current)) {
+            card = build(playerData, current);
+            cards.put(uuid, card);
+        }
+        return card;
+    }
+
+    private Card build(PlayerData playerData, int generation) {
+        String group = playerData.getPrimaryGroup() != null ? playerData.getPrimaryGroup() : "default";
+        Component groupLine = groupLines.computeIfAbsent(group, g -> Component.text()
+            .append(Component.text("Rank: ", NamedTextColor.GRAY))
+            .append(Component.text(g, NamedTextColor.WHITE))
+            .build());
+
+        TextComponent.Builder card = Component.text()
+            .append(Component.text(playerData.getName() != null ? playerData.getName() : "", NamedTextColor.WHITE,
+                TextDecoration.BOLD))
+            .append(Component.newline())
+            .append(groupLine);
+
+        List<String> prefixes = playerData.getPrefixes() != null ? playerData.getPrefixes() : Collections.<String>emptyList();
+        if (!prefixes.isEmpty()) {
+            card.append(Component.newline()).append(Component.text("Prefixes: ", NamedTextColor.GRAY));
+            for (int i = 0; i < prefixes.size(); i++) {
+                if (i > 0) {
+                    card.append(Component.text(", ", NamedTextColor.DARK_GRAY));
+                }
+                card.append(LEGACY_SERIALIZER.deserialize(ColorParser.translate(prefixes.get(i), true)));
+            }
+        }
+        if (playerData.getWorld() != null) {
+            card.append(Component.newline())
+                .append(Component.text("World: ", NamedTextColor.GRAY))
+                .append(Component.text(playerData.getWorld(), NamedTextColor.WHITE));
+        }
+        Long joined = joinTimes.get(playerData.getUuid());
+        if (joined != null) {
+            card.append(Component.newline())
+                .append(Component.text("Joined: ", NamedTextColor.GRAY))
+                .append(Component.text(JOIN_TIME.format(Instant.ofEpochMilli(joined)), NamedTextColor.WHITE));
+        }
+
+        String suggest = config.getChatClickSuggest();
+        ClickEvent click = null;
+        if (suggest != null && !suggest.isEmpty() && playerData.getName() != null) {
+            card.append(Component.newline())
+                .append(Component.text("Click to message", NamedTextColor.DARK_GRAY, TextDecoration.ITALIC));
+            click = ClickEvent.suggestCommand(suggest.replace("{name}", playerData.getName()));
+        }
+        return new Card(playerData, generation, HoverEvent.showText(card.build()), click);
+    }
+
+    /**
+     * A player's cached card and the inputs it was built from.
+     */
+    private static final class Card {
+        final int generation;
+        final String group;
+        final String name;
+        final String world;
+        final List<String> prefixes;
+        final HoverEvent<Component> hover;
+        final ClickEvent click;
+        // Last decorated line start; replaced when the rendered text up to the name changes
+        volatile Head head;
+
+        Card(PlayerData playerData, int generation, HoverEvent<Component> hover, ClickEvent click) {
+            this.generation = generation;
+            this.group = playerData.getPrimaryGroup();
+            this.name = playerData.getName();
+            this.world = playerData.getWorld();
+            this.prefixes = playerData.getPrefixes();
+            this.hover = hover;
+            this.click = click;
+        }
+
+        boolean matches(PlayerData playerData, int currentGeneration) {
+            return generation == currentGeneration
+                && Objects.equals(group, playerData.getPrimaryGroup())
+                && Objects.equals(name, playerData.getName())
+                && Objects.equals(world, playerData.getWorld())
+                && Objects.equals(prefixes, playerData.getPrefixes());
+        }
+    }
+
+    /**
+     * The Components of a line up to and including the decorated name, and the style after it.
+     */
+    private static final class Head {
+        final String beforeText;
+        final String nameText;
+        final Component before;
+        final Component name;
+        final String afterStyle;
+
+        Head(String beforeText, String nameText, Component before, Component name, String afterStyle) {
+            this.beforeText = beforeText;
+            this.nameText = nameText;
+            this.before = before;
+            this.name = name;
+            this.afterStyle = afterStyle;
+        }
+
+        boolean matches(String formatted, int start, int end) {
+            return beforeText.length() == start && nameText.length() == end - start - 1
+                && formatted.regionMatches(0, beforeText, 0, start)
+                && formatted.regionMatches(start + 1, nameText, 0, nameText.length());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.stats.StatsReport;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Renders chat lines on virtual threads so a blocking LuckPerms lookup or PAPI expansion
+ * does not hold Paper's async chat thread.
+ *
+ * - At most {@code maxConcurrent} renders run at once (a semaphore, waited on by the virtual thread).
+ * - Lines of one sender are delivered in the order they were sent, even if a later one renders first.
+ * - A render that does not finish within the timeout is replaced by the fallback line and interrupted.
+ *   Renders that ignore the interrupt keep their permit; they are reported as stuck in the stats.
+ */
+public class VirtualThreadChatPipeline {
+
+    private final Logger logger;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long timeoutMillis;
+
+    // Last pending delivery per sender; each new line is chained behind it
+    private final Map<UUID, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicInteger stuck = new AtomicInteger();
+
+    // Render states, see submit
+    private static final int RUNNING = 0;
+    private static final int DONE = 1;
+    private static final int ABANDONED = 2;
+
+    public VirtualThreadChatPipeline(Logger logger, int maxConcurrent, long timeoutMillis) {
+        this.logger = logger;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Renders a line off-thread and delivers it in per-sender order.
+     *
+     * @param sender   The sending player
+     * @param render   Produces the formatted line (may block)
+     * @param fallback Line used when rendering times out or fails
+     * @param deliver  Sends the line
+     * @param <T>      The line type (legacy string or Component)
+     */
+    public <T> void submit(UUID sender, Supplier<T> render, T fallback, Consumer<T> deliver) {
+        inFlight.incrementAndGet();
+
+        CompletableFuture<T> rendered = new CompletableFuture<>();
+        AtomicInteger state = new AtomicInteger(RUNNING);
+        Runnable task = () -> {
+            try {
+                rendered.complete(renderBounded(render, fallback));
+            } catch (Throwable t) {
+                rendered.completeExceptionally(t);
+            } finally {
+                if (!state.compareAndSet(RUNNING, DONE)) {
+                    stuck.decrementAndGet();
+                }
+            }
+        };
+        Future<?> running;
+        try {
+            running = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            // Shut down by a reload after the listener picked this pipeline; render on the caller
+            running = null;
+            task.run();
+        }
+        Future<?> handle = running;
+        rendered.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((text, ex) -> {
+            if (ex != null && handle != null && state.compareAndSet(RUNNING, ABANDONED)) {
+                // Free the permit if the render reacts to interrupts; counted as stuck until it returns
+                stuck.incrementAndGet();
+                handle.cancel(true);
+            }
+        });
+        CompletableFuture<T> line = rendered
+            .exceptionally(ex -> {
+                fallbacks.incrementAndGet();
+                if (!(ex instanceof TimeoutException) && !(ex.getCause() instanceof TimeoutException)) {
+                    logger.warning("Chat render failed: " + ex.getMessage());
+                }
+                return fallback;
+            });
+
+        CompletableFuture<Void> tail = tails.compute(sender, (uuid, previous) -> {
+            CompletableFuture<Void> prior = previous != null ? previous : CompletableFuture.completedFuture(null);
+            return prior.thenCombine(line, (ignored, text) -> text)
+                .thenAccept(text -> {
+                    try {
+                        deliver.accept(text);
+                        delivered.incrementAndGet();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                })
+                .exceptionally(ex -> {
+                    logger.warning("Chat delivery failed: " + ex.getMessage());
+                    return null;
+                });
+        });
+        tail.whenComplete((ignored, ex) -> tails.remove(sender, tail));
+    }
+
+    private <T> T renderBounded(Supplier<T> render, T fallback) {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                fallbacks.incrementAndGet();
+                return fallback;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback;
+        }
+        try {
+            return render.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Stops accepting work without waiting; lines already accepted are still rendered and delivered.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Stops accepting work and gives pending lines a moment to be delivered (plugin disable).
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void appendStats(StatsReport report) {
+        report.section("Chat pipeline (virtual threads)")
+            .line("In flight", inFlight.get())
+            .line("Busy renders", (maxConcurrent - permits.availablePermits()) + "/" + maxConcurrent)
+            .line("Stuck renders", stuck.get())
+            .line("Delivered", delivered.get())
+            .line("Timed out / failed", fallbacks.get());
+    }
+}
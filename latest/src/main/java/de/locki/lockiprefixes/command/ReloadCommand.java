@@ -5,6 +5,7 @@ import de.locki.lockiprefixes.gui.PrefixMenuManager;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -18,7 +19,7 @@ import java.util.stream.Collectors;
 
 /**
  * Command handler for /lockiprefixes.
- * Subcommands: reload | menu | accept | cancel
+ * Subcommands: reload | menu | stats | accept | cancel
  */
 public class ReloadCommand implements CommandExecutor, TabCompleter {
 
@@ -50,6 +51,9 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
             case "menu":
                 openMenu(sender);
                 break;
+            case "stats":
+                handleStats(sender);
+                break;
             // Internal: used by clickable chat buttons only (not shown in help/tab-complete)
             case "accept":
                 handleAccept(sender);
@@ -74,6 +78,16 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(Component.text("✔ LockiPrefixes configuration reloaded!", NamedTextColor.GREEN));
     }
 
+    private void handleStats(CommandSender sender) {
+        if (!sender.hasPermission("lockiprefixes.stats")) {
+            sender.sendMessage(Component.text("✘ You don't have permission to use this command.", NamedTextColor.RED));
+            return;
+        }
+        for (String line : plugin.buildStatsReport().getLines()) {
+            sender.sendMessage(LegacyComponentSerializer.legacySection().deserialize(line));
+        }
+    }
+
     private void openMenu(CommandSender sender) {
         if (!(sender instanceof Player player)) {
             sender.sendMessage(Component.text("✘ This command can only be used by players.", NamedTextColor.RED));
@@ -128,6 +142,10 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage(Component.text("  /lockiprefixes reload ", NamedTextColor.WHITE)
                 .append(Component.text("→ Reload configuration", NamedTextColor.GRAY)));
         }
+        if (sender.hasPermission("lockiprefixes.stats")) {
+            sender.sendMessage(Component.text("  /lockiprefixes stats  ", NamedTextColor.WHITE)
+                .append(Component.text("→ Runtime statistics", NamedTextColor.GRAY)));
+        }
         sender.sendMessage(Component.empty());
     }
 
@@ -137,6 +155,7 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
             List<String> options = new ArrayList<>();
             if (sender.hasPermission("lockiprefixes.menu"))   options.add("menu");
             if (sender.hasPermission("lockiprefixes.reload")) options.add("reload");
+            if (sender.hasPermission("lockiprefixes.stats"))  options.add("stats");
             return options.stream()
                 .filter(s -> s.startsWith(args[0].toLowerCase()))
                 .collect(Collectors.toList());
@@ -0,0 +1,39 @@
+package de.locki.lockiprefixes.leaderboard;
+
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.placeholder.PlayerData;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * {@link LeaderboardService} for Folia and Paper: players are re-ranked on their own entity
+ * scheduler, which drops the task by itself when they quit.
+ */
+public class RegionLeaderboardService extends LeaderboardService {
+
+    private final Plugin plugin;
+
+    public RegionLeaderboardService(Plugin plugin, LockiConfig config, Function<Player, PlayerData> playerDataProvider) {
+        super(plugin, config, playerDataProvider);
+        this.plugin = plugin;
+    }
+
+    @Override
+    protected void updateLater(UUID uuid) {
+        Player player = Bukkit.getPlayer(uuid);
+        if (player != null) {
+            player.getScheduler().run(plugin, task -> update(player), null);
+        }
+    }
+
+    @Override
+    public void refreshAll() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            updateLater(player.getUniqueId());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package de.locki.lockiprefixes.placeholder;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * {@link PlayerStatsSampler} for Folia and Paper: the tick advances on the global region, and when a
+ * sample is due each player gets a one-shot task on their own entity scheduler. Nothing runs per
+ * player while no template uses a stat slot.
+ */
+public class RegionStatsSampler extends PlayerStatsSampler {
+
+    private ScheduledTask tickTask;
+
+    @Override
+    public void start(Plugin plugin) {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        tickTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> {
+            tick();
+            if (isDue()) {
+                for (Player player : Bukkit.getOnlinePlayers()) {
+                    player.getScheduler().run(plugin, sample -> sample(player), null);
+                }
+            }
+        }, 1L, 1L);
+    }
+
+    @Override
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+}
@@ -2,9 +2,11 @@ package de.locki.lockiprefixes.tablist;
 
 import de.locki.lockiprefixes.LockiPrefixesPlugin;
 import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.core.GradientAnimation;
 import de.locki.lockiprefixes.format.ChatFormatter;
 import de.locki.lockiprefixes.lp.LuckPermsFacade;
 import de.locki.lockiprefixes.placeholder.PlayerData;
+import de.locki.lockiprefixes.placeholder.PlaceholderRegistry;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
@@ -12,6 +14,7 @@ import net.luckperms.api.LuckPerms;
 import net.luckperms.api.event.EventBus;
 import net.luckperms.api.event.user.UserDataRecalculateEvent;
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -20,9 +23,11 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.scoreboard.Scoreboard;
 import org.bukkit.scoreboard.Team;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the TAB list (player list) formatting.
@@ -39,13 +44,23 @@ public class TablistManager implements Listener {
     private final LuckPermsFacade luckPermsFacade;
     private final LockiConfig config;
     
-    // Animation state
-    private int animationFrame = 0;
-    private boolean animationEnabled = false;
+    // Frames per cycle for groups that don't set "frames"
+    private static final int DEFAULT_FRAMES = 100;
+
+    // Animation state: one animation and one current frame per group, all driven by one clock
+    private volatile Map<String, GradientAnimation> animations = Collections.emptyMap();
+    // Written by the animation task, read by updatePlayer from join and LuckPerms callbacks
+    private final Map<String, Integer> groupFrames = new ConcurrentHashMap<>();
+    private long animationClock = 0;
     private io.papermc.paper.threadedregions.scheduler.ScheduledTask animationTask = null;
+    private io.papermc.paper.threadedregions.scheduler.ScheduledTask statsTask = null;
+
+    // Last rendered data per player, reused by the live-stats refresh instead of re-querying LuckPerms
+    private final Map<UUID, PlayerData> tabData = new ConcurrentHashMap<>();
+    private final Map<UUID, String> tabNames = new ConcurrentHashMap<>();
     
     // Track player teams for sorting
-    private final Map<UUID, String> playerTeams = new HashMap<>();
+    private final Map<UUID, String> playerTeams = new ConcurrentHashMap<>();
 
     private static final LegacyComponentSerializer LEGACY_SERIALIZER =
         LegacyComponentSerializer.builder()
@@ -62,9 +77,23 @@ public class TablistManager implements Listener {
         
         // Register LuckPerms listener for rank changes
         registerLuckPermsListener();
+
+        // Re-render when another plugin invalidates a provided placeholder
+        PlaceholderRegistry registry = chatFormatter.getPlaceholderRegistry();
+        if (registry != null) {
+            registry.addInvalidationListener(uuid -> Bukkit.getGlobalRegionScheduler().run(plugin, task -> {
+                Player player = Bukkit.getPlayer(uuid);
+                if (player != null && player.isOnline()) {
+                    updatePlayer(player);
+                }
+            }));
+        }
         
         // Check if animation is enabled
         startAnimationIfEnabled();
+
+        // Live {ping}/{health}/... refresh
+        startStatsRefresh();
     }
 
     /**
@@ -93,22 +122,134 @@ public class TablistManager implements Listener {
 
     /**
      * Start animation task if enabled in config.
+     * The clock ticks every server tick; each group only redraws when its own frame changes.
      */
     public void startAnimationIfEnabled() {
-        // Check config for animation
-        animationEnabled = plugin.getConfig().getBoolean("tablist.animation.enabled", false);
-        int speed = plugin.getConfig().getInt("tablist.animation.speed", 5); // ticks between frames
-        
-        if (animationEnabled && animationTask == null) {
-            animationTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> {
-                animationFrame++;
-                if (animationFrame > 360) animationFrame = 0;
-                updateAll();
-            }, speed, speed);
-            plugin.getLogger().info("Tablist animation started.");
+        animations = loadAnimations();
+        groupFrames.clear();
+
+        if (!animations.isEmpty() && animationTask == null) {
+            animationTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> tickAnimations(), 1L, 1L);
+            plugin.getLogger().info("Tablist animation started for " + animations.size() + " group(s).");
+        }
+    }
+
+    /**
+     * Re-reads the animation settings, e.g. after a config reload.
+     */
+    public void reloadAnimations() {
+        stopAnimation();
+        startAnimationIfEnabled();
+    }
+
+    /**
+     * Reads "tablist.animation.groups". A group is either a color list ("#FF0000,#FF3366,#FF0000")
+     * or a section with colors, speed, frames, direction, easing and bold.
+     */
+    private Map<String, GradientAnimation> loadAnimations() {
+        if (!plugin.getConfig().getBoolean("tablist.animation.enabled", false)) {
+            return Collections.emptyMap();
+        }
+        ConfigurationSection groups = plugin.getConfig().getConfigurationSection("tablist.animation.groups");
+        if (groups == null) {
+            return Collections.emptyMap();
+        }
+        int defaultSpeed = plugin.getConfig().getInt("tablist.animation.speed", 5); // ticks between frames
+
+        Map<String, GradientAnimation> loaded = new HashMap<>();
+        for (String group : groups.getKeys(false)) {
+            ConfigurationSection section = groups.getConfigurationSection(group);
+            String colors = section != null ? section.getString("colors") : groups.getString(group);
+            int[] stops = GradientAnimation.parseStops(colors);
+            if (stops == null) {
+                plugin.getLogger().warning("Ignoring tablist animation for '" + group + "': needs at least two hex colors.");
+                continue;
+            }
+            GradientAnimation animation = section == null
+                ? new GradientAnimation(stops, defaultSpeed, DEFAULT_FRAMES,
+                    GradientAnimation.Direction.FORWARD, GradientAnimation.Easing.LINEAR, true, true)
+                : new GradientAnimation(stops,
+                    section.getInt("speed", defaultSpeed),
+                    section.getInt("frames", DEFAULT_FRAMES),
+                    GradientAnimation.Direction.byName(section.getString("direction")),
+                    GradientAnimation.Easing.byName(section.getString("easing")),
+                    section.getBoolean("bold", true),
+                    true);
+            loaded.put(group.toLowerCase(), animation);
+        }
+        return loaded;
+    }
+
+    /**
+     * Advances the shared clock. Each group's frame is computed once, and only members of
+     * groups whose frame changed are redrawn; players in static groups are never touched.
+     */
+    private void tickAnimations() {
+        long tick = ++animationClock;
+        Map<String, String> changed = null;
+        for (Map.Entry<String, GradientAnimation> entry : animations.entrySet()) {
+            int frame = entry.getValue().frameAt(tick);
+            Integer last = groupFrames.put(entry.getKey(), frame);
+            if (last == null || last != frame) {
+                if (changed == null) {
+                    changed = new HashMap<>();
+                }
+                changed.put(entry.getKey(), null);
+            }
+        }
+        if (changed == null) {
+            return;
+        }
+
+        for (Map.Entry<UUID, PlayerData> entry : tabData.entrySet()) {
+            PlayerData data = entry.getValue();
+            String group = data.getPrimaryGroup();
+            String key = group != null ? group.toLowerCase() : null;
+            if (key == null || !changed.containsKey(key)) {
+                continue;
+            }
+            // The frame's rank tag is shared by every member of the group
+            String tag = changed.get(key);
+            if (tag == null) {
+                tag = animatedRankTag(group, animations.get(key));
+                changed.put(key, tag);
+            }
+            String formatted = animatedEntry(data, tag);
+            if (formatted.equals(tabNames.put(entry.getKey(), formatted))) {
+                continue;
+            }
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player != null && player.isOnline()) {
+                player.playerListName(LEGACY_SERIALIZER.deserialize(formatted));
+            }
         }
     }
 
+    /**
+     * The player's tablist-format with {rank-tag} shown in the animated tag. Formats without
+     * {rank-tag} get the tag in front of the name instead.
+     */
+    private String animatedEntry(PlayerData data, String tag) {
+        if (!chatFormatter.hasLeaderboardRankTag(data)) {
+            return tag + " §7| §f" + data.getName();
+        }
+        data.setRankTag(tag);
+        return chatFormatter.formatLeaderboard(data);
+    }
+
+    /**
+     * The group's rank tag (e.g. "Owner") colored for the group's current frame.
+     */
+    private String animatedRankTag(String group, GradientAnimation animation) {
+        // The tab list is shared by all viewers, so no locale
+        String rankTag = config.getRankTag(group, null);
+        if (rankTag == null || rankTag.isEmpty()) {
+            rankTag = group; // Use group name as fallback
+        }
+        Integer frame = groupFrames.get(group.toLowerCase());
+        return animation.frame(rankTag, frame != null ? frame : animation.frameAt(animationClock));
+    }
+
     /**
      * Stop animation task.
      */
@@ -119,6 +260,56 @@ public class TablistManager implements Listener {
         }
     }
 
+    /**
+     * Start the periodic refresh for tablist formats showing per-tick stats.
+     */
+    public void startStatsRefresh() {
+        int interval = config.getTablistStatsRefreshInterval();
+        if (interval > 0 && statsTask == null) {
+            statsTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> refreshStats(), interval, interval);
+        }
+    }
+
+    /**
+     * Stop the live-stats refresh task.
+     */
+    public void stopStatsRefresh() {
+        if (statsTask != null) {
+            statsTask.cancel();
+            statsTask = null;
+        }
+    }
+
+    /**
+     * Re-renders only players whose tablist format uses per-tick values; unchanged names are not resent.
+     * Skips sorting and animated groups, which the animation task already redraws.
+     */
+    private void refreshStats() {
+        for (Map.Entry<UUID, PlayerData> entry : tabData.entrySet()) {
+            PlayerData data = entry.getValue();
+            if (!chatFormatter.isLeaderboardTickBound(data) || isAnimated(data)) {
+                continue;
+            }
+            String formatted = chatFormatter.formatLeaderboard(data);
+            if (formatted.equals(tabNames.put(entry.getKey(), formatted))) {
+                continue;
+            }
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player != null && player.isOnline()) {
+                player.playerListName(LEGACY_SERIALIZER.deserialize(formatted));
+            }
+        }
+    }
+
+    private boolean isAnimated(PlayerData playerData) {
+        return animationFor(playerData) != null;
+    }
+
+    private GradientAnimation animationFor(PlayerData playerData) {
+        String group = playerData.getPrimaryGroup();
+        return group != null ? animations.get(group.toLowerCase()) : null;
+    }
+
     /**
      * Update tablist for a player when they join.
      */
@@ -134,6 +325,8 @@ public class TablistManager implements Listener {
 
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
+        tabData.remove(event.getPlayer().getUniqueId());
+        tabNames.remove(event.getPlayer().getUniqueId());
         String teamName = playerTeams.remove(event.getPlayer().getUniqueId());
         if (teamName != null) {
             Scoreboard scoreboard = Bukkit.getScoreboardManager().getMainScoreboard();
@@ -155,28 +348,17 @@ public class TablistManager implements Listener {
         if (chatFormatter == null || luckPermsFacade == null) return;
 
         PlayerData playerData = createPlayerData(player);
+        tabData.put(player.getUniqueId(), playerData);
 
-        // Compute the normal (non-animated) format first — used as a safe fallback.
-        String normalFormatted = chatFormatter.formatLeaderboard(playerData);
-
-        String formatted = normalFormatted;
-
-        // Apply gradient animation only when enabled and the group has animation config.
-        String group = playerData.getPrimaryGroup();
-        String gradientCfg = group != null
-            ? plugin.getConfig().getString("tablist.animation.groups." + group.toLowerCase())
-            : null;
-
-        if (animationEnabled && gradientCfg != null) {
-            String animated = applyAnimatedGradient(normalFormatted, playerData);
-            if (animated != null) {
-                formatted = animated;
-            }
-            // If animated is null for some reason, fall back to normalFormatted (already set).
-        }
+        // Animated groups show the rank tag in the group's current frame, others the normal format
+        GradientAnimation animation = animationFor(playerData);
+        String formatted = animation != null
+            ? animatedEntry(playerData, animatedRankTag(playerData.getPrimaryGroup(), animation))
+            : chatFormatter.formatLeaderboard(playerData);
 
         Component component = LEGACY_SERIALIZER.deserialize(formatted);
         player.playerListName(component);
+        tabNames.put(player.getUniqueId(), formatted);
 
         // Update sorting
         updatePlayerSorting(player, playerData);
@@ -229,118 +411,6 @@ public class TablistManager implements Listener {
         playerTeams.put(player.getUniqueId(), teamName);
     }
 
-    /**
-     * Apply animated gradient to the RANK TAG only.
-     * Format: "Owner | Steve" with gradient on "Owner"
-     */
-    private String applyAnimatedGradient(String text, PlayerData playerData) {
-        String group = playerData.getPrimaryGroup();
-        if (group == null) return text;
-        
-        // Check if this group has animation
-        String gradientConfig = plugin.getConfig().getString("tablist.animation.groups." + group.toLowerCase());
-        if (gradientConfig == null) return text;
-        
-        // Get rank tag from config (e.g. "Owner")
-        String rankTag = plugin.getConfig().getString("groups." + group.toLowerCase() + ".rank-tag");
-        if (rankTag == null || rankTag.isEmpty()) {
-            rankTag = group; // Use group name as fallback
-        }
-        
-        // Parse gradient colors
-        String[] colors = gradientConfig.split(",");
-        if (colors.length < 2) return text;
-        
-        // Create animated gradient for the RANK TAG with BOLD
-        String gradientTag = createAnimatedGradient(rankTag, colors, animationFrame, true);
-        
-        // Build: gradient rank tag + gray | + white name
-        String name = playerData.getName();
-        return gradientTag + " §7| §f" + name;
-    }
-
-    /**
-     * Create an animated gradient text.
-     * Returns text with proper §x§R§R§G§G§B§B color codes.
-     */
-    private String createAnimatedGradient(String text, String[] colors, int frame, boolean bold) {
-        StringBuilder result = new StringBuilder();
-        int length = text.length();
-        
-        // Animation offset based on frame (cycles through colors)
-        float animationOffset = (frame % 100) / 100.0f;
-        
-        for (int i = 0; i < length; i++) {
-            // Calculate position in gradient with animation offset
-            float position = (float) i / Math.max(length - 1, 1);
-            float animatedPosition = (position + animationOffset) % 1.0f;
-            
-            // Get color at this position (returns §x§R§R§G§G§B§B format)
-            String color = getGradientColor(colors, animatedPosition);
-            result.append(color);
-            if (bold) result.append("§l"); // Add bold
-            result.append(text.charAt(i));
-        }
-        
-        return result.toString();
-    }
-    
-    // Overload for backwards compatibility
-    private String createAnimatedGradient(String text, String[] colors, int frame) {
-        return createAnimatedGradient(text, colors, frame, false);
-    }
-
-    /**
-     * Get color at a specific position in a gradient.
-     */
-    private String getGradientColor(String[] colors, float position) {
-        int segments = colors.length - 1;
-        float segmentSize = 1.0f / segments;
-        int segment = (int) (position / segmentSize);
-        if (segment >= segments) segment = segments - 1;
-        
-        float segmentPosition = (position - (segment * segmentSize)) / segmentSize;
-        
-        String color1 = colors[segment].trim();
-        String color2 = colors[segment + 1].trim();
-        
-        return interpolateColor(color1, color2, segmentPosition);
-    }
-
-    /**
-     * Interpolate between two hex colors.
-     * Returns Minecraft format: §x§R§R§G§G§B§B
-     */
-    private String interpolateColor(String hex1, String hex2, float ratio) {
-        // Remove # if present
-        hex1 = hex1.replace("#", "").replace("&#", "").trim();
-        hex2 = hex2.replace("#", "").replace("&#", "").trim();
-        
-        try {
-            int r1 = Integer.parseInt(hex1.substring(0, 2), 16);
-            int g1 = Integer.parseInt(hex1.substring(2, 4), 16);
-            int b1 = Integer.parseInt(hex1.substring(4, 6), 16);
-            
-            int r2 = Integer.parseInt(hex2.substring(0, 2), 16);
-            int g2 = Integer.parseInt(hex2.substring(2, 4), 16);
-            int b2 = Integer.parseInt(hex2.substring(4, 6), 16);
-            
-            int r = (int) (r1 + (r2 - r1) * ratio);
-            int g = (int) (g1 + (g2 - g1) * ratio);
-            int b = (int) (b1 + (b2 - b1) * ratio);
-            
-            // Convert to Minecraft format: §x§R§R§G§G§B§B
-            String hex = String.format("%02X%02X%02X", r, g, b);
-            StringBuilder mc = new StringBuilder("§x");
-            for (char c : hex.toCharArray()) {
-                mc.append("§").append(c);
-            }
-            return mc.toString();
-        } catch (Exception e) {
-            return "§f"; // White fallback
-        }
-    }
-
     /**
      * Updates the tablist for all online players.
      */
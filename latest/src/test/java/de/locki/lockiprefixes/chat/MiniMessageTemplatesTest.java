@@ -0,0 +1,86 @@
+package de.locki.lockiprefixes.chat;
+
+import de.locki.lockiprefixes.color.MessageColors;
+import de.locki.lockiprefixes.config.LockiConfig;
+import de.locki.lockiprefixes.format.ChatFormatter;
+import de.locki.lockiprefixes.placeholder.PlayerData;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class MiniMessageTemplatesTest {
+
+    private static final String MESSAGE = "&cred &#ff0000hex";
+
+    @Test
+    public void translatesOnlyTheCodesTheSenderMayUse() {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("chat.format", "<gray>{name}: {message}");
+        yaml.set("chat.minimessage", true);
+        LockiConfig config = new LockiConfig();
+        config.load(yaml);
+        ChatFormatter chatFormatter = new ChatFormatter(config, null, true);
+        MiniMessageTemplates templates = new MiniMessageTemplates(config, null);
+
+        PlayerData data = new PlayerData();
+        data.setName("Steve");
+        data.setMessageColors(MessageColors.NONE);
+        assertEquals("Steve: &cred &#ff0000hex", plain(templates.render(chatFormatter, null, data, MESSAGE)));
+
+        data.setMessageColors(MessageColors.COLORS);
+        assertEquals("Steve: red &#ff0000hex", plain(templates.render(chatFormatter, null, data, MESSAGE)));
+
+        data.setMessageColors(MessageColors.ALL);
+        assertEquals("Steve: red hex", plain(templates.render(chatFormatter, null, data, MESSAGE)));
+    }
+
+    @Test
+    public void highlightsMentions() {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("chat.format", "<gray>{name}: {message}");
+        yaml.set("chat.mentions.style", "&e");
+        LockiConfig config = new LockiConfig();
+        config.load(yaml);
+        ChatFormatter chatFormatter = new ChatFormatter(config, null, true);
+        MentionMatcher matcher = new MentionMatcher();
+        matcher.add(UUID.randomUUID(), "Alex");
+        chatFormatter.setMentionMatcher(matcher);
+        MiniMessageTemplates templates = new MiniMessageTemplates(config, null);
+
+        PlayerData data = new PlayerData();
+        data.setName("Steve");
+        data.setMessageColors(MessageColors.NONE);
+        Component line = templates.render(chatFormatter, null, data, "hi @alex &c!");
+        assertEquals("Steve: hi @alex &c!", plain(line));
+        TextComponent mention = find(line, "@alex");
+        assertNotNull(mention);
+        assertEquals(NamedTextColor.YELLOW, mention.color());
+        // The text after the mention is back in the format's color
+        assertEquals(NamedTextColor.GRAY, find(line, " &c!").color());
+    }
+
+    private static TextComponent find(Component component, String content) {
+        if (component instanceof TextComponent && content.equals(((TextComponent) component).content())) {
+            return (TextComponent) component;
+        }
+        for (Component child : component.children()) {
+            TextComponent found = find(child, content);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private static String plain(Component component) {
+        return PlainTextComponentSerializer.plainText().serialize(component);
+    }
+}
@@ -32,6 +32,7 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
         String sub = args[0].toLowerCase();
         if (sub.equals("reload")) { handleReload(sender); }
         else if (sub.equals("menu")) { openMenu(sender); }
+        else if (sub.equals("stats")) { handleStats(sender); }
         else if (sub.equals("accept")) { handleAccept(sender); }
         else if (sub.equals("cancel")) { handleCancel(sender); }
         else { sendHelp(sender); }
@@ -46,6 +47,15 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.GREEN + "* LockiPrefixes configuration reloaded!");
     }
 
+    private void handleStats(CommandSender sender) {
+        if (!sender.hasPermission("lockiprefixes.stats")) {
+            sender.sendMessage(ChatColor.RED + "X You don't have permission."); return;
+        }
+        for (String line : plugin.buildStatsReport().getLines()) {
+            sender.sendMessage(line);
+        }
+    }
+
     private void openMenu(CommandSender sender) {
         if (!(sender instanceof Player)) { sender.sendMessage(ChatColor.RED + "X Players only."); return; }
         Player p = (Player) sender;
@@ -75,6 +85,9 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
         if (sender.hasPermission("lockiprefixes.reload")) {
             sender.sendMessage(ChatColor.WHITE + "  /lpx reload " + ChatColor.GRAY + "-> Reload config");
         }
+        if (sender.hasPermission("lockiprefixes.stats")) {
+            sender.sendMessage(ChatColor.WHITE + "  /lpx stats  " + ChatColor.GRAY + "-> Runtime statistics");
+        }
         sender.sendMessage("");
     }
 
@@ -82,7 +95,7 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (args.length == 1) {
             List<String> result = new ArrayList<String>();
-            for (String o : Arrays.asList("menu", "reload")) {
+            for (String o : Arrays.asList("menu", "reload", "stats")) {
                 if (o.startsWith(args[0].toLowerCase())) result.add(o);
             }
             return result;
@@ -16,7 +16,7 @@ import java.util.List;
 
 /**
  * Command handler for /lockiprefixes (mid versions).
- * Subcommands: reload | menu | accept | cancel
+ * Subcommands: reload | menu | stats | accept | cancel
  */
 public class ReloadCommand implements CommandExecutor, TabCompleter {
 
@@ -43,6 +43,8 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
             handleReload(sender);
         } else if (sub.equals("menu")) {
             openMenu(sender);
+        } else if (sub.equals("stats")) {
+            handleStats(sender);
         } else if (sub.equals("accept")) {
             handleAccept(sender);
         } else if (sub.equals("cancel")) {
@@ -62,6 +64,16 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.GREEN + "✔ LockiPrefixes configuration reloaded!");
     }
 
+    private void handleStats(CommandSender sender) {
+        if (!sender.hasPermission("lockiprefixes.stats")) {
+            sender.sendMessage(ChatColor.RED + "✘ You don't have permission to use this command.");
+            return;
+        }
+        for (String line : plugin.buildStatsReport().getLines()) {
+            sender.sendMessage(line);
+        }
+    }
+
     private void openMenu(CommandSender sender) {
         if (!(sender instanceof Player)) {
             sender.sendMessage(ChatColor.RED + "✘ This command can only be used by players.");
@@ -107,13 +119,16 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
         if (sender.hasPermission("lockiprefixes.reload")) {
             sender.sendMessage(ChatColor.WHITE + "  /lpx reload " + ChatColor.GRAY + "→ Reload config");
         }
+        if (sender.hasPermission("lockiprefixes.stats")) {
+            sender.sendMessage(ChatColor.WHITE + "  /lpx stats  " + ChatColor.GRAY + "→ Runtime statistics");
+        }
         sender.sendMessage("");
     }
 
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (args.length == 1) {
-            List<String> opts = new ArrayList<String>(Arrays.asList("menu", "reload"));
+            List<String> opts = new ArrayList<String>(Arrays.asList("menu", "reload", "stats"));
             List<String> result = new ArrayList<String>();
             for (String o : opts) {
                 if (o.startsWith(args[0].toLowerCase())) result.add(o);
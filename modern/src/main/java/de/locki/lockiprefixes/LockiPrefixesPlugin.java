@@ -1,22 +1,41 @@
 package de.locki.lockiprefixes;
 
+import de.locki.lockiprefixes.channel.ChannelManager;
+import de.locki.lockiprefixes.chat.ChatHistory;
+import de.locki.lockiprefixes.chat.ChatLogWriter;
+import de.locki.lockiprefixes.chat.IgnoreManager;
+import de.locki.lockiprefixes.chat.MentionManager;
 import de.locki.lockiprefixes.chat.ModernChatListener;
+import de.locki.lockiprefixes.color.ClientCapability;
+import de.locki.lockiprefixes.color.ClientCapabilityResolver;
+import de.locki.lockiprefixes.color.ColorParser;
+import de.locki.lockiprefixes.color.MessageColorCache;
+import de.locki.lockiprefixes.color.ViaVersionCapabilityResolver;
+import de.locki.lockiprefixes.command.IgnoreCommand;
 import de.locki.lockiprefixes.command.ReloadCommand;
 import de.locki.lockiprefixes.config.LockiConfig;
 import de.locki.lockiprefixes.format.ChatFormatter;
 import de.locki.lockiprefixes.gui.PrefixChatInputListener;
 import de.locki.lockiprefixes.gui.PrefixGuiListener;
 import de.locki.lockiprefixes.gui.PrefixMenuManager;
+import de.locki.lockiprefixes.leaderboard.LeaderboardService;
 import de.locki.lockiprefixes.lp.LuckPermsFacade;
 import de.locki.lockiprefixes.papi.LockiPrefixesExpansion;
+import de.locki.lockiprefixes.placeholder.PlaceholderRegistry;
 import de.locki.lockiprefixes.placeholder.PlayerData;
+import de.locki.lockiprefixes.placeholder.PlayerStatsSampler;
+import de.locki.lockiprefixes.stats.StatsReport;
 import de.locki.lockiprefixes.tablist.SimpleTablistManager;
 import de.locki.lockiprefixes.update.UpdateNotifier;
 import net.luckperms.api.LuckPerms;
 import org.bstats.bukkit.Metrics;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
 
 /**
  * LockiPrefixes Plugin - Modern version for Minecraft 1.17-1.19
@@ -32,7 +51,18 @@ public class LockiPrefixesPlugin extends JavaPlugin {
     private LockiConfig lockiConfig;
     private LuckPermsFacade luckPermsFacade;
     private ChatFormatter chatFormatter;
+    private PlaceholderRegistry placeholderRegistry;
     private PrefixMenuManager prefixMenuManager;
+    private LeaderboardService leaderboardService;
+    private ChannelManager channelManager;
+    private IgnoreManager ignoreManager;
+    private MessageColorCache messageColorCache;
+    private MentionManager mentionManager;
+    private PlayerStatsSampler statsSampler;
+    private ChatHistory<String> chatHistory;
+    private ChatLogWriter chatLog;
+    private ClientCapabilityResolver capabilityResolver;
+    private BukkitTask leaderboardRefreshTask;
     private SimpleTablistManager tablistManager;
     private UpdateNotifier updateNotifier;
 
@@ -63,8 +93,31 @@ public class LockiPrefixesPlugin extends JavaPlugin {
         }
         luckPermsFacade = new LuckPermsFacade(luckPerms);
 
+        // Placeholder providers from other plugins ({key} slots in any format)
+        placeholderRegistry = new PlaceholderRegistry(getLogger());
+        getServer().getPluginManager().registerEvents(placeholderRegistry, this);
+        getServer().getServicesManager().register(PlaceholderRegistry.class, placeholderRegistry, this, ServicePriority.Normal);
+
         // Initialize formatter with hex support
-        chatFormatter = new ChatFormatter(lockiConfig, luckPermsFacade, true);
+        chatFormatter = new ChatFormatter(lockiConfig, luckPermsFacade, true, placeholderRegistry);
+
+        // Online names for mentions, highlighted by the formatter and pinged by the chat listener
+        mentionManager = new MentionManager(this, lockiConfig);
+        mentionManager.start();
+        chatFormatter.setMentionMatcher(mentionManager.getMatcher());
+
+        // Stat placeholders ({ping}, {health}, ...) read snapshots taken on the main thread each tick
+        statsSampler = new PlayerStatsSampler();
+        statsSampler.start(this);
+        chatFormatter.setStatsSampler(statsSampler);
+
+        // Viewer capabilities: pre-1.16 clients joining through ViaVersion get hex colors downsampled
+        capabilityResolver = getServer().getPluginManager().getPlugin("ViaVersion") != null
+            ? ViaVersionCapabilityResolver.create(this, ClientCapability.HEX) : null;
+
+        // Chat color permissions, cached per player until LuckPerms recalculates them
+        messageColorCache = new MessageColorCache(this, luckPermsFacade);
+        messageColorCache.start();
 
         // Register chat listener
         getServer().getPluginManager().registerEvents(
@@ -77,6 +130,28 @@ public class LockiPrefixesPlugin extends JavaPlugin {
             getServer().getPluginManager().registerEvents(tablistManager, this);
         }
 
+        // Leaderboard ranking (backs %lockiprefixes_position% and %lockiprefixes_top_<n>%)
+        leaderboardService = new LeaderboardService(this, lockiConfig, this::createPlayerData);
+        leaderboardService.start(luckPermsFacade);
+        scheduleLeaderboardRefresh();
+
+        // Chat channels (membership sets maintained on join/quit/world change/permission changes)
+        channelManager = new ChannelManager(this, lockiConfig);
+        channelManager.start(luckPermsFacade);
+
+        // Ignore lists (/ignore), persisted as LuckPerms meta
+        ignoreManager = new IgnoreManager(this, luckPermsFacade);
+        ignoreManager.start();
+
+        // Last global chat lines, replayed to joining players
+        chatHistory = new ChatHistory<String>(lockiConfig, (player, line) -> player.sendMessage(
+            capabilityResolver != null && capabilityResolver.resolve(player.getUniqueId()) == ClientCapability.LEGACY
+                ? ColorParser.downsampleHex(line) : line), ignoreManager);
+        getServer().getPluginManager().registerEvents(chatHistory, this);
+
+        // Chat audit log (background writer, see ChatLogWriter)
+        startChatLog();
+
         // Initialize Prefix Manager GUI
         prefixMenuManager = new PrefixMenuManager(this, luckPermsFacade);
         getServer().getPluginManager().registerEvents(new PrefixGuiListener(prefixMenuManager), this);
@@ -92,13 +167,19 @@ public class LockiPrefixesPlugin extends JavaPlugin {
         } else {
             getLogger().severe("Command 'lockiprefixes' not found in plugin.yml — skipping registration.");
         }
+        org.bukkit.command.PluginCommand ignoreCmd = getCommand("ignore");
+        if (ignoreCmd != null && ignoreManager != null) {
+            IgnoreCommand ignoreCommand = new IgnoreCommand(ignoreManager);
+            ignoreCmd.setExecutor(ignoreCommand);
+            ignoreCmd.setTabCompleter(ignoreCommand);
+        }
         if (getCommand("prefixmenu") != null) {
             getCommand("prefixmenu").setExecutor(reloadCommand);
         }
 
         // Register PlaceholderAPI expansion if available
         if (getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
-            new LockiPrefixesExpansion(this, this::getChatFormatter, this::createPlayerData).register();
+            new LockiPrefixesExpansion(this, this::getChatFormatter, this::createPlayerData, leaderboardService).register();
             getLogger().info("PlaceholderAPI expansion registered.");
         }
 
@@ -110,9 +191,18 @@ public class LockiPrefixesPlugin extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (chatLog != null) {
+            chatLog.close();
+        }
         if (updateNotifier != null) {
             updateNotifier.stop();
         }
+        if (leaderboardRefreshTask != null) {
+            leaderboardRefreshTask.cancel();
+        }
+        if (statsSampler != null) {
+            statsSampler.stop();
+        }
         if (luckPermsFacade != null) {
             luckPermsFacade.clearCache();
         }
@@ -147,14 +237,62 @@ public class LockiPrefixesPlugin extends JavaPlugin {
         reloadConfig();
         lockiConfig.load(getConfig());
         luckPermsFacade.clearCache();
-        chatFormatter = new ChatFormatter(lockiConfig, luckPermsFacade, true);
+        chatFormatter = new ChatFormatter(lockiConfig, luckPermsFacade, true, placeholderRegistry);
+        if (mentionManager != null) {
+            chatFormatter.setMentionMatcher(mentionManager.getMatcher());
+        }
+        if (statsSampler != null) {
+            chatFormatter.setStatsSampler(statsSampler);
+        }
         if (tablistManager != null) {
             tablistManager.setChatFormatter(chatFormatter);
             tablistManager.updateAll();
         }
+        if (leaderboardService != null) {
+            leaderboardService.reload();
+            scheduleLeaderboardRefresh();
+        }
+        if (channelManager != null) {
+            channelManager.rebuild();
+        }
+        startChatLog();
         getLogger().info("Configuration reloaded.");
     }
 
+    /**
+     * (Re)starts the chat log so changed chat.log settings apply; the old writer is flushed first.
+     */
+    private void startChatLog() {
+        if (chatLog != null) {
+            chatLog.close();
+            chatLog = null;
+        }
+        if (lockiConfig.isChatLogEnabled()) {
+            chatLog = new ChatLogWriter(new File(getDataFolder(), "chat-logs"), getLogger(), lockiConfig);
+            chatLog.start();
+        }
+    }
+
+    /**
+     * Placeholder-based ranking keys have no change event, so they are re-sampled on a timer.
+     */
+    private void scheduleLeaderboardRefresh() {
+        if (leaderboardRefreshTask != null) {
+            leaderboardRefreshTask.cancel();
+            leaderboardRefreshTask = null;
+        }
+        if (!leaderboardService.needsPolling()) {
+            return;
+        }
+        long interval = lockiConfig.getLeaderboardRefreshInterval();
+        leaderboardRefreshTask = getServer().getScheduler().runTaskTimer(this, new Runnable() {
+            @Override
+            public void run() {
+                leaderboardService.refreshAll();
+            }
+        }, interval, interval);
+    }
+
     private boolean isTabPluginAvailable() {
         return getServer().getPluginManager().getPlugin("TAB") != null
             || getServer().getPluginManager().getPlugin("tab-master") != null
@@ -176,4 +314,67 @@ public class LockiPrefixesPlugin extends JavaPlugin {
     public LuckPermsFacade getLuckPermsFacade() {
         return luckPermsFacade;
     }
+
+    public PlaceholderRegistry getPlaceholderRegistry() {
+        return placeholderRegistry;
+    }
+
+    public ChannelManager getChannelManager() {
+        return channelManager;
+    }
+
+    public MessageColorCache getMessageColorCache() {
+        return messageColorCache;
+    }
+
+    /** Ignore lists, or null when LuckPerms is unavailable. */
+    public IgnoreManager getIgnoreManager() {
+        return ignoreManager;
+    }
+
+    /** Mention tracking, or null when LuckPerms is unavailable. */
+    public MentionManager getMentionManager() {
+        return mentionManager;
+    }
+
+    public ChatHistory<String> getChatHistory() {
+        return chatHistory;
+    }
+
+    /** Viewer client capabilities (hex or legacy colors), or null without ViaVersion or hex support. */
+    public ClientCapabilityResolver getCapabilityResolver() {
+        return capabilityResolver;
+    }
+
+    /** The chat audit log, or null when chat.log.enabled is off. */
+    public ChatLogWriter getChatLog() {
+        return chatLog;
+    }
+
+    public LeaderboardService getLeaderboardService() {
+        return leaderboardService;
+    }
+
+    /**
+     * Collects runtime statistics for /lockiprefixes stats.
+     */
+    public StatsReport buildStatsReport() {
+        StatsReport report = new StatsReport();
+        if (chatFormatter != null) {
+            chatFormatter.appendStats(report);
+        }
+        if (channelManager != null && lockiConfig.isChannelsEnabled()) {
+            channelManager.appendStats(report);
+        }
+        if (ignoreManager != null) {
+            ignoreManager.appendStats(report);
+        }
+        if (mentionManager != null) {
+            mentionManager.appendStats(report);
+        }
+        if (chatLog != null) {
+            chatLog.appendStats(report);
+        }
+        return report;
+    }
 }
@@ -1,7 +1,9 @@
 package de.locki.lockiprefixes.chat;
 
 import de.locki.lockiprefixes.LockiPrefixesPlugin;
+import de.locki.lockiprefixes.channel.ChannelManager;
 import de.locki.lockiprefixes.format.ChatFormatter;
+import de.locki.lockiprefixes.format.LocalizedLine;
 import de.locki.lockiprefixes.lp.LuckPermsFacade;
 import de.locki.lockiprefixes.placeholder.PlayerData;
 import org.bukkit.entity.Player;
@@ -10,12 +12,17 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Chat listener for Modern versions (1.17-1.19).
  * Uses AsyncPlayerChatEvent with full hex color support.
  */
 public class ModernChatListener implements Listener {
 
+    private static final ClientLocaleResolver CLIENT_LOCALE = Player::getLocale;
+
     private final LockiPrefixesPlugin plugin;
     private final LuckPermsFacade luckPermsFacade;
 
@@ -35,6 +42,8 @@ public class ModernChatListener implements Listener {
         playerData.setName(player.getName());
         playerData.setDisplayName(player.getDisplayName());
         playerData.setWorld(player.getWorld().getName());
+        // Codes the sender may use in the message (lockiprefixes.chat.color/format/hex)
+        playerData.setMessageColors(plugin.getMessageColorCache().get(player));
 
         // Populate LuckPerms data
         luckPermsFacade.populatePlayerData(playerData);
@@ -43,10 +52,61 @@ public class ModernChatListener implements Listener {
         ChatFormatter formatter = plugin.getChatFormatter();
         if (formatter == null) return;
 
-        // Format the message
-        String formatted = formatter.formatChat(playerData, event.getMessage());
+        // Channel routing (null when channels are disabled)
+        ChannelManager channelManager = plugin.getChannelManager();
+        ChannelManager.Route route = channelManager != null ? channelManager.route(player, event.getMessage()) : null;
+
+        // Format the message (locale variants are rendered on demand during delivery)
+        LocalizedLine<String> line = formatter.formatChatLocalized(route != null ? route.getChannel().getId() : null,
+            playerData, route != null ? route.getMessage() : event.getMessage(), false);
+        String formatted = line.getDefault();
+
+        ChatLogWriter chatLog = plugin.getChatLog();
+        if (chatLog != null) {
+            chatLog.log(playerData, route != null ? route.getChannel().getId() : "",
+                route != null ? route.getMessage() : event.getMessage(), formatted);
+        }
+
+        IgnoreManager ignoreManager = plugin.getIgnoreManager();
+        if (route != null && !route.isGlobal()) {
+            // Only the channel's members, straight from its membership set
+            Collection<Player> recipients = channelManager.getRecipients(route, player);
+            if (ignoreManager != null) {
+                recipients = ignoreManager.filter(player, recipients);
+            }
+            pingMentions(player, route.getMessage(), recipients);
+            ChatDelivery.deliverTo(event, line, recipients,
+                plugin.getCapabilityResolver(), CLIENT_LOCALE);
+            return;
+        }
+        if (ignoreManager != null) {
+            ignoreManager.removeIgnoring(player, event.getRecipients());
+        }
+
+        pingMentions(player, route != null ? route.getMessage() : event.getMessage(), event.getRecipients());
+
+        // Hand the rendered line to Bukkit (format / message / direct, see ChatDelivery)
+        ChatDelivery.deliver(event, line, formatter.getConfig().getChatMode(), plugin.getCapabilityResolver(), CLIENT_LOCALE);
+
+        // Kept as rendered, so joining players get a straight copy
+        ChatHistory<String> history = plugin.getChatHistory();
+        if (history != null) {
+            history.record(player.getUniqueId(), formatted);
+        }
+    }
 
-        // Set the format - escape % characters
-        event.setFormat(formatted.replace("%", "%%"));
+    /**
+     * Plays the mention sound to mentioned recipients. The formatter already scanned the message,
+     * so this reuses its mentions.
+     */
+    private void pingMentions(Player sender, String message, Collection<? extends Player> recipients) {
+        MentionManager mentionManager = plugin.getMentionManager();
+        if (mentionManager == null) {
+            return;
+        }
+        List<Player> targets = mentionManager.mentioned(sender, message, recipients);
+        if (!targets.isEmpty()) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> targets.forEach(mentionManager::ping));
+        }
     }
 }
@@ -16,7 +16,7 @@ import java.util.List;
 
 /**
  * Command handler for /lockiprefixes (modern versions).
- * Subcommands: reload | menu | accept | cancel
+ * Subcommands: reload | menu | stats | accept | cancel
  */
 public class ReloadCommand implements CommandExecutor, TabCompleter {
 
@@ -37,6 +37,7 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
         String sub = args[0].toLowerCase();
         if (sub.equals("reload")) { handleReload(sender); }
         else if (sub.equals("menu")) { openMenu(sender); }
+        else if (sub.equals("stats")) { handleStats(sender); }
         else if (sub.equals("accept")) { handleAccept(sender); }
         else if (sub.equals("cancel")) { handleCancel(sender); }
         else { sendHelp(sender); }
@@ -52,6 +53,16 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.GREEN + "\u2714 LockiPrefixes configuration reloaded!");
     }
 
+    private void handleStats(CommandSender sender) {
+        if (!sender.hasPermission("lockiprefixes.stats")) {
+            sender.sendMessage(ChatColor.RED + "\u2718 You don't have permission to use this command.");
+            return;
+        }
+        for (String line : plugin.buildStatsReport().getLines()) {
+            sender.sendMessage(line);
+        }
+    }
+
     private void openMenu(CommandSender sender) {
         if (!(sender instanceof Player)) {
             sender.sendMessage(ChatColor.RED + "\u2718 This command can only be used by players.");
@@ -91,13 +102,16 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
         if (sender.hasPermission("lockiprefixes.reload")) {
             sender.sendMessage(ChatColor.WHITE + "  /lpx reload " + ChatColor.GRAY + "\u2192 Reload config");
         }
+        if (sender.hasPermission("lockiprefixes.stats")) {
+            sender.sendMessage(ChatColor.WHITE + "  /lpx stats  " + ChatColor.GRAY + "\u2192 Runtime statistics");
+        }
         sender.sendMessage("");
     }
 
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (args.length == 1) {
-            List<String> opts = new ArrayList<String>(Arrays.asList("menu", "reload"));
+            List<String> opts = new ArrayList<String>(Arrays.asList("menu", "reload", "stats"));
             List<String> result = new ArrayList<String>();
             for (String o : opts) { if (o.startsWith(args[0].toLowerCase())) result.add(o); }
             return result;